@@ -59,6 +59,8 @@ public class AsynLatchResult<V> extends AsynResult<V> {
 
     /**
      * 获取事件通知处理结果具体数值
+     * <br>
+     * 超时或被中断后结果失效，与{@link AsynResult#get(long, TimeUnit)}一致
      *
      * @param timeout 超时时间
      * @param unit    超时时间类型
@@ -72,10 +74,11 @@ public class AsynLatchResult<V> extends AsynResult<V> {
                 return super._isDone() ? (V) this.result : null;
             }
         } catch (InterruptedException e) {
-            this.cdl.countDown();
             ExceptionUtils.processInterruptedException();
         }
-        this.set(null);
+        if (!this.expire("Getting result timeout")) {
+            return super._isDone() ? (V) this.result : null;
+        }
         throw new TimeoutException("Getting result timeout");
     }
 
@@ -86,8 +89,17 @@ public class AsynLatchResult<V> extends AsynResult<V> {
      */
     @Override
     public void set(V result) {
+        //先赋值再计数，保证被唤醒的线程读到的是本次结果
+        if (this.compareAndSetResult(result)) {
+            this.cdl.countDown();
+            this.signalAll();
+        }
+    }
+
+    @Override
+    protected void onExpired() {
         this.cdl.countDown();
-        this.result = result;
+        this.signalAll();
     }
 }
 
@@ -0,0 +1,347 @@
+package com.kaka.notice;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 异步事件执行限流器
+ * <br>
+ * 限制同时执行的异步任务数量，超出的任务进入有界等待队列，由执行完成的任务依次唤醒；
+ * 等待队列已满时按{@link OverflowPolicy}处理溢出的任务。
+ * <br>
+ * 通过{@link Facade#initAsynLimiter(AsynLimiter)}或{@link Facade#initAsynLimiter(Object, AsynLimiter)}设置后，
+ * {@link Message.ExecuteType#ASYN_THREAD}及{@link Message.ExecuteType#ASYN_VIRTUAL_THREAD}方式的事件消息均经由此限流器执行，
+ * 流量突增时不会无限制的创建虚拟线程或堆积线程池任务；按键分道的事件消息（{@link Facade#sendMessage(Message, Object, Message.ExecuteType)}）除外。
+ * <br>
+ * 被丢弃的事件消息不会执行，其绑定的{@link IResult}也不会被赋值，等待结果时请设置超时时间；
+ * 从{@link Pooled}获取的事件消息被丢弃或拒绝执行时回收至对象池。
+ * 等待队列中的任务被线程池拒绝执行时计为丢弃，不会向执行完成的任务抛出异常。
+ *
+ * @author zkpursuit
+ */
+public class AsynLimiter {
+
+    /**
+     * 等待队列已满时的溢出处理策略
+     */
+    public enum OverflowPolicy {
+        /**
+         * 阻塞调用线程直到等待队列有空位，调用线程被中断时抛出{@link RejectedExecutionException}
+         */
+        BLOCK,
+        /**
+         * 由调用线程直接执行
+         */
+        CALLER_RUNS,
+        /**
+         * 丢弃等待队列中最早的任务，再将当前任务放入等待队列
+         */
+        DROP_OLDEST,
+        /**
+         * 丢弃当前任务
+         */
+        DROP_NEWEST,
+        /**
+         * 抛出{@link RejectedExecutionException}
+         */
+        FAIL
+    }
+
+    /**
+     * 统计数据快照
+     *
+     * @param maxInFlight   最大同时执行数量
+     * @param queueCapacity 等待队列容量
+     * @param running       正在执行的任务数量
+     * @param queued        等待队列中的任务数量
+     * @param submitted     累计提交的任务数量
+     * @param rejected      累计因等待队列已满而触发溢出策略的次数
+     * @param dropped       累计被丢弃的任务数量
+     * @param callerRuns    累计由调用线程直接执行的任务数量
+     */
+    public record Statistics(int maxInFlight, int queueCapacity, int running, int queued,
+                             long submitted, long rejected, long dropped, long callerRuns) {
+    }
+
+    /**
+     * 受限执行的任务，执行完成后释放执行名额并唤醒等待队列中的任务
+     */
+    private final class LimitedTask implements Runnable {
+        final Runnable task;
+        final Executor executor;
+        final Runnable onDiscard;
+
+        LimitedTask(Runnable task, Executor executor, Runnable onDiscard) {
+            this.task = task;
+            this.executor = executor;
+            this.onDiscard = onDiscard;
+        }
+
+        /**
+         * 任务不再执行
+         */
+        void discard() {
+            if (onDiscard != null) {
+                onDiscard.run();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                task.run();
+            } finally {
+                running.decrementAndGet();
+                drain();
+            }
+        }
+    }
+
+    private final int maxInFlight;
+    private final int queueCapacity;
+    private final OverflowPolicy policy;
+    private final BlockingQueue<LimitedTask> queue;
+    private final AtomicInteger running = new AtomicInteger();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder callerRuns = new LongAdder();
+
+    /**
+     * 构造方法
+     *
+     * @param maxInFlight   最大同时执行数量
+     * @param queueCapacity 等待队列容量
+     * @param policy        等待队列已满时的溢出处理策略
+     */
+    public AsynLimiter(int maxInFlight, int queueCapacity, OverflowPolicy policy) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+        }
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("queueCapacity must be positive: " + queueCapacity);
+        }
+        if (policy == null) {
+            throw new NullPointerException("policy");
+        }
+        this.maxInFlight = maxInFlight;
+        this.queueCapacity = queueCapacity;
+        this.policy = policy;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    /**
+     * 执行异步任务
+     *
+     * @param task     任务
+     * @param executor 执行任务的线程池，为null时以虚拟线程执行
+     * @throws RejectedExecutionException 溢出策略为{@link OverflowPolicy#FAIL}且等待队列已满，或阻塞等待时被中断
+     */
+    public void execute(Runnable task, Executor executor) {
+        execute(task, executor, null);
+    }
+
+    /**
+     * 执行异步任务
+     *
+     * @param task      任务
+     * @param executor  执行任务的线程池，为null时以虚拟线程执行
+     * @param onDiscard 任务被丢弃或拒绝执行时的回调，可为null，比如回收任务持有的事件消息；每个任务至多回调一次
+     * @throws RejectedExecutionException 溢出策略为{@link OverflowPolicy#FAIL}且等待队列已满，或阻塞等待时被中断，或线程池拒绝执行
+     */
+    public void execute(Runnable task, Executor executor, Runnable onDiscard) {
+        submitted.increment();
+        final LimitedTask limitedTask = new LimitedTask(task, executor, onDiscard);
+        if (tryAcquire()) {
+            try {
+                start(limitedTask);
+            } catch (RuntimeException ex) {
+                limitedTask.discard();
+                throw ex;
+            }
+            return;
+        }
+        while (!queue.offer(limitedTask)) {
+            rejected.increment();
+            switch (policy) {
+                case BLOCK:
+                    try {
+                        queue.put(limitedTask);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        limitedTask.discard();
+                        throw new RejectedExecutionException("interrupted while waiting for queue space", ex);
+                    }
+                    drain();
+                    return;
+                case CALLER_RUNS:
+                    callerRuns.increment();
+                    task.run();
+                    return;
+                case DROP_OLDEST:
+                    LimitedTask oldest = queue.poll();
+                    if (oldest != null) {
+                        dropped.increment();
+                        oldest.discard();
+                    }
+                    break;
+                case DROP_NEWEST:
+                    dropped.increment();
+                    limitedTask.discard();
+                    return;
+                default:
+                    limitedTask.discard();
+                    throw new RejectedExecutionException(String.format("异步事件等待队列已满，最大同时执行数量：%d，等待队列容量：%d", maxInFlight, queueCapacity));
+            }
+        }
+        //入队前可能已有任务执行完成并释放了执行名额，需再次检查，避免任务滞留在队列中
+        drain();
+    }
+
+    /**
+     * 有空闲执行名额时执行异步任务，否则不执行
+     * <br>
+     * 不进入等待队列也不触发溢出策略，用于调用线程可自行执行任务的场景，比如并行派发时由派发线程执行未能派生的事件处理器
+     *
+     * @param task     任务
+     * @param executor 执行任务的线程池，为null时以虚拟线程执行
+     * @return true已开始执行，false无空闲执行名额或线程池拒绝执行
+     */
+    boolean tryExecute(Runnable task, Executor executor) {
+        if (!tryAcquire()) {
+            return false;
+        }
+        try {
+            start(new LimitedTask(task, executor, null));
+        } catch (RuntimeException ex) {
+            return false;
+        }
+        submitted.increment();
+        return true;
+    }
+
+    /**
+     * 尝试获取一个执行名额
+     *
+     * @return true获取成功
+     */
+    private boolean tryAcquire() {
+        for (; ; ) {
+            int n = running.get();
+            if (n >= maxInFlight) {
+                return false;
+            }
+            if (running.compareAndSet(n, n + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 在有空闲执行名额时执行等待队列中的任务
+     * <br>
+     * 由任务执行完成时的finally块调用，故不抛出异常：线程池拒绝执行的任务计为丢弃
+     */
+    private void drain() {
+        while (!queue.isEmpty() && tryAcquire()) {
+            LimitedTask next = queue.poll();
+            if (next == null) {
+                running.decrementAndGet();
+                continue;
+            }
+            try {
+                start(next);
+            } catch (RuntimeException ex) {
+                dropped.increment();
+                next.discard();
+            }
+        }
+    }
+
+    /**
+     * 以任务指定的线程池或虚拟线程开始执行任务，已获取执行名额
+     *
+     * @param limitedTask 受限执行的任务
+     */
+    private void start(LimitedTask limitedTask) {
+        try {
+            if (limitedTask.executor == null) {
+                Thread.ofVirtual().start(limitedTask);
+            } else {
+                limitedTask.executor.execute(limitedTask);
+            }
+        } catch (RuntimeException ex) {
+            running.decrementAndGet();
+            throw ex;
+        }
+    }
+
+    /**
+     * 最大同时执行数量
+     *
+     * @return 最大同时执行数量
+     */
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * 溢出处理策略
+     *
+     * @return 溢出处理策略
+     */
+    public OverflowPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * 正在执行的任务数量
+     *
+     * @return 正在执行的任务数量
+     */
+    public int running() {
+        return running.get();
+    }
+
+    /**
+     * 等待队列中的任务数量
+     *
+     * @return 等待队列深度
+     */
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * 累计因等待队列已满而触发溢出策略的次数
+     *
+     * @return 溢出次数
+     */
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * 累计被丢弃的任务数量
+     *
+     * @return 丢弃数量
+     */
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * 获取统计数据快照
+     *
+     * @return 统计数据
+     */
+    public Statistics statistics() {
+        return new Statistics(maxInFlight, queueCapacity, running.get(), queue.size(),
+                submitted.sum(), rejected.sum(), dropped.sum(), callerRuns.sum());
+    }
+
+}
@@ -3,11 +3,20 @@ package com.kaka.notice;
 import com.kaka.util.ExceptionUtils;
 
 import java.io.Serializable;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * 异步处理结果
+ * <br>
+ * 等待线程以无锁栈登记并由{@link LockSupport}挂起，赋值结果时统一唤醒，全程不使用对象监视器，虚拟线程等待时不会钉住载体线程；
+ * 亦可通过{@link #toCompletableFuture()}、{@link #thenApply(Function)}、{@link #orTimeout(long, TimeUnit)}以回调方式获取结果，无需占用线程等待
  *
  * @param <V> 泛型参数
  * @author zkpursuit
@@ -17,9 +26,49 @@ public class AsynResult<V> implements IResult<V> {
     private static class NULL implements Serializable {
     }
 
+    /**
+     * 等待线程节点
+     */
+    private static final class Waiter {
+        final Thread thread;
+        Waiter next;
+
+        Waiter(Thread thread) {
+            this.thread = thread;
+        }
+    }
+
+    /**
+     * 已赋值结果的标记，此后不再登记等待线程
+     */
+    private static final Waiter DONE = new Waiter(null);
+    private static final VarHandle WAITERS;
+    private static final VarHandle FUTURE;
+    private static final VarHandle RESULT;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            WAITERS = lookup.findVarHandle(AsynResult.class, "waiters", Waiter.class);
+            FUTURE = lookup.findVarHandle(AsynResult.class, "future", CompletableFuture.class);
+            RESULT = lookup.findVarHandle(AsynResult.class, "result", Object.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private final long defaultWaitMillis;
     private final static Object NULL = new NULL();
     protected volatile Object result = NULL;
+    private transient volatile Waiter waiters;
+    /**
+     * 首次以回调方式获取结果时创建
+     */
+    private transient volatile CompletableFuture<V> future;
+    /**
+     * 是否已超时，超时后不再赋值结果
+     */
+    private transient volatile boolean expired;
 
     /**
      * 构造方法
@@ -52,9 +101,7 @@ public class AsynResult<V> implements IResult<V> {
      * @return true处理完成
      */
     public boolean isDone() {
-        synchronized (this) {
-            return this._isDone();
-        }
+        return this._isDone();
     }
 
     /**
@@ -78,6 +125,8 @@ public class AsynResult<V> implements IResult<V> {
 
     /**
      * 获取事件通知处理结果具体数值
+     * <br>
+     * 超时后结果以{@link #expire(String)}失效：此后的赋值被忽略，{@link #toCompletableFuture()}以{@link TimeoutException}异常完成
      *
      * @param timeout 超时时间
      * @param unit    超时时间类型
@@ -85,10 +134,9 @@ public class AsynResult<V> implements IResult<V> {
      * @throws Exception {@link InterruptedException}，{@link TimeoutException}
      */
     public V get(long timeout, TimeUnit unit) throws Exception {
-        if (await(timeout, unit)) {
+        if (await(timeout, unit) || !this.expire("Getting result timeout")) {
             return (V) this.result;
         }
-        this.set(null);
         throw new TimeoutException("Getting result timeout");
     }
 
@@ -100,26 +148,55 @@ public class AsynResult<V> implements IResult<V> {
      * @return true 成功赋值处理结果
      */
     private boolean await(long timeout, TimeUnit unit) throws InterruptedException {
-        timeout = unit.toMillis(timeout);
-        final long startTime = timeout <= 0 ? 0 : System.currentTimeMillis();
-        long waitTime = timeout;
-        synchronized (this) {
-            for (; ;) {
-                if (_isDone()) {
-                    return true;
-                }
-                if (waitTime <= 0) {
-                    return _isDone();
-                }
-                this.wait(waitTime, 999999);
-                waitTime = timeout - (System.currentTimeMillis() - startTime);
-                if (waitTime <= 0) {
-                    return _isDone();
-                }
+        if (_isDone()) {
+            return true;
+        }
+        final long nanos = unit.toNanos(timeout);
+        if (nanos <= 0) {
+            return _isDone();
+        }
+        final long deadline = System.nanoTime() + nanos;
+        final Waiter node = new Waiter(Thread.currentThread());
+        for (; ; ) {
+            Waiter head = this.waiters;
+            if (head == DONE) {
+                return _isDone();
+            }
+            node.next = head;
+            if (WAITERS.compareAndSet(this, head, node)) {
+                break;
+            }
+        }
+        for (; ; ) {
+            if (_isDone()) {
+                return true;
+            }
+            long waitNanos = deadline - System.nanoTime();
+            if (waitNanos <= 0) {
+                return _isDone();
+            }
+            LockSupport.parkNanos(this, waitNanos);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
             }
         }
     }
 
+    /**
+     * 唤醒所有等待线程，并完成回调方式获取的结果，须在赋值结果后调用
+     */
+    protected final void signalAll() {
+        Waiter node = (Waiter) WAITERS.getAndSet(this, DONE);
+        while (node != null && node != DONE) {
+            LockSupport.unpark(node.thread);
+            node = node.next;
+        }
+        CompletableFuture<V> f = this.future;
+        if (f != null) {
+            f.complete((V) this.result);
+        }
+    }
+
     /**
      * 赋值处理结果
      *
@@ -127,10 +204,113 @@ public class AsynResult<V> implements IResult<V> {
      */
     @Override
     public void set(V result) {
-        synchronized (this) {
-            this.result = result;
-            this.notifyAll();
+        if (this.compareAndSetResult(result)) {
+            this.signalAll();
+        }
+    }
+
+    /**
+     * 以CAS方式赋值处理结果，与{@link #expire(String)}互斥，超时后不再赋值
+     *
+     * @param result 事件处理结果
+     * @return false表示已超时，未赋值
+     */
+    protected final boolean compareAndSetResult(V result) {
+        for (; ; ) {
+            if (this.expired) {
+                return false;
+            }
+            Object current = this.result;
+            if (RESULT.compareAndSet(this, current, result)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 超时后唤醒所有等待线程，{@link #expire(String)}赋值null后调用
+     */
+    protected void onExpired() {
+        this.signalAll();
+    }
+
+    /**
+     * 超时未获得结果时调用，以{@link TimeoutException}异常完成回调方式获取的结果，并以null唤醒所有等待线程
+     * <br>
+     * 仅在尚未赋值结果时生效，与{@link #set(Object)}以CAS方式竞争，先赋值者胜出
+     *
+     * @param message 超时异常信息
+     * @return true表示结果已超时失效，false表示已赋值结果
+     */
+    boolean expire(String message) {
+        if (_isDone()) return this.expired;
+        CompletableFuture<V> f = this.future;
+        if (f == null) {
+            CompletableFuture<V> _f = new CompletableFuture<>();
+            f = FUTURE.compareAndSet(this, null, _f) ? _f : this.future;
         }
+        //先标记超时再以CAS赋值null，标记后的set放弃赋值；已被set赋值时撤销标记，并以其结果完成
+        this.expired = true;
+        if (!RESULT.compareAndSet(this, NULL, null)) {
+            this.expired = false;
+            f.complete((V) this.result);
+            return false;
+        }
+        f.completeExceptionally(new TimeoutException(message));
+        this.onExpired();
+        return true;
+    }
+
+    /**
+     * 转换为{@link CompletableFuture}，赋值结果时完成
+     * <br>
+     * 每次返回新的副本，对副本的取消、超时等操作不影响此结果及其它副本
+     *
+     * @return 异步结果
+     */
+    public CompletableFuture<V> toCompletableFuture() {
+        CompletableFuture<V> f = this.future;
+        if (f == null) {
+            CompletableFuture<V> _f = new CompletableFuture<>();
+            f = FUTURE.compareAndSet(this, null, _f) ? _f : this.future;
+        }
+        //创建前可能已赋值结果，超时由expire以异常完成
+        if (_isDone() && !this.expired) {
+            f.complete((V) this.result);
+        }
+        return f.copy();
+    }
+
+    /**
+     * 赋值结果后以结果执行转换函数，不阻塞当前线程
+     *
+     * @param fn  转换函数
+     * @param <U> 转换后的结果类型
+     * @return 转换后的异步结果
+     */
+    public <U> CompletableFuture<U> thenApply(Function<? super V, ? extends U> fn) {
+        return toCompletableFuture().thenApply(fn);
+    }
+
+    /**
+     * 赋值结果后以结果执行回调，不阻塞当前线程
+     *
+     * @param action 回调函数
+     * @return 回调执行完成的异步结果
+     */
+    public CompletableFuture<Void> thenAccept(Consumer<? super V> action) {
+        return toCompletableFuture().thenAccept(action);
+    }
+
+    /**
+     * 超时未赋值结果时以{@link TimeoutException}异常完成，不阻塞当前线程
+     *
+     * @param timeout 超时时间
+     * @param unit    超时时间类型
+     * @return 异步结果
+     */
+    public CompletableFuture<V> orTimeout(long timeout, TimeUnit unit) {
+        return toCompletableFuture().orTimeout(timeout, unit);
     }
 
 }
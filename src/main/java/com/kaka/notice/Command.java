@@ -1,5 +1,7 @@
 package com.kaka.notice;
 
+import java.util.List;
+
 /**
  * 控制命令类
  *
@@ -43,6 +45,17 @@ abstract public class Command extends Notifier implements ICommand {
         msg.setCallbackParams(this.getClass(), params);
     }
 
+    /**
+     * 设置执行回调参数，用于{@link #executeBatch(List)}中为指定消息设置回调参数
+     *
+     * @param msg    事件消息
+     * @param params 回调参数
+     */
+    protected void returnCallbackResult(Message msg, Object params) {
+        if (msg == null) return;
+        msg.setCallbackParams(this.getClass(), params);
+    }
+
     /**
      * 执行事件通知
      *
@@ -54,6 +67,34 @@ abstract public class Command extends Notifier implements ICommand {
         this.msg = null;
     }
 
+    /**
+     * 批量执行事件通知
+     *
+     * @param msgs 被执行的相同事件名的事件通知
+     */
+    void executeBatch0(List<Message> msgs) {
+        try {
+            this.executeBatch(msgs);
+        } finally {
+            this.msg = null;
+        }
+    }
+
+    /**
+     * 批量处理相同事件名的消息，由{@link Facade#sendMessages}调用
+     * <br>
+     * 默认逐个调用execute方法；子类可覆盖此方法分摊每个消息的处理开销，比如合并数据库写入，
+     * 覆盖后需通过{@link #returnCallbackResult(Message, Object)}设置回调参数
+     *
+     * @param msgs 相同事件名的消息，不可在方法外持有此集合
+     */
+    protected void executeBatch(List<Message> msgs) {
+        for (Message msg : msgs) {
+            this.msg = msg;
+            this.execute(msg);
+        }
+    }
+
     /**
      * 处理消息，此方法中不要用线程处理
      * <br>
@@ -1,9 +1,11 @@
 package com.kaka.notice;
 
 import com.kaka.util.MethodAccessor;
+import com.kaka.util.MpmcArrayQueue;
 import com.kaka.util.ObjectPool;
 
 import java.util.Objects;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.function.Supplier;
 
 /**
@@ -13,22 +15,54 @@ import java.util.function.Supplier;
  * @author zkpursuit
  */
 class CommandPool extends ObjectPool<Command> {
+    /**
+     * 子命令默认池化大小
+     */
+    static final int SUB_COMMAND_POOLED_SIZE = 64;
+    /**
+     * 使用环形数组队列的池化大小上限，超过此值时使用按需分配节点的链表队列
+     */
+    static final int RING_POOLED_SIZE_LIMIT = 1 << 16;
+
+    /**
+     * 以类添加的子命令，作为{@link Facade}中子命令对象池的键
+     * <br>
+     * 同一子命令类以不同池化大小添加时各自对应独立的对象池，不大于0的池化大小均表示不池化
+     *
+     * @param cls        子命令类
+     * @param pooledSize 池化大小，-1表示不池化
+     */
+    record SubCommand(Class<? extends Command> cls, int pooledSize) {
+        SubCommand {
+            Objects.requireNonNull(cls, "cls");
+            if (pooledSize <= 0) pooledSize = -1;
+        }
+    }
+
     final Supplier<Command> constFunc;
     final Class<? extends Command> cls;
     final int priority;
+    /**
+     * {@link #cls}的事件处理器唯一标识，用于事件执行完成后的回调
+     */
+    final String handlerId;
 
 
     /**
      * 构造方法
+     * <br>
+     * 闲置对象存储于无锁环形数组队列，获取及闲置对象均不加锁且不分配队列节点；
+     * 队列于首次闲置命令时创建，池化大小超过{@link #RING_POOLED_SIZE_LIMIT}时改用链表队列，避免预先分配过大的数组
      *
      * @param cls      池化的类
      * @param maxSize  对象池大小，-1表示不进行池化
      * @param priority 执行优先级，数字小的先执行
      */
     CommandPool(Class<? extends Command> cls, int maxSize, int priority) {
-        super(maxSize);
+        super(maxSize, size -> size <= RING_POOLED_SIZE_LIMIT ? new MpmcArrayQueue<>(size) : new LinkedBlockingQueue<>(size));
         this.cls = cls;
         this.priority = priority;
+        this.handlerId = Message.handlerId(cls);
         this.constFunc = MethodAccessor.constructSupplier(cls);
     }
 
@@ -36,6 +70,21 @@ class CommandPool extends ObjectPool<Command> {
         this(cls, 0, 0);
     }
 
+    /**
+     * 从池中取出子命令执行，执行完成后放回池中
+     *
+     * @param cmd    控制命令的命令号
+     * @param facade 控制命令所属的{@link Facade}
+     * @param msg    事件消息
+     */
+    void execute(Object cmd, Facade facade, Message msg) {
+        final Command command = obtain();
+        command.cmd = cmd;
+        command.facade = facade;
+        command.execute(msg);
+        idle(command);
+    }
+
     @Override
     protected Command newObject() {
         return this.constFunc.get();
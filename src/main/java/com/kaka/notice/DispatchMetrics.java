@@ -0,0 +1,176 @@
+package com.kaka.notice;
+
+import com.kaka.util.LogHistogram;
+import com.kaka.util.ObjectPool;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 默认的事件派发统计实现
+ * <br>
+ * 按事件名及事件处理器类型分别统计执行次数、异常次数及耗时分布，按事件名统计异步等待时间；
+ * 统计项首次出现时创建，此后记录数据不产生对象分配
+ *
+ * @author zkpursuit
+ */
+public class DispatchMetrics implements IDispatchMetrics {
+
+    /**
+     * 单个事件处理器的统计项
+     */
+    public static final class HandlerStats {
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LogHistogram latency = new LogHistogram();
+
+        public long invocations() {
+            return invocations.sum();
+        }
+
+        public long errors() {
+            return errors.sum();
+        }
+
+        public LogHistogram latency() {
+            return latency;
+        }
+    }
+
+    /**
+     * 单个事件处理器的统计数据快照
+     *
+     * @param what         事件名
+     * @param handlerClass 事件处理器类型
+     * @param invocations  执行次数
+     * @param errors       异常次数
+     * @param meanNanos    平均耗时，单位纳秒
+     * @param p50Nanos     50分位耗时，单位纳秒
+     * @param p99Nanos     99分位耗时，单位纳秒
+     * @param maxNanos     最大耗时，单位纳秒
+     * @param poolHitRatio 命令执行器对象池命中率，非{@link Command}或未提供{@link Facade}时为-1
+     */
+    public record HandlerSnapshot(Object what, Class<?> handlerClass, long invocations, long errors,
+                                  long meanNanos, long p50Nanos, long p99Nanos, long maxNanos, double poolHitRatio) {
+    }
+
+    /**
+     * 单个事件名的异步等待时间快照
+     *
+     * @param what      事件名
+     * @param count     异步执行次数
+     * @param meanNanos 平均等待时间，单位纳秒
+     * @param p99Nanos  99分位等待时间，单位纳秒
+     * @param maxNanos  最大等待时间，单位纳秒
+     */
+    public record QueueWaitSnapshot(Object what, long count, long meanNanos, long p99Nanos, long maxNanos) {
+    }
+
+    /**
+     * 统计数据快照
+     *
+     * @param timestamp  快照时间戳，单位毫秒
+     * @param handlers   事件处理器统计数据
+     * @param queueWaits 异步等待时间统计数据
+     */
+    public record Snapshot(long timestamp, List<HandlerSnapshot> handlers, List<QueueWaitSnapshot> queueWaits) {
+    }
+
+    private final Map<Object, Map<Class<?>, HandlerStats>> handlerStatsMap = new ConcurrentHashMap<>();
+    private final Map<Object, LogHistogram> queueWaitMap = new ConcurrentHashMap<>();
+
+    @Override
+    public void onHandled(Object what, Class<?> handlerClass, long nanos, Throwable error) {
+        HandlerStats stats = getHandlerStats(what, handlerClass);
+        stats.invocations.increment();
+        if (error != null) {
+            stats.errors.increment();
+        }
+        stats.latency.record(nanos);
+    }
+
+    @Override
+    public void onQueueWait(Object what, long nanos) {
+        LogHistogram histogram = queueWaitMap.get(what);
+        if (histogram == null) {
+            histogram = queueWaitMap.computeIfAbsent(what, k -> new LogHistogram());
+        }
+        histogram.record(nanos);
+    }
+
+    /**
+     * 获取事件处理器的统计项，不存在时创建
+     *
+     * @param what         事件名
+     * @param handlerClass 事件处理器类型
+     * @return 统计项
+     */
+    public HandlerStats getHandlerStats(Object what, Class<?> handlerClass) {
+        Map<Class<?>, HandlerStats> map = handlerStatsMap.get(what);
+        if (map == null) {
+            map = handlerStatsMap.computeIfAbsent(what, k -> new ConcurrentHashMap<>());
+        }
+        HandlerStats stats = map.get(handlerClass);
+        if (stats == null) {
+            stats = map.computeIfAbsent(handlerClass, k -> new HandlerStats());
+        }
+        return stats;
+    }
+
+    /**
+     * 获取统计数据快照，不含对象池命中率
+     *
+     * @return 统计数据快照
+     */
+    public Snapshot snapshot() {
+        return snapshot(null);
+    }
+
+    /**
+     * 获取统计数据快照
+     *
+     * @param facade 事件调度中心，用于获取命令执行器对象池命中率，可为null
+     * @return 统计数据快照
+     */
+    public Snapshot snapshot(Facade facade) {
+        List<HandlerSnapshot> handlers = new ArrayList<>();
+        handlerStatsMap.forEach((what, map) -> {
+            Map<Class<? extends Command>, ObjectPool.Statistics> poolStats = facade == null
+                    ? Collections.emptyMap() : facade.getCommandPoolStatistics(what);
+            map.forEach((handlerClass, stats) -> {
+                LogHistogram latency = stats.latency;
+                ObjectPool.Statistics pool = poolStats.get(handlerClass);
+                handlers.add(new HandlerSnapshot(what, handlerClass, stats.invocations(), stats.errors(),
+                        latency.mean(), latency.percentile(50), latency.percentile(99), latency.max(),
+                        pool == null ? -1 : pool.hitRatio()));
+            });
+        });
+        List<QueueWaitSnapshot> queueWaits = new ArrayList<>();
+        queueWaitMap.forEach((what, histogram) -> queueWaits.add(new QueueWaitSnapshot(what, histogram.count(),
+                histogram.mean(), histogram.percentile(99), histogram.max())));
+        return new Snapshot(System.currentTimeMillis(), handlers, queueWaits);
+    }
+
+    /**
+     * 以导出器导出统计数据快照，可由定时调度周期性调用
+     *
+     * @param facade   事件调度中心，用于获取命令执行器对象池命中率，可为null
+     * @param exporter 统计数据导出器
+     */
+    public void export(Facade facade, IMetricsExporter exporter) {
+        exporter.export(snapshot(facade));
+    }
+
+    /**
+     * 清除所有统计数据
+     */
+    public void reset() {
+        handlerStatsMap.clear();
+        queueWaitMap.clear();
+    }
+
+}
@@ -1,11 +1,18 @@
 package com.kaka.notice;
 
+import com.kaka.util.IntMap;
+import com.kaka.util.LongMap;
 import com.kaka.util.NanoId;
+import com.kaka.util.ObjectPool;
 import com.kaka.util.ReflectUtils;
 import com.kaka.util.StringUtils;
+import com.kaka.util.TimingWheel;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
 
 /**
  * 整个框架的中枢
@@ -18,11 +25,36 @@ public class Facade implements INotifier {
     private final Map<String, Mediator> mediatorMap = new ConcurrentHashMap<>();
     private final Map<Object, List<Mediator>> cmdMediatorMap = new ConcurrentHashMap<>();
     private final Map<Object, CommandPoolSortedSet> cmdPoolMap = new ConcurrentHashMap<>();
+    /**
+     * 控制命令以类添加的子命令对象池，同一子命令类及池化大小在此Facade中共享
+     */
+    private final Map<CommandPool.SubCommand, CommandPool> subCommandPools = new ConcurrentHashMap<>();
     private final Map<Object, Set<IListener>> listenerMap = new ConcurrentHashMap<>();
+    private final Map<Object, MessageRoute> routeMap = new ConcurrentHashMap<>();
+    private final Object routeLock = new Object();
+    //数值型事件名的路由表，避免派发时装箱及equals比较；注册或移除事件处理器时置为null，首次派发时由routeMap一次性重建
+    private volatile IntMap<MessageRoute> intRouteMap;
+    private volatile IntMap<MessageRoute> shortRouteMap;
+    private volatile LongMap<MessageRoute> longRouteMap;
     private Executor threadPool;
     private ScheduledExecutorService scheduleThreadPool;
-    private final Map<String, ScheduledFuture<?>> scheduleFutureMap = new ConcurrentHashMap<>();
+    private volatile TimingWheel timingWheel;
+    //组名 -> (事件名 -> 调度器)，查找及取消时无需拼接调度任务名
+    private final Map<String, Map<Object, Scheduler>> schedulerMap = new ConcurrentHashMap<>();
     private RemoteMessagePostman remoteMessagePostman;
+    private volatile MessageLanes messageLanes;
+    private volatile AsynLimiter asynLimiter;
+    private final Map<Object, AsynLimiter> asynLimiterMap = new ConcurrentHashMap<>();
+    private volatile IDispatchMetrics dispatchMetrics;
+    private final Map<Object, MessagePublisher> publisherMap = new ConcurrentHashMap<>();
+    private final Set<Object> parallelWhats = ConcurrentHashMap.newKeySet();
+    //未设置异步执行限流器时并行派发共用的限流器，仅使用其执行名额
+    private final AsynLimiter parallelLimiter = new AsynLimiter(PARALLEL_IN_FLIGHT, 1, AsynLimiter.OverflowPolicy.CALLER_RUNS);
+
+    /**
+     * 未设置异步执行限流器时，所有并行派发同时占用的虚拟线程总数上限
+     */
+    public static final int PARALLEL_IN_FLIGHT = 256;
 
     /**
      * 创建一个内核
@@ -65,6 +97,19 @@ public class Facade implements INotifier {
         }
     }
 
+    /**
+     * 初始化时间轮定时器，设置后sendMessage定时调度将使用时间轮，不再需要定时调度线程池
+     * <br>
+     * 全局设置一次，适用于大量短周期的定时调度，比如buff、冷却计时
+     *
+     * @param timingWheel 时间轮定时器
+     */
+    public void initTimingWheel(TimingWheel timingWheel) {
+        if (this.timingWheel == null) {
+            this.timingWheel = timingWheel;
+        }
+    }
+
     /**
      * 初始化远程消息队列服务
      * <br>
@@ -79,6 +124,108 @@ public class Facade implements INotifier {
         }
     }
 
+    /**
+     * 初始化全局异步执行限流器
+     * <br>
+     * 设置后{@link Message.ExecuteType#ASYN_THREAD}及{@link Message.ExecuteType#ASYN_VIRTUAL_THREAD}方式的事件消息均经由此限流器执行，
+     * 单独设置了限流器的事件名除外
+     *
+     * @param asynLimiter 异步执行限流器，为null时取消限流
+     */
+    public void initAsynLimiter(AsynLimiter asynLimiter) {
+        this.asynLimiter = asynLimiter;
+    }
+
+    /**
+     * 为指定的事件名设置异步执行限流器，优先于全局异步执行限流器
+     *
+     * @param what        事件名
+     * @param asynLimiter 异步执行限流器，为null时移除此事件名的限流器
+     */
+    public void initAsynLimiter(Object what, AsynLimiter asynLimiter) {
+        if (asynLimiter == null) {
+            this.asynLimiterMap.remove(what);
+        } else {
+            this.asynLimiterMap.put(what, asynLimiter);
+        }
+    }
+
+    /**
+     * 获取事件名对应的异步执行限流器
+     *
+     * @param what 事件名，为null时获取全局异步执行限流器
+     * @return 异步执行限流器，未设置时返回null
+     */
+    public AsynLimiter getAsynLimiter(Object what) {
+        if (what != null && !asynLimiterMap.isEmpty()) {
+            AsynLimiter limiter = asynLimiterMap.get(what);
+            if (limiter != null) {
+                return limiter;
+            }
+        }
+        return this.asynLimiter;
+    }
+
+    /**
+     * 设置事件名是否并行派发
+     * <br>
+     * 并行派发时同一事件消息的事件处理器按层级执行：相同优先级的{@link Command}为一层，所有{@link Mediator}为一层，
+     * 所有{@link IListener}为一层；同一层内的事件处理器由当前线程及虚拟线程并发执行，
+     * 全部完成后才执行下一层，所有层完成后才回收事件消息，事件消息的耗时由各事件处理器耗时之和变为同层最大耗时之和。
+     * <br>
+     * 派生的虚拟线程占用事件名对应的异步执行限流器（{@link #getAsynLimiter(Object)}）的执行名额，未设置时占用内核共用的
+     * {@link #PARALLEL_IN_FLIGHT}个执行名额；执行名额不足时不再派生，剩余的事件处理器由当前线程执行，
+     * 不进入限流器的等待队列，故不会因溢出策略被丢弃，也不会因执行名额被外层任务占满而死锁。
+     * <br>
+     * 适用于同一事件名有大量相互独立且耗时的事件处理器的场景；同一层内的事件处理器不得依赖彼此的执行顺序，
+     * 事件执行完成后的回调函数亦可能被并发调用。
+     * 某一事件处理器抛出异常时同层的其它事件处理器仍会执行完成，随后抛出首个异常且不再执行后续层级。
+     * {@link #sendMessages(Collection, Message.ExecuteType)}批量处理时仍按顺序执行。
+     *
+     * @param what     事件名
+     * @param parallel true为并行派发，false为顺序派发
+     */
+    public void initParallelDispatch(Object what, boolean parallel) {
+        if (parallel) {
+            this.parallelWhats.add(what);
+        } else {
+            this.parallelWhats.remove(what);
+        }
+        rebuildRoute(what);
+    }
+
+    /**
+     * 事件名是否并行派发
+     *
+     * @param what 事件名
+     * @return true为并行派发
+     */
+    public boolean isParallelDispatch(Object what) {
+        return this.parallelWhats.contains(what);
+    }
+
+    /**
+     * 设置事件派发统计
+     * <br>
+     * 设置后统计每个事件处理器的执行次数、异常次数、耗时及异步等待时间，未设置时几乎无额外开销；
+     * {@link #sendMessages(Collection, Message.ExecuteType)}批量处理时每个事件处理器处理完整组消息计为一次执行，耗时为整组消息的处理耗时
+     *
+     * @param dispatchMetrics 事件派发统计，为null时关闭统计
+     * @see DispatchMetrics
+     */
+    public void initDispatchMetrics(IDispatchMetrics dispatchMetrics) {
+        this.dispatchMetrics = dispatchMetrics;
+    }
+
+    /**
+     * 获取事件派发统计
+     *
+     * @return 事件派发统计，未设置时返回null
+     */
+    public IDispatchMetrics getDispatchMetrics() {
+        return this.dispatchMetrics;
+    }
+
     /**
      * 获取异步执行线程池
      *
@@ -97,6 +244,15 @@ public class Facade implements INotifier {
         return this.scheduleThreadPool;
     }
 
+    /**
+     * 获取时间轮定时器
+     *
+     * @return 时间轮定时器，未设置时返回null
+     */
+    public TimingWheel getTimingWheel() {
+        return this.timingWheel;
+    }
+
     /**
      * 创建对象
      *
@@ -312,6 +468,7 @@ public class Facade implements INotifier {
         for (Object eid : evtIds) {
             List<Mediator> list = cmdMediatorMap.computeIfAbsent(eid, k -> Collections.synchronizedList(new ArrayList<>()));
             list.add(mediator);
+            rebuildRoute(eid);
         }
         mediator.setFacade(this);
         mediator.onRegister();
@@ -411,6 +568,7 @@ public class Facade implements INotifier {
                 List<Mediator> list = cmdMediatorMap.get(nid);
                 if (list == null || list.isEmpty()) continue;
                 list.remove(mediator);
+                rebuildRoute(nid);
             }
             mediator.setFacade(null);
             mediator.onRemove();
@@ -500,6 +658,18 @@ public class Facade implements INotifier {
         return cmdPoolMap.containsKey(cmd);
     }
 
+    /**
+     * 获取控制命令以类添加的子命令对象池，不存在时创建
+     *
+     * @param subCommand 子命令类及池化大小
+     * @return 子命令对象池
+     */
+    CommandPool subCommandPool(CommandPool.SubCommand subCommand) {
+        CommandPool pool = subCommandPools.get(subCommand);
+        if (pool != null) return pool;
+        return subCommandPools.computeIfAbsent(subCommand, k -> new CommandPool(k.cls(), k.pooledSize(), 0));
+    }
+
     /**
      * 注册命令执行器
      *
@@ -511,6 +681,7 @@ public class Facade implements INotifier {
     final public void registerCommand(Object cmd, Class<? extends Command> clasz, int pooledSize, int priority) {
         CommandPoolSortedSet sortedSet = cmdPoolMap.computeIfAbsent(cmd, k -> new CommandPoolSortedSet());
         sortedSet.add(new CommandPool(clasz, pooledSize, priority));
+        rebuildRoute(cmd);
     }
 
     /**
@@ -534,6 +705,24 @@ public class Facade implements INotifier {
         registerCommand(cmd, clasz, -1);
     }
 
+    /**
+     * 获取命令执行器对象池统计数据，可据此设置{@link com.kaka.notice.annotation.Handler#pooledSize()}
+     *
+     * @param cmd 命令执行器唯一标识
+     * @return 以命令执行器类为键、按执行优先级排序的对象池统计数据
+     */
+    final public Map<Class<? extends Command>, ObjectPool.Statistics> getCommandPoolStatistics(Object cmd) {
+        MessageRoute route = routeOf(cmd);
+        if (route == null) {
+            return Collections.emptyMap();
+        }
+        Map<Class<? extends Command>, ObjectPool.Statistics> map = new LinkedHashMap<>();
+        for (CommandPool pool : route.commandPools) {
+            map.put(pool.cls, pool.statistics());
+        }
+        return map;
+    }
+
     /**
      * 移除命令执行器
      *
@@ -541,6 +730,7 @@ public class Facade implements INotifier {
      */
     final public void removeCommand(Object cmd) {
         cmdPoolMap.remove(cmd);
+        rebuildRoute(cmd);
     }
 
     /**
@@ -553,6 +743,7 @@ public class Facade implements INotifier {
         if (cmdPoolMap.containsKey(cmd)) {
             CommandPoolSortedSet sortedSet = cmdPoolMap.get(cmd);
             sortedSet.remove(new CommandPool(clasz));
+            rebuildRoute(cmd);
         }
     }
 
@@ -565,6 +756,7 @@ public class Facade implements INotifier {
     final public void addListener(Object cmd, IListener listener) {
         Set<IListener> listeners = listenerMap.computeIfAbsent(cmd, k -> Collections.synchronizedSet(new LinkedHashSet<>()));
         listeners.add(listener);
+        rebuildRoute(cmd);
     }
 
     /**
@@ -580,43 +772,195 @@ public class Facade implements INotifier {
         if (listeners.isEmpty()) {
             listenerMap.remove(cmd);
         }
+        rebuildRoute(cmd);
+        if (listener instanceof MessagePublisher publisher && publisherMap.remove(cmd, publisher)) {
+            publisher.close();
+        }
+    }
+
+    /**
+     * 获取事件名对应的事件消息发布者，以{@link Flow.Subscriber}订阅此事件名的事件消息流
+     * <br>
+     * 同一事件名共用一个发布者，每个订阅者的缓冲数量为{@link Flow#defaultBufferSize()}
+     *
+     * @param what 事件名
+     * @return 事件消息发布者
+     */
+    final public MessagePublisher publisher(Object what) {
+        return publisher(what, Flow.defaultBufferSize());
+    }
+
+    /**
+     * 获取事件名对应的事件消息发布者，以{@link Flow.Subscriber}订阅此事件名的事件消息流
+     * <br>
+     * 同一事件名共用一个发布者，仅首次创建时maxBufferCapacity有效
+     *
+     * @param what              事件名
+     * @param maxBufferCapacity 每个订阅者的最大缓冲数量，超出时丢弃事件消息
+     * @return 事件消息发布者
+     */
+    final public MessagePublisher publisher(Object what, int maxBufferCapacity) {
+        MessagePublisher publisher = publisherMap.get(what);
+        if (publisher != null) {
+            return publisher;
+        }
+        return publisherMap.computeIfAbsent(what, k -> {
+            MessagePublisher _publisher = new MessagePublisher(this, k, maxBufferCapacity);
+            this.addListener(k, _publisher);
+            return _publisher;
+        });
+    }
+
+    /**
+     * 移除已关闭的事件消息发布者
+     *
+     * @param publisher 事件消息发布者
+     */
+    void removePublisher(MessagePublisher publisher) {
+        if (publisherMap.remove(publisher.getWhat(), publisher)) {
+            this.removeListener(publisher.getWhat(), publisher);
+        }
     }
 
     /**
      * 移除事件名对应的所有监听器
+     * <br>
+     * 事件名对应的{@link MessagePublisher}一并移除并关闭，此后再调用{@link #publisher(Object)}将创建新的发布者
      *
      * @param cmd 事件名
      */
     final public void removeListener(Object cmd) {
         listenerMap.remove(cmd);
+        rebuildRoute(cmd);
+        MessagePublisher publisher = publisherMap.remove(cmd);
+        if (publisher != null) {
+            publisher.close();
+        }
     }
 
     /**
-     * 执行所有相同命令号下的{@link com.kaka.notice.Command}对象
+     * 重建事件名对应的路由表
+     * <br>
+     * 仅在注册或移除事件处理器时调用，事件派发时只需一次查找即可无锁遍历所有事件处理器
      *
-     * @param poolSet 相同命令号的{@link com.kaka.notice.Command}对象池集合
-     * @param msg     事件消息
+     * @param what 事件名
      */
-    private void execCommands(final CommandPoolSortedSet poolSet, final Message msg) {
-        for (CommandPool pool : poolSet) {
-            final Command cmd = pool.obtain();
-            if (cmd == null) continue;
-            cmd.setFacade(this);
-            cmd.cmd = msg.getWhat();
-            cmd.execute0(msg);
-            msg.callback(cmd.getClass().getTypeName());
-            pool.idle(cmd);
+    private void rebuildRoute(Object what) {
+        synchronized (routeLock) {
+            CommandPoolSortedSet poolSet = cmdPoolMap.get(what);
+            List<Mediator> mediatorList = cmdMediatorMap.get(what);
+            Set<IListener> listeners = listenerMap.get(what);
+            CommandPool[] pools = poolSet == null ? null : poolSet.toArray(new CommandPool[0]);
+            Mediator[] mediators = mediatorList == null ? null : mediatorList.toArray(new Mediator[0]);
+            IListener[] _listeners = listeners == null ? null : listeners.toArray(new IListener[0]);
+            MessageRoute route = new MessageRoute(what, pools, mediators, _listeners, parallelWhats.contains(what));
+            if (route.isEmpty()) {
+                route = null;
+                routeMap.remove(what);
+            } else {
+                routeMap.put(what, route);
+            }
+            //仅标记失效，启动时连续注册n个数值型事件名无需n次复制整个路由表
+            if (what instanceof Integer) {
+                intRouteMap = null;
+            } else if (what instanceof Short) {
+                shortRouteMap = null;
+            } else if (what instanceof Long) {
+                longRouteMap = null;
+            }
+        }
+    }
+
+    /**
+     * int型事件名的路由表，失效后首次调用时重建
+     *
+     * @return 路由表
+     */
+    private IntMap<MessageRoute> intRoutes() {
+        IntMap<MessageRoute> map = intRouteMap;
+        if (map != null) return map;
+        synchronized (routeLock) {
+            map = intRouteMap;
+            if (map == null) {
+                map = new IntMap<>();
+                for (Map.Entry<Object, MessageRoute> entry : routeMap.entrySet()) {
+                    if (entry.getKey() instanceof Integer key) map.put(key, entry.getValue());
+                }
+                intRouteMap = map;
+            }
+            return map;
+        }
+    }
+
+    /**
+     * short型事件名的路由表，失效后首次调用时重建
+     *
+     * @return 路由表
+     */
+    private IntMap<MessageRoute> shortRoutes() {
+        IntMap<MessageRoute> map = shortRouteMap;
+        if (map != null) return map;
+        synchronized (routeLock) {
+            map = shortRouteMap;
+            if (map == null) {
+                map = new IntMap<>();
+                for (Map.Entry<Object, MessageRoute> entry : routeMap.entrySet()) {
+                    if (entry.getKey() instanceof Short key) map.put(key, entry.getValue());
+                }
+                shortRouteMap = map;
+            }
+            return map;
         }
     }
 
-    private void executeMediator(final Mediator mediator, final Message msg) {
+    /**
+     * long型事件名的路由表，失效后首次调用时重建
+     *
+     * @return 路由表
+     */
+    private LongMap<MessageRoute> longRoutes() {
+        LongMap<MessageRoute> map = longRouteMap;
+        if (map != null) return map;
+        synchronized (routeLock) {
+            map = longRouteMap;
+            if (map == null) {
+                map = new LongMap<>();
+                for (Map.Entry<Object, MessageRoute> entry : routeMap.entrySet()) {
+                    if (entry.getKey() instanceof Long key) map.put(key, entry.getValue());
+                }
+                longRouteMap = map;
+            }
+            return map;
+        }
+    }
+
+    /**
+     * 查找事件名对应的路由表
+     *
+     * @param what 事件名
+     * @return 路由表，不存在任何事件处理器时返回null
+     */
+    private MessageRoute routeOf(Object what) {
+        if (what instanceof Integer key) {
+            return intRoutes().get(key);
+        }
+        if (what instanceof Short key) {
+            return shortRoutes().get(key);
+        }
+        if (what instanceof Long key) {
+            return longRoutes().get(key);
+        }
+        return routeMap.get(what);
+    }
+
+    private void executeMediator(final Mediator mediator, final String id, final Message msg) {
         mediator.handleMessage0(msg);
-        msg.callback(mediator.getClass().getTypeName());
+        if (msg.hasCallback()) msg.callback(id);
     }
 
-    private void executeListener(final IListener listener, final Message msg) {
+    private void executeListener(final IListener listener, final String id, final Message msg) {
         listener.onMessage(msg, this);
-        msg.callback(listener.getClass().getTypeName());
+        if (msg.hasCallback()) msg.callback(id);
     }
 
     /**
@@ -628,23 +972,248 @@ public class Facade implements INotifier {
         if (msg == null || msg.getWhat() == null) {
             return;
         }
-        final CommandPoolSortedSet poolSet = cmdPoolMap.get(msg.getWhat());
-        if (poolSet != null) {
-            execCommands(poolSet, msg);
+        sendMessage0(routeOf(msg.getWhat()), msg);
+    }
+
+    /**
+     * 按已查找到的路由表处理消息事件
+     * <br>
+     * 顺序派发与并行派发共用单个事件处理器的执行方法，未设置事件派发统计时每个事件处理器仅多一次null判断
+     *
+     * @param route 事件名对应的路由表，可为null
+     * @param msg   待处理的消息
+     */
+    private void sendMessage0(final MessageRoute route, final Message msg) {
+        final IDispatchMetrics metrics = this.dispatchMetrics;
+        if (route != null) {
+            if (route.parallel) {
+                this.sendParallel0(route, msg, metrics);
+                return;
+            }
+            for (CommandPool pool : route.commandPools) {
+                execCommand(route, pool, msg, metrics);
+            }
+            for (int i = 0; i < route.mediators.length; i++) {
+                handleMediator(route, i, msg, metrics);
+            }
+            for (int i = 0; i < route.listeners.length; i++) {
+                handleListener(route, i, msg, metrics);
+            }
         }
-        final List<Mediator> mediatorList = cmdMediatorMap.get(msg.getWhat());
-        if (mediatorList != null) {
-            for (Mediator mediator : mediatorList) {
-                executeMediator(mediator, msg);
+        if (msg.poolable) msg.reset();
+    }
+
+    /**
+     * 按执行层级并行处理消息事件
+     *
+     * @param route   事件名对应的路由表
+     * @param msg     待处理的消息
+     * @param metrics 事件派发统计，可为null
+     */
+    private void sendParallel0(final MessageRoute route, final Message msg, final IDispatchMetrics metrics) {
+        final int[] levels = route.commandLevels;
+        for (int i = 0; i < levels.length - 1; i++) {
+            forkJoin(route, levels[i], levels[i + 1], index -> this.execCommand(route, route.commandPools[index], msg, metrics));
+        }
+        forkJoin(route, 0, route.mediators.length, index -> this.handleMediator(route, index, msg, metrics));
+        forkJoin(route, 0, route.listeners.length, index -> this.handleListener(route, index, msg, metrics));
+        if (msg.poolable) msg.reset();
+    }
+
+    /**
+     * 并发执行同一层级的事件处理器，全部完成后返回
+     * <br>
+     * 当前线程与派生的虚拟线程依次领取未执行的事件处理器；虚拟线程仅在限流器有空闲执行名额时派生，
+     * 至多派生数量减一个，未能派生时全部由当前线程执行
+     *
+     * @param route   事件名对应的路由表
+     * @param from    起始索引，包含
+     * @param to      结束索引，不包含
+     * @param handler 按索引执行事件处理器
+     */
+    private void forkJoin(final MessageRoute route, final int from, final int to, final IntConsumer handler) {
+        final int count = to - from;
+        if (count <= 0) return;
+        if (count == 1) {
+            handler.accept(from);
+            return;
+        }
+        AsynLimiter limiter = getAsynLimiter(route.what);
+        if (limiter == null) limiter = this.parallelLimiter;
+        final AtomicInteger next = new AtomicInteger(from);
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final Runnable worker = () -> {
+            for (int index; (index = next.getAndIncrement()) < to; ) {
+                try {
+                    handler.accept(index);
+                } catch (Throwable ex) {
+                    addError(error, ex);
+                }
+            }
+        };
+        final CountDownLatch latch = new CountDownLatch(count - 1);
+        final Runnable helper = () -> {
+            try {
+                worker.run();
+            } finally {
+                latch.countDown();
             }
+        };
+        int forked = 0;
+        while (forked < count - 1 && next.get() < to - 1 && limiter.tryExecute(helper, null)) {
+            forked++;
         }
-        final Set<IListener> listeners = listenerMap.get(msg.getWhat());
-        if (listeners != null) {
-            for (IListener listener : listeners) {
-                executeListener(listener, msg);
+        for (int i = forked; i < count - 1; i++) {
+            latch.countDown();
+        }
+        worker.run();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        Throwable ex = error.get();
+        if (ex instanceof RuntimeException rex) throw rex;
+        if (ex instanceof Error err) throw err;
+        if (ex != null) throw new RuntimeException(ex);
+    }
+
+    private static void addError(AtomicReference<Throwable> error, Throwable ex) {
+        if (!error.compareAndSet(null, ex)) {
+            error.get().addSuppressed(ex);
+        }
+    }
+
+    /**
+     * 执行单个{@link Command}
+     *
+     * @param route   事件名对应的路由表
+     * @param pool    {@link Command}对象池
+     * @param msg     事件消息
+     * @param metrics 事件派发统计，可为null
+     */
+    private void execCommand(final MessageRoute route, final CommandPool pool, final Message msg, final IDispatchMetrics metrics) {
+        final Command cmd = pool.obtain();
+        if (cmd == null) return;
+        cmd.setFacade(this);
+        cmd.cmd = msg.getWhat();
+        if (metrics == null) {
+            cmd.execute0(msg);
+        } else {
+            final long start = System.nanoTime();
+            Throwable error = null;
+            try {
+                cmd.execute0(msg);
+            } catch (Throwable ex) {
+                error = ex;
+                throw ex;
+            } finally {
+                metrics.onHandled(route.what, pool.cls, System.nanoTime() - start, error);
+            }
+        }
+        if (msg.hasCallback()) msg.callback(pool.handlerId);
+        pool.idle(cmd);
+    }
+
+    /**
+     * 执行单个{@link Mediator}
+     *
+     * @param route   事件名对应的路由表
+     * @param index   在路由表中的索引
+     * @param msg     事件消息
+     * @param metrics 事件派发统计，可为null
+     */
+    private void handleMediator(final MessageRoute route, final int index, final Message msg, final IDispatchMetrics metrics) {
+        final Mediator mediator = route.mediators[index];
+        if (metrics == null) {
+            executeMediator(mediator, route.mediatorIds[index], msg);
+            return;
+        }
+        final long start = System.nanoTime();
+        Throwable error = null;
+        try {
+            executeMediator(mediator, route.mediatorIds[index], msg);
+        } catch (Throwable ex) {
+            error = ex;
+            throw ex;
+        } finally {
+            metrics.onHandled(route.what, mediator.getClass(), System.nanoTime() - start, error);
+        }
+    }
+
+    /**
+     * 执行单个{@link IListener}
+     *
+     * @param route   事件名对应的路由表
+     * @param index   在路由表中的索引
+     * @param msg     事件消息
+     * @param metrics 事件派发统计，可为null
+     */
+    private void handleListener(final MessageRoute route, final int index, final Message msg, final IDispatchMetrics metrics) {
+        final IListener listener = route.listeners[index];
+        if (metrics == null) {
+            executeListener(listener, route.listenerIds[index], msg);
+            return;
+        }
+        final long start = System.nanoTime();
+        Throwable error = null;
+        try {
+            executeListener(listener, route.listenerIds[index], msg);
+        } catch (Throwable ex) {
+            error = ex;
+            throw ex;
+        } finally {
+            metrics.onHandled(route.what, listener.getClass(), System.nanoTime() - start, error);
+        }
+    }
+
+    /**
+     * 异步执行事件处理任务，设置了异步执行限流器时经由限流器执行
+     *
+     * @param what        事件名，用于查找异步执行限流器
+     * @param task        事件处理任务
+     * @param executeType 消息执行类型，仅支持{@link Message.ExecuteType#ASYN_THREAD}和{@link Message.ExecuteType#ASYN_VIRTUAL_THREAD}
+     * @param onDiscard   任务被限流器丢弃或被线程池拒绝执行时的回调，用于回收池化的事件消息，可为null
+     */
+    void executeAsyn(final Object what, Runnable task, final Message.ExecuteType executeType, final Runnable onDiscard) {
+        final IDispatchMetrics metrics = this.dispatchMetrics;
+        if (metrics != null && what != null) {
+            final Runnable _task = task;
+            final long submitTime = System.nanoTime();
+            task = () -> {
+                metrics.onQueueWait(what, System.nanoTime() - submitTime);
+                _task.run();
+            };
+        }
+        final AsynLimiter limiter = getAsynLimiter(what);
+        if (executeType == Message.ExecuteType.ASYN_THREAD) {
+            if (threadPool == null) {
+                throw new RuntimeException(String.format("执行异步sendMessage前请先调用 %s.initThreadPool方法初始化线程池", this.getClass()));
+            }
+            if (limiter != null) {
+                limiter.execute(task, threadPool, onDiscard);
+            } else {
+                try {
+                    threadPool.execute(task);
+                } catch (RejectedExecutionException ex) {
+                    if (onDiscard != null) onDiscard.run();
+                    throw ex;
+                }
+            }
+        } else if (executeType == Message.ExecuteType.ASYN_VIRTUAL_THREAD) {
+            if (limiter != null) {
+                limiter.execute(task, null, onDiscard);
+            } else {
+                Thread.ofVirtual().start(task);
             }
         }
-        if (msg.poolable) msg.reset();
     }
 
     /**
@@ -661,30 +1230,22 @@ public class Facade implements INotifier {
             if (this.remoteMessagePostman == null) {
                 throw new RuntimeException(String.format("执行sendRemoteMessage前请先调用 %s.initRemoteMessagePostman方法初始化", this.getClass()));
             }
-            Map<Object, IResult> msgResultMap = msg.resultMap;
             Message mqMsg = new Message(msg.getWhat(), msg.getBody());
             String id = NanoId.randomNanoId();
-            if (msgResultMap != null) {
-                msgResultMap.forEach((Object key, IResult result) -> {
-                    if (result instanceof AsynResult) {
-                        mqMsg.setResult((String) key, new RemoteAsynResult<>());
-                    }
-                });
-            }
+            msg.forEachResult((Object key, IResult result) -> {
+                if (result instanceof AsynResult) {
+                    mqMsg.setResult((String) key, new RemoteAsynResult<>());
+                }
+            });
             this.remoteMessagePostman.remoteMessageCache.add(id, msg);
             RemoteMessage remoteMessage = new RemoteMessage(this.remoteMessagePostman.event_topic, id, mqMsg);
-            this.remoteMessagePostman.sendRemoteMessage(remoteMessage);
+            this.remoteMessagePostman.postRemoteMessage(remoteMessage);
             return;
         }
         if (executeType == Message.ExecuteType.SYNC) {
             this.sendMessage0(msg);
-        } else if (executeType == Message.ExecuteType.ASYN_THREAD) {
-            if (threadPool == null) {
-                throw new RuntimeException(String.format("执行异步sendMessage前请先调用 %s.initThreadPool方法初始化线程池", this.getClass()));
-            }
-            threadPool.execute(() -> this.sendMessage0(msg));
-        } else if (executeType == Message.ExecuteType.ASYN_VIRTUAL_THREAD) {
-            Thread.ofVirtual().start(() -> this.sendMessage0(msg));
+        } else {
+            this.executeAsyn(msg.getWhat(), () -> this.sendMessage0(msg), executeType, msg.poolable ? msg::reset : null);
         }
     }
 
@@ -709,6 +1270,254 @@ public class Facade implements INotifier {
         sendMessage(msg, Message.ExecuteType.SYNC);
     }
 
+    /**
+     * 按键分道有序异步处理消息事件
+     * <br>
+     * 相同laneKey的事件消息严格按调用顺序依次执行，不同laneKey的事件消息并行执行，
+     * 适用于同一玩家、同一房间等需保证执行顺序的场景；执行通道按需创建，空闲后自动回收
+     * <br>
+     * 执行通道不经由异步执行限流器，限流器的溢出策略不会丢弃或拒绝已进入通道的事件消息
+     *
+     * @param msg         待处理的消息
+     * @param laneKey     执行通道键，比如玩家ID、房间ID
+     * @param executeType 消息执行类型，为{@link Message.ExecuteType#ASYN_THREAD}时须调用initThreadPool方法初始化线程池；
+     *                    同步及远程消息队列方式不分道，等同于{@link #sendMessage(Message, Message.ExecuteType)}
+     */
+    public void sendMessage(final Message msg, final Object laneKey, final Message.ExecuteType executeType) {
+        if (msg == null || msg.getWhat() == null) {
+            return;
+        }
+        if (laneKey == null || executeType == Message.ExecuteType.SYNC || executeType == Message.ExecuteType.ASYN_REMOTE_QUEUE) {
+            this.sendMessage(msg, executeType);
+            return;
+        }
+        MessageLanes lanes = this.messageLanes;
+        if (lanes == null) {
+            synchronized (this) {
+                lanes = this.messageLanes;
+                if (lanes == null) {
+                    lanes = new MessageLanes(this);
+                    this.messageLanes = lanes;
+                }
+            }
+        }
+        lanes.add(msg, laneKey, executeType);
+    }
+
+    /**
+     * 批量处理消息事件
+     * <br>
+     * 消息按事件名分组，每组仅查找一次路由表；异步执行时每组仅提交一个任务。
+     * <br>
+     * 同组消息先由每个{@link Command}通过{@link Command#executeBatch(List)}处理全部消息，
+     * 再依次交由每个{@link Mediator}及{@link IListener}处理，即同组内以事件处理器为主序执行。
+     * 设置了事件派发统计时，每个事件处理器处理完整组消息统计一次。
+     *
+     * @param msgs        待处理的消息集合
+     * @param executeType 消息执行类型，远程消息队列方式将逐个发送
+     */
+    public void sendMessages(final Collection<? extends Message> msgs, final Message.ExecuteType executeType) {
+        if (msgs == null || msgs.isEmpty()) {
+            return;
+        }
+        if (executeType == Message.ExecuteType.ASYN_REMOTE_QUEUE) {
+            for (Message msg : msgs) {
+                this.sendMessage(msg, executeType);
+            }
+            return;
+        }
+        if (executeType == Message.ExecuteType.ASYN_THREAD && threadPool == null) {
+            throw new RuntimeException(String.format("执行异步sendMessages前请先调用 %s.initThreadPool方法初始化线程池", this.getClass()));
+        }
+        final Map<Object, List<Message>> groups = new LinkedHashMap<>();
+        for (Message msg : msgs) {
+            if (msg == null || msg.getWhat() == null) continue;
+            groups.computeIfAbsent(msg.getWhat(), k -> new ArrayList<>()).add(msg);
+        }
+        for (List<Message> batch : groups.values()) {
+            final MessageRoute route = routeOf(batch.get(0).getWhat());
+            if (executeType == Message.ExecuteType.SYNC) {
+                this.sendBatch0(route, batch);
+            } else {
+                this.executeAsyn(batch.get(0).getWhat(), () -> this.sendBatch0(route, batch), executeType, () -> {
+                    for (Message msg : batch) {
+                        if (msg.poolable) msg.reset();
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * 批量处理相同事件名的消息
+     *
+     * @param route 事件名对应的路由表，可为null
+     * @param batch 相同事件名的消息
+     */
+    private void sendBatch0(final MessageRoute route, final List<Message> batch) {
+        final IDispatchMetrics metrics = this.dispatchMetrics;
+        if (route != null) {
+            for (CommandPool pool : route.commandPools) {
+                final Command cmd = pool.obtain();
+                if (cmd == null) continue;
+                cmd.setFacade(this);
+                cmd.cmd = route.what;
+                final long start = metrics == null ? 0 : System.nanoTime();
+                Throwable error = null;
+                try {
+                    cmd.executeBatch0(batch);
+                } catch (Throwable ex) {
+                    error = ex;
+                    throw ex;
+                } finally {
+                    if (metrics != null) {
+                        metrics.onHandled(route.what, pool.cls, System.nanoTime() - start, error);
+                    }
+                }
+                for (Message msg : batch) {
+                    if (msg.hasCallback()) msg.callback(pool.handlerId);
+                }
+                pool.idle(cmd);
+            }
+            final Mediator[] mediators = route.mediators;
+            for (int i = 0; i < mediators.length; i++) {
+                final long start = metrics == null ? 0 : System.nanoTime();
+                Throwable error = null;
+                try {
+                    mediators[i].handleMessages0(batch, route.mediatorIds[i]);
+                } catch (Throwable ex) {
+                    error = ex;
+                    throw ex;
+                } finally {
+                    if (metrics != null) {
+                        metrics.onHandled(route.what, mediators[i].getClass(), System.nanoTime() - start, error);
+                    }
+                }
+            }
+            final IListener[] listeners = route.listeners;
+            for (int i = 0; i < listeners.length; i++) {
+                final long start = metrics == null ? 0 : System.nanoTime();
+                Throwable error = null;
+                try {
+                    for (Message msg : batch) {
+                        executeListener(listeners[i], route.listenerIds[i], msg);
+                    }
+                } catch (Throwable ex) {
+                    error = ex;
+                    throw ex;
+                } finally {
+                    if (metrics != null) {
+                        metrics.onHandled(route.what, listeners[i].getClass(), System.nanoTime() - start, error);
+                    }
+                }
+            }
+        }
+        for (Message msg : batch) {
+            if (msg.poolable) msg.reset();
+        }
+    }
+
+    /**
+     * 以int为事件名处理消息事件
+     * <br>
+     * 事件名对应的路由表以int直接查找，事件消息从{@link Pooled}中获取并在处理完成后回收，
+     * 事件处理器中不可持有此消息对象；远程消息队列方式仍以装箱后的事件名发送
+     *
+     * @param what        事件名，对应以{@link Integer}注册的事件处理器
+     * @param body        绑定的数据
+     * @param executeType 消息执行类型
+     */
+    public void sendMessage(final int what, final Object body, final Message.ExecuteType executeType) {
+        if (executeType == Message.ExecuteType.ASYN_REMOTE_QUEUE) {
+            sendMessage(new Message(what, body), executeType);
+            return;
+        }
+        sendMessage(intRoutes().get(what), body, executeType);
+    }
+
+    /**
+     * 以int为事件名同步处理消息事件
+     *
+     * @param what 事件名，对应以{@link Integer}注册的事件处理器
+     * @param body 绑定的数据
+     */
+    public void sendMessage(final int what, final Object body) {
+        sendMessage(intRoutes().get(what), body, Message.ExecuteType.SYNC);
+    }
+
+    /**
+     * 以short为事件名处理消息事件
+     *
+     * @param what        事件名，对应以{@link Short}注册的事件处理器
+     * @param body        绑定的数据
+     * @param executeType 消息执行类型
+     * @see #sendMessage(int, Object, Message.ExecuteType)
+     */
+    public void sendMessage(final short what, final Object body, final Message.ExecuteType executeType) {
+        if (executeType == Message.ExecuteType.ASYN_REMOTE_QUEUE) {
+            sendMessage(new Message(what, body), executeType);
+            return;
+        }
+        sendMessage(shortRoutes().get(what), body, executeType);
+    }
+
+    /**
+     * 以short为事件名同步处理消息事件
+     *
+     * @param what 事件名，对应以{@link Short}注册的事件处理器
+     * @param body 绑定的数据
+     */
+    public void sendMessage(final short what, final Object body) {
+        sendMessage(shortRoutes().get(what), body, Message.ExecuteType.SYNC);
+    }
+
+    /**
+     * 以long为事件名处理消息事件
+     *
+     * @param what        事件名，对应以{@link Long}注册的事件处理器
+     * @param body        绑定的数据
+     * @param executeType 消息执行类型
+     * @see #sendMessage(int, Object, Message.ExecuteType)
+     */
+    public void sendMessage(final long what, final Object body, final Message.ExecuteType executeType) {
+        if (executeType == Message.ExecuteType.ASYN_REMOTE_QUEUE) {
+            sendMessage(new Message(what, body), executeType);
+            return;
+        }
+        sendMessage(longRoutes().get(what), body, executeType);
+    }
+
+    /**
+     * 以long为事件名同步处理消息事件
+     *
+     * @param what 事件名，对应以{@link Long}注册的事件处理器
+     * @param body 绑定的数据
+     */
+    public void sendMessage(final long what, final Object body) {
+        sendMessage(longRoutes().get(what), body, Message.ExecuteType.SYNC);
+    }
+
+    /**
+     * 按路由表处理数值型事件名的消息事件
+     * <br>
+     * 事件名直接使用路由表中注册时的键对象，故无需装箱
+     *
+     * @param route       路由表，为null时表示无事件处理器，直接忽略
+     * @param body        绑定的数据
+     * @param executeType 消息执行类型
+     */
+    private void sendMessage(final MessageRoute route, final Object body, final Message.ExecuteType executeType) {
+        if (route == null) {
+            return;
+        }
+        final Message msg = Pooled.message(Message.class, () -> new Message(null)).set(route.what, body);
+        if (executeType == Message.ExecuteType.SYNC) {
+            this.sendMessage0(route, msg);
+        } else {
+            this.executeAsyn(route.what, () -> this.sendMessage0(route, msg), executeType, msg::reset);
+        }
+    }
+
     /**
      * 发送到远程消息队列，并由消息队列消费端处理事件消息。
      * <br>
@@ -726,14 +1535,49 @@ public class Facade implements INotifier {
     }
 
     /**
-     * 终止任务调度
+     * 终止任务调度，仅当调度表中对应的仍是此调度器时才移除，避免误删同组同事件名的新调度器
      *
-     * @param name 任务名
+     * @param scheduler 定时调度器
      */
-    void cancelSchedule(String name) {
-        ScheduledFuture<?> future = scheduleFutureMap.remove(name);
-        if (future == null) return;
-        future.cancel(true);
+    void cancelSchedule(Scheduler scheduler) {
+        Map<Object, Scheduler> map = schedulerMap.get(scheduler.name);
+        if (map != null && map.remove(scheduler.cmd, scheduler)) {
+            removeEmptySchedulerGroup(scheduler.name, map);
+        }
+        scheduler.cancel();
+    }
+
+    /**
+     * 移除已无调度器的组，在组锁内检查，不会误删刚加入调度器的组
+     *
+     * @param group 调度器组名
+     * @param map   组内的调度器
+     */
+    private void removeEmptySchedulerGroup(String group, Map<Object, Scheduler> map) {
+        if (map.isEmpty()) {
+            schedulerMap.computeIfPresent(group, (k, m) -> m.isEmpty() ? null : m);
+        }
+    }
+
+    /**
+     * 将调度器加入调度表
+     *
+     * @param scheduler 定时调度器
+     * @return 同组同事件名的原调度器
+     */
+    private Scheduler putScheduler(Scheduler scheduler) {
+        for (; ; ) {
+            Map<Object, Scheduler> map = schedulerMap.computeIfAbsent(scheduler.name, k -> new ConcurrentHashMap<>());
+            Scheduler prev = map.put(scheduler.cmd, scheduler);
+            if (schedulerMap.get(scheduler.name) == map) {
+                return prev;
+            }
+            //加入前组已因为空被移除，重新加入
+            map.remove(scheduler.cmd, scheduler);
+            if (prev != null) {
+                prev.cancel();
+            }
+        }
     }
 
     /**
@@ -744,27 +1588,33 @@ public class Facade implements INotifier {
      */
     @Override
     final public void sendMessage(final Message msg, Scheduler scheduler) {
-        if (scheduleThreadPool == null) {
-            throw new RuntimeException(String.format("执行sendMessage定时调度前请先调用 %s.initScheduleThreadPool方法初始化线程池", this.getClass()));
+        final TimingWheel wheel = this.timingWheel;
+        if (wheel == null && scheduleThreadPool == null) {
+            throw new RuntimeException(String.format("执行sendMessage定时调度前请先调用 %s.initScheduleThreadPool或initTimingWheel方法初始化", this.getClass()));
         }
         if (scheduler.facade != null && scheduler.msg != null) {
             throw new RuntimeException(String.format("每次调用sendMessage进行事件调度时必须保证%s参数为新的且独立的对象", Scheduler.class.getTypeName()));
         }
         msg.poolable = false;
-        Object cmd = msg.what;
-        scheduler.name += String.format("_$%s$_%s", cmd.getClass().getTypeName(), cmd);
+        scheduler.cmd = msg.what;
         scheduler.facade = this;
         scheduler.msg = msg;
         long currMillSecs = System.currentTimeMillis();
         if (scheduler.startTime <= 0) {
             scheduler.startTime = currMillSecs;
         }
-        scheduler.prevExecTime.set(scheduler.startTime);
+        scheduler.prevExecTime = scheduler.startTime;
         long initDelay = scheduler.startTime >= currMillSecs ? scheduler.startTime - currMillSecs : 0;
         long delay = scheduler.interval <= 0 ? 1 : scheduler.interval;
-        cancelSchedule(scheduler.name);
-        ScheduledFuture<?> future = scheduleThreadPool.scheduleWithFixedDelay(scheduler, initDelay, delay, TimeUnit.MILLISECONDS);
-        scheduleFutureMap.put(scheduler.name, future);
+        Scheduler prev = putScheduler(scheduler);
+        if (prev != null) {
+            prev.cancel();
+        }
+        if (wheel != null) {
+            scheduler.start(wheel, initDelay, delay);
+        } else {
+            scheduler.start(scheduleThreadPool, initDelay, delay);
+        }
     }
 
     /**
@@ -775,15 +1625,43 @@ public class Facade implements INotifier {
      */
     @Override
     final public void cancelSchedule(Object cmd, String group) {
-        String name = group;
-        name += String.format("_$%s$_%s", cmd.getClass().getTypeName(), cmd);
-        cancelSchedule(name);
+        if (cmd == null) return;
+        if (group == null) group = "";
+        Map<Object, Scheduler> map = schedulerMap.get(group);
+        if (map == null) return;
+        Scheduler scheduler = map.remove(cmd);
+        if (scheduler == null) return;
+        removeEmptySchedulerGroup(group, map);
+        scheduler.cancel();
+    }
+
+    /**
+     * 取消组内的所有调度
+     *
+     * @param group 调度器组名
+     */
+    final public void cancelGroup(String group) {
+        if (group == null) group = "";
+        Map<Object, Scheduler> map = schedulerMap.remove(group);
+        if (map == null) return;
+        for (Scheduler scheduler : map.values()) {
+            scheduler.cancel();
+        }
     }
 
     /**
      * 释放内存
+     * <br>
+     * 设置了远程消息处理器且开启了批量发送时，先发送完所有已投递的远端事件；等待时被中断则保留中断状态并继续释放
      */
     public void dispose() {
+        if (this.remoteMessagePostman != null) {
+            try {
+                this.remoteMessagePostman.closeBatching();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
         for (Object key : cmdPoolMap.keySet()) {
             CommandPoolSortedSet cmdPoolSet = cmdPoolMap.get(key);
             if (cmdPoolSet != null) {
@@ -794,6 +1672,10 @@ public class Facade implements INotifier {
             }
         }
         this.cmdPoolMap.clear();
+        for (CommandPool pool : subCommandPools.values()) {
+            pool.clear();
+        }
+        this.subCommandPools.clear();
         for (Object key : cmdMediatorMap.keySet()) {
             List<Mediator> list = cmdMediatorMap.get(key);
             if (list != null) {
@@ -804,12 +1686,25 @@ public class Facade implements INotifier {
         this.mediatorMap.clear();
         this.proxyMap.clear();
         this.listenerMap.clear();
+        this.routeMap.clear();
+        this.intRouteMap = null;
+        this.shortRouteMap = null;
+        this.longRouteMap = null;
         this.threadPool = null;
-        for (String key : scheduleFutureMap.keySet()) {
-            this.cancelSchedule(key);
+        this.messageLanes = null;
+        this.asynLimiter = null;
+        this.asynLimiterMap.clear();
+        this.dispatchMetrics = null;
+        this.parallelWhats.clear();
+        for (String group : schedulerMap.keySet()) {
+            this.cancelGroup(group);
+        }
+        this.schedulerMap.clear();
+        for (MessagePublisher publisher : publisherMap.values()) {
+            publisher.close();
         }
-        this.scheduleFutureMap.clear();
         this.scheduleThreadPool = null;
+        this.timingWheel = null;
     }
 
 }
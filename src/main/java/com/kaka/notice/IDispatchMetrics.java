@@ -0,0 +1,32 @@
+package com.kaka.notice;
+
+/**
+ * 事件派发统计接口
+ * <br>
+ * 通过{@link Facade#initDispatchMetrics(IDispatchMetrics)}设置后，每个事件处理器执行完成时回调；
+ * 未设置时事件派发仅多一次null判断，回调在事件派发线程中执行，实现类须线程安全且尽量避免对象分配
+ *
+ * @author zkpursuit
+ * @see DispatchMetrics
+ */
+public interface IDispatchMetrics {
+
+    /**
+     * 事件处理器执行完成
+     *
+     * @param what         事件名
+     * @param handlerClass 事件处理器类型，{@link Command}、{@link Mediator}或{@link IListener}的实现类
+     * @param nanos        执行耗时，单位纳秒
+     * @param error        执行中抛出的异常，正常执行完成时为null
+     */
+    void onHandled(Object what, Class<?> handlerClass, long nanos, Throwable error);
+
+    /**
+     * 异步事件消息从提交到开始执行的等待时间
+     *
+     * @param what  事件名
+     * @param nanos 等待时间，单位纳秒
+     */
+    void onQueueWait(Object what, long nanos);
+
+}
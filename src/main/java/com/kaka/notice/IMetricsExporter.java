@@ -0,0 +1,19 @@
+package com.kaka.notice;
+
+/**
+ * 事件派发统计数据导出器
+ * <br>
+ * 可实现为日志输出、Prometheus、JMX等，由{@link DispatchMetrics#export(Facade, IMetricsExporter)}调用
+ *
+ * @author zkpursuit
+ */
+public interface IMetricsExporter {
+
+    /**
+     * 导出统计数据快照
+     *
+     * @param snapshot 统计数据快照
+     */
+    void export(DispatchMetrics.Snapshot snapshot);
+
+}
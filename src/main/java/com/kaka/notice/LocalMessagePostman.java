@@ -9,6 +9,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * 本地事件消息队列执行器
  * <br> 此执行器当在第一次调用addMessage后将一直执行下去，直到事件队列中的所有事件被执行完毕。
  * <br> 当需要暂停执行时可继承此类自行实现，比如增加一个AtomicBoolean对象标记是否执行。
+ * <br> 所有事件共用一个执行通道，如需按键分道有序执行，请使用{@link Facade#sendMessage(Message, Object, Message.ExecuteType)}
  *
  * @author zkpursuit
  */
@@ -42,8 +43,9 @@ public class LocalMessagePostman {
      */
     public void addMessage(Message message) {
         queue.add(message);
-        if (doing.get()) return;
-        execute();
+        if (doing.compareAndSet(false, true)) {
+            execute();
+        }
     }
 
     /**
@@ -72,12 +74,15 @@ public class LocalMessagePostman {
      * 执行事件消息
      */
     protected void execute() {
-        if (queue.isEmpty()) {
+        final Message event = queue.poll();
+        if (event == null) {
             this.doing.set(false);
+            //置为false之前添加的事件未能获得执行权，需再次检查，防止事件滞留在队列中
+            if (!queue.isEmpty() && this.doing.compareAndSet(false, true)) {
+                execute();
+            }
             return;
         }
-        this.doing.set(true);
-        final Message event = queue.poll();
         Executor threadPoll = facade.getThreadPool();
         threadPoll.execute(() -> {
             this.execute(event);
@@ -1,19 +1,22 @@
 package com.kaka.notice;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.List;
 
 /**
  * 可添加子命令的控制命令类
+ * <br>
+ * 以类添加的子命令在每次执行时从所属{@link Facade}共享的对象池中取出，执行完成后放回，同一控制命令实例可被多线程同时执行，
+ * 控制命令本身亦可经由pooledSize池化；以实例添加的子命令为此控制命令独占，不可被多线程同时执行。
  *
  * @author zkpursuit
  */
 abstract public class MacroCommand extends Command {
 
     /**
-     * 子命令存储容器
+     * 子命令存储容器，元素为{@link Command}实例或以类添加的{@link CommandPool.SubCommand}
      */
-    private final Collection<Command> subCommands;
+    private final List<Object> subCommands;
 
     /**
      * 构造方法
@@ -45,18 +48,43 @@ abstract public class MacroCommand extends Command {
     }
 
     /**
-     * 执行所有子命令
+     * 添加子命令，执行时从所属{@link Facade}共享的对象池中取出子命令实例
+     *
+     * @param commandClass 子命令类
+     * @param pooledSize   池化大小，-1表示不池化；同一子命令类以不同池化大小添加时使用各自独立的对象池
+     */
+    final protected void addSubCommand(Class<? extends Command> commandClass, int pooledSize) {
+        this.subCommands.add(new CommandPool.SubCommand(commandClass, pooledSize));
+    }
+
+    /**
+     * 添加子命令，执行时从所属{@link Facade}共享的对象池中取出子命令实例，默认池化大小为64
+     *
+     * @param commandClass 子命令类
+     */
+    final protected void addSubCommand(Class<? extends Command> commandClass) {
+        addSubCommand(commandClass, CommandPool.SUB_COMMAND_POOLED_SIZE);
+    }
+
+    /**
+     * 按添加顺序执行所有子命令
      *
      * @param msg 事件消息
      */
     @Override
     public void execute(Message msg) {
-        subCommands.stream().peek((command) -> {
-            command.cmd = cmd;
-            command.facade = facade;
-        }).forEach((command) -> {
-            command.execute(msg);
-        });
+        final List<Object> commands = this.subCommands;
+        for (int i = 0, size = commands.size(); i < size; i++) {
+            Object subCommand = commands.get(i);
+            if (subCommand instanceof CommandPool.SubCommand sub) {
+                facade.subCommandPool(sub).execute(cmd, facade, msg);
+            } else {
+                Command command = (Command) subCommand;
+                command.cmd = cmd;
+                command.facade = facade;
+                command.execute(msg);
+            }
+        }
     }
 
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.kaka.notice;
 
+import java.util.List;
+
 /**
  * 消息观察者，感知有兴趣的消息通知 <br>
  * 以后可能更名，候选名称：<br>
@@ -40,13 +42,51 @@ abstract public class Mediator extends Proxy implements IMediator {
 
     /**
      * 执行事件通知
+     * <br>
+     * 执行完成或抛出异常后恢复线程变量的原值，handleMessage中同步派发的事件消息不影响外层的回调参数设置
      *
      * @param msg 被执行的事件通知
      */
     void handleMessage0(Message msg) {
+        final Message outer = messageThreadLocal.get();
         messageThreadLocal.set(msg);
-        this.handleMessage(msg);
-        messageThreadLocal.remove();
+        try {
+            this.handleMessage(msg);
+        } finally {
+            restore(outer);
+        }
+    }
+
+    /**
+     * 批量执行相同事件名的事件通知，线程变量仅在全部执行完成后恢复一次
+     *
+     * @param msgs 被执行的事件通知
+     * @param id   事件处理器唯一标识，用于事件执行完成后的回调
+     */
+    void handleMessages0(List<Message> msgs, String id) {
+        final Message outer = messageThreadLocal.get();
+        try {
+            for (Message msg : msgs) {
+                messageThreadLocal.set(msg);
+                this.handleMessage(msg);
+                if (msg.hasCallback()) msg.callback(id);
+            }
+        } finally {
+            restore(outer);
+        }
+    }
+
+    /**
+     * 恢复线程变量为外层正在执行的事件通知
+     *
+     * @param outer 外层正在执行的事件通知，无则为null
+     */
+    private static void restore(Message outer) {
+        if (outer == null) {
+            messageThreadLocal.remove();
+        } else {
+            messageThreadLocal.set(outer);
+        }
     }
 
     /**
@@ -3,8 +3,10 @@ package com.kaka.notice;
 import com.kaka.util.ObjectPool.Poolable;
 
 import java.io.Serializable;
-import java.util.HashMap;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.Map;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 /**
@@ -36,6 +38,25 @@ public class Message implements Poolable, Serializable, Cloneable {
         ASYN_REMOTE_QUEUE
     }
 
+    private static final VarHandle RESULT_MAP;
+    /**
+     * 事件处理器类型至其唯一标识的缓存
+     */
+    private static final ClassValue<String> HANDLER_IDS = new ClassValue<>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            return type.getTypeName();
+        }
+    };
+
+    static {
+        try {
+            RESULT_MAP = MethodHandles.lookup().findVarHandle(Message.class, "resultMap", Map.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     /**
      * 是否可被池化
      */
@@ -100,12 +121,14 @@ public class Message implements Poolable, Serializable, Cloneable {
      * @return 处理结果数据容器
      */
     final protected <T, R extends IResult<T>> R _setResult(Object key, R result) {
-        synchronized (this) {
-            if (this.resultMap == null) {
-                this.resultMap = new HashMap<>();
+        Map<Object, IResult> map = this.resultMap;
+        if (map == null) {
+            map = new MessageResults();
+            if (!RESULT_MAP.compareAndSet(this, null, map)) {
+                map = (Map<Object, IResult>) RESULT_MAP.getVolatile(this);
             }
-            this.resultMap.put(key, result);
         }
+        map.put(key, result);
         return result;
     }
 
@@ -117,12 +140,34 @@ public class Message implements Poolable, Serializable, Cloneable {
      * @return 处理结果数据容器
      */
     final protected <T, R extends IResult<T>> R _getResult(Object key) {
-        synchronized (this) {
-            if (this.resultMap == null) {
-                return null;
-            }
-            return (R) this.resultMap.get(key);
+        Map<Object, IResult> map = this.resultMap;
+        if (map == null) {
+            return null;
         }
+        return (R) map.get(key);
+    }
+
+    /**
+     * 是否设置了事件通知处理结果
+     *
+     * @return true已设置
+     */
+    final public boolean hasResults() {
+        Map<Object, IResult> map = this.resultMap;
+        return map != null && !map.isEmpty();
+    }
+
+    /**
+     * 遍历事件通知处理结果，遍历的是调用时的快照
+     *
+     * @param action 遍历函数，参数依次为处理结果的唯一标识及处理结果数据容器
+     */
+    final public void forEachResult(BiConsumer<Object, IResult> action) {
+        Map<Object, IResult> map = this.resultMap;
+        if (map == null) {
+            return;
+        }
+        map.forEach(action);
     }
 
     /**
@@ -155,10 +200,31 @@ public class Message implements Poolable, Serializable, Cloneable {
      * @param params            回调参数
      */
     void setCallbackParams(Class<?> eventHandlerClass, Object params) {
-        String id = eventHandlerClass.getTypeName();
+        String id = handlerId(eventHandlerClass);
         this._setResult(id, new CallbackResult<>(params, id));
     }
 
+    /**
+     * 事件处理器的唯一标识，即类的TypeName
+     * <br>
+     * 按类缓存，同一类始终返回同一字符串对象，回调结果可按引用比较命中
+     *
+     * @param eventHandlerClass 事件处理器类型
+     * @return 事件处理器唯一标识
+     */
+    static String handlerId(Class<?> eventHandlerClass) {
+        return HANDLER_IDS.get(eventHandlerClass);
+    }
+
+    /**
+     * 是否设置了事件执行完成后的回调函数
+     *
+     * @return true设置了回调函数
+     */
+    boolean hasCallback() {
+        return this.callback != null;
+    }
+
     /**
      * 事件执行完成后的回调
      *
@@ -175,10 +241,9 @@ public class Message implements Poolable, Serializable, Cloneable {
     public void reset() {
         this.what = null;
         this.body = null;
-        synchronized (this) {
-            if (this.resultMap != null) {
-                this.resultMap.clear();
-            }
+        Map<Object, IResult> map = this.resultMap;
+        if (map != null) {
+            map.clear();
         }
         if (this.callback != null) {
             this.callback = null;
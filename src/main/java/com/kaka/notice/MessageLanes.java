@@ -0,0 +1,145 @@
+package com.kaka.notice;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按键分道的有序异步事件执行器
+ * <br>
+ * 相同键的事件消息严格按添加顺序依次执行，不同键的事件消息在线程池或虚拟线程中并行执行；
+ * 每个键对应的执行通道按需创建，执行完所有事件后自动回收
+ * <br>
+ * 执行通道直接提交至线程池或虚拟线程，不经由{@link AsynLimiter}：限流器丢弃或拒绝唤醒任务将使通道永久停滞，
+ * 阻塞等待则可能在通道内向其它通道发送消息时死锁；每个通道同一时刻仅占用一个线程，并发数不超过通道数量。
+ * 线程池拒绝执行时由调用线程继续执行通道，事件消息不会丢失
+ * <br>
+ * 此类在类包外不可访问
+ *
+ * @author zkpursuit
+ */
+final class MessageLanes {
+
+    /**
+     * 单次任务最多连续执行的事件数量，超出后重新提交任务，避免单个通道长期占用线程
+     */
+    private static final int DRAIN_BATCH = 64;
+
+    /**
+     * 单个键对应的执行通道
+     */
+    private final class Lane implements Runnable {
+        final Object key;
+        final Queue<Message> queue = new ConcurrentLinkedQueue<>();
+        /**
+         * 待执行的事件数量，由0变为1的生产者负责唤醒执行
+         */
+        final AtomicInteger pending = new AtomicInteger();
+        final Message.ExecuteType executeType;
+
+        Lane(Object key, Message.ExecuteType executeType) {
+            this.key = key;
+            this.executeType = executeType;
+        }
+
+        @Override
+        public void run() {
+            int executed = 0;
+            for (; ; ) {
+                Message msg = queue.poll();
+                try {
+                    facade.sendMessage(msg);
+                } catch (Throwable ex) {
+                    Thread t = Thread.currentThread();
+                    t.getUncaughtExceptionHandler().uncaughtException(t, ex);
+                }
+                if (pending.decrementAndGet() == 0) {
+                    lanes.computeIfPresent(key, (k, lane) -> lane == this && pending.get() == 0 ? null : lane);
+                    return;
+                }
+                if (++executed >= DRAIN_BATCH) {
+                    if (wakeup(this)) {
+                        return;
+                    }
+                    //重新提交被拒绝，由当前线程继续执行
+                    executed = 0;
+                }
+            }
+        }
+    }
+
+    private final Facade facade;
+    private final Map<Object, Lane> lanes = new ConcurrentHashMap<>();
+
+    /**
+     * 构造方法
+     *
+     * @param facade 事件调度中心
+     */
+    MessageLanes(Facade facade) {
+        this.facade = facade;
+    }
+
+    /**
+     * 添加事件消息到键对应的执行通道
+     *
+     * @param msg         事件消息
+     * @param laneKey     执行通道键，比如玩家ID、房间ID
+     * @param executeType 执行类型，仅支持{@link Message.ExecuteType#ASYN_THREAD}和{@link Message.ExecuteType#ASYN_VIRTUAL_THREAD}
+     */
+    void add(Message msg, Object laneKey, Message.ExecuteType executeType) {
+        if (executeType == Message.ExecuteType.ASYN_THREAD && facade.getThreadPool() == null) {
+            throw new RuntimeException(String.format("执行异步sendMessage前请先调用 %s.initThreadPool方法初始化线程池", facade.getClass()));
+        }
+        final boolean[] wake = new boolean[1];
+        Lane lane = lanes.compute(laneKey, (k, _lane) -> {
+            if (_lane == null) {
+                _lane = new Lane(k, executeType);
+            }
+            _lane.queue.offer(msg);
+            wake[0] = _lane.pending.getAndIncrement() == 0;
+            return _lane;
+        });
+        if (wake[0] && !wakeup(lane)) {
+            //线程池拒绝执行，由调用线程执行，保证通道不停滞
+            lane.run();
+        }
+    }
+
+    /**
+     * 唤醒执行通道，直接提交至线程池或虚拟线程，不经由异步执行限流器
+     *
+     * @param lane 执行通道
+     * @return false表示线程池拒绝执行或线程池已被移除
+     */
+    private boolean wakeup(Lane lane) {
+        if (lane.executeType == Message.ExecuteType.ASYN_VIRTUAL_THREAD) {
+            Thread.ofVirtual().start(lane);
+            return true;
+        }
+        Executor threadPool = facade.getThreadPool();
+        if (threadPool == null) {
+            return false;
+        }
+        try {
+            threadPool.execute(lane);
+            return true;
+        } catch (RejectedExecutionException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * 当前存在待执行事件的通道数量
+     *
+     * @return 通道数量
+     */
+    int size() {
+        return lanes.size();
+    }
+
+}
@@ -0,0 +1,118 @@
+package com.kaka.notice;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+
+/**
+ * 事件消息发布者，以{@link Flow.Publisher}的方式订阅某一事件名的事件消息流
+ * <br>
+ * 作为事件监听器注册到{@link Facade}，派发线程仅以非阻塞方式将事件消息放入每个订阅者的有界缓冲区，
+ * 订阅者按自身请求的数量在独立的虚拟线程中消费；订阅者消费过慢导致缓冲区已满时直接丢弃事件消息并计数，
+ * 派发线程不会因此阻塞，也不会无限制的分配内存。
+ * <br>
+ * 被发布的事件消息不再回收至{@link Pooled}，订阅者可安全持有。
+ * 订阅者收到的是派发中的事件消息对象本身而非副本：同一事件消息被重复派发时（比如以{@link Scheduler}定时调度），
+ * 订阅者将多次收到同一实例，其它事件处理器对其结果等数据的修改对订阅者可见，需要快照时请在onNext中自行复制所需数据。
+ *
+ * @author zkpursuit
+ * @see Facade#publisher(Object)
+ */
+public class MessagePublisher implements Flow.Publisher<Message>, IListener, AutoCloseable {
+
+    /**
+     * 订阅者消费任务的执行器，每个任务一个虚拟线程
+     */
+    private static final Executor VIRTUAL_EXECUTOR = task -> Thread.ofVirtual().start(task);
+
+    private final Facade facade;
+    private final Object what;
+    private final SubmissionPublisher<Message> publisher;
+    private final LongAdder dropped = new LongAdder();
+    /**
+     * 缓冲区已满时的处理，仅计数，不重试
+     */
+    private final BiPredicate<Flow.Subscriber<? super Message>, ? super Message> onDrop = (subscriber, msg) -> {
+        dropped.increment();
+        return false;
+    };
+
+    /**
+     * 构造方法
+     *
+     * @param facade            事件调度中心
+     * @param what              事件名
+     * @param maxBufferCapacity 每个订阅者的最大缓冲数量
+     */
+    MessagePublisher(Facade facade, Object what, int maxBufferCapacity) {
+        this.facade = facade;
+        this.what = what;
+        this.publisher = new SubmissionPublisher<>(VIRTUAL_EXECUTOR, maxBufferCapacity);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Message> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    @Override
+    public void onMessage(Message message, Facade facade) {
+        if (!publisher.hasSubscribers()) {
+            return;
+        }
+        message.poolable = false;
+        publisher.offer(message, onDrop);
+    }
+
+    /**
+     * 事件名
+     *
+     * @return 事件名
+     */
+    public Object getWhat() {
+        return what;
+    }
+
+    /**
+     * 当前订阅者数量
+     *
+     * @return 订阅者数量
+     */
+    public int getNumberOfSubscribers() {
+        return publisher.getNumberOfSubscribers();
+    }
+
+    /**
+     * 因订阅者缓冲区已满而丢弃的事件消息累计数量，同一事件消息被多个订阅者丢弃时分别计数
+     *
+     * @return 丢弃数量
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * 订阅者缓冲区中待消费事件消息数量的最大值
+     *
+     * @return 最大待消费数量
+     */
+    public int estimateMaximumLag() {
+        return publisher.estimateMaximumLag();
+    }
+
+    public boolean isClosed() {
+        return publisher.isClosed();
+    }
+
+    /**
+     * 关闭发布者，从{@link Facade}中移除，所有订阅者在消费完已缓冲的事件消息后收到onComplete
+     */
+    @Override
+    public void close() {
+        facade.removePublisher(this);
+        publisher.close();
+    }
+
+}
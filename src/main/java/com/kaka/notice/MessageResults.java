@@ -0,0 +1,220 @@
+package com.kaka.notice;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * 事件消息处理结果容器
+ * <br>
+ * 不超过{@link #INLINE_CAPACITY}个处理结果时以两个定长数组存储，查找时先按引用比较再按equals比较，
+ * 处理结果的键多为类的TypeName常量，引用比较即可命中；超出后转存至{@link HashMap}。
+ * <br>
+ * 读写均以对象监视器保护，临界区内无阻塞操作；清除时保留数组及溢出表，池化的事件消息可反复使用而不产生垃圾。
+ * <br>
+ * Java序列化时以{@link #writeReplace()}替换为{@link HashMap}，序列化流中不含此类，与原先的{@link HashMap}兼容。
+ * 其它不识别writeReplace的序列化框架会写入此类的类名，比如Kryo，需将此类按{@link HashMap}写入方可与旧版本互通，
+ * 参见测试代码中的KryoSerializer。
+ * <br>
+ * 此类在类包外不可访问
+ *
+ * @author zkpursuit
+ */
+final class MessageResults extends AbstractMap<Object, IResult> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 内联存储的最大数量
+     */
+    static final int INLINE_CAPACITY = 4;
+
+    private Object[] keys;
+    private IResult[] values;
+    private int count;
+    private Map<Object, IResult> overflow;
+
+    /**
+     * 内联数组中的索引，调用前须已持有对象监视器
+     *
+     * @param key 处理结果的键
+     * @return 索引，不存在时返回-1
+     */
+    private int indexOf(Object key) {
+        final Object[] _keys = this.keys;
+        final int n = this.count;
+        for (int i = 0; i < n; i++) {
+            if (_keys[i] == key) return i;
+        }
+        for (int i = 0; i < n; i++) {
+            if (key.equals(_keys[i])) return i;
+        }
+        return -1;
+    }
+
+    @Override
+    public IResult put(Object key, IResult value) {
+        Objects.requireNonNull(key, "key");
+        synchronized (this) {
+            if (overflow != null && !overflow.isEmpty()) {
+                return overflow.put(key, value);
+            }
+            int index = count == 0 ? -1 : indexOf(key);
+            if (index >= 0) {
+                IResult prev = values[index];
+                values[index] = value;
+                return prev;
+            }
+            if (count < INLINE_CAPACITY) {
+                if (keys == null) {
+                    keys = new Object[INLINE_CAPACITY];
+                    values = new IResult[INLINE_CAPACITY];
+                }
+                keys[count] = key;
+                values[count] = value;
+                count++;
+                return null;
+            }
+            if (overflow == null) {
+                overflow = new HashMap<>();
+            }
+            for (int i = 0; i < count; i++) {
+                overflow.put(keys[i], values[i]);
+                keys[i] = null;
+                values[i] = null;
+            }
+            count = 0;
+            return overflow.put(key, value);
+        }
+    }
+
+    @Override
+    public IResult get(Object key) {
+        if (key == null) return null;
+        synchronized (this) {
+            if (overflow != null && !overflow.isEmpty()) {
+                return overflow.get(key);
+            }
+            int index = count == 0 ? -1 : indexOf(key);
+            return index >= 0 ? values[index] : null;
+        }
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public IResult remove(Object key) {
+        if (key == null) return null;
+        synchronized (this) {
+            if (overflow != null && !overflow.isEmpty()) {
+                return overflow.remove(key);
+            }
+            int index = count == 0 ? -1 : indexOf(key);
+            if (index < 0) return null;
+            IResult prev = values[index];
+            int last = --count;
+            keys[index] = keys[last];
+            values[index] = values[last];
+            keys[last] = null;
+            values[last] = null;
+            return prev;
+        }
+    }
+
+    @Override
+    public int size() {
+        synchronized (this) {
+            return overflow != null && !overflow.isEmpty() ? overflow.size() : count;
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * 清除所有处理结果，保留已分配的数组及溢出表
+     */
+    @Override
+    public void clear() {
+        synchronized (this) {
+            for (int i = 0; i < count; i++) {
+                keys[i] = null;
+                values[i] = null;
+            }
+            count = 0;
+            if (overflow != null) {
+                overflow.clear();
+            }
+        }
+    }
+
+    /**
+     * 遍历处理结果快照，遍历时不持有对象监视器，可在遍历中修改
+     *
+     * @param action 遍历函数
+     */
+    @Override
+    public void forEach(BiConsumer<? super Object, ? super IResult> action) {
+        for (Entry<Object, IResult> entry : snapshot()) {
+            action.accept(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * 处理结果快照
+     *
+     * @return 快照
+     */
+    private List<Entry<Object, IResult>> snapshot() {
+        synchronized (this) {
+            if (overflow != null && !overflow.isEmpty()) {
+                List<Entry<Object, IResult>> list = new ArrayList<>(overflow.size());
+                for (Entry<Object, IResult> entry : overflow.entrySet()) {
+                    list.add(new SimpleImmutableEntry<>(entry));
+                }
+                return list;
+            }
+            List<Entry<Object, IResult>> list = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                list.add(new SimpleImmutableEntry<>(keys[i], values[i]));
+            }
+            return list;
+        }
+    }
+
+    /**
+     * 处理结果快照，修改快照不影响此容器
+     *
+     * @return 快照
+     */
+    @Override
+    public Set<Entry<Object, IResult>> entrySet() {
+        return new LinkedHashSet<>(snapshot());
+    }
+
+    /**
+     * 序列化时替换为{@link HashMap}，反序列化端无需此类
+     *
+     * @return 处理结果快照
+     */
+    private Object writeReplace() {
+        Map<Object, IResult> map = new HashMap<>();
+        for (Entry<Object, IResult> entry : snapshot()) {
+            map.put(entry.getKey(), entry.getValue());
+        }
+        return map;
+    }
+
+}
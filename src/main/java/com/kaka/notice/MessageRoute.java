@@ -0,0 +1,104 @@
+package com.kaka.notice;
+
+/**
+ * 单个事件名对应的事件处理器路由表
+ * <br> 不可变对象，仅在注册或移除事件处理器时由{@link Facade}重建，事件派发时无锁遍历其中的数组
+ * <br> 此类在类包外不可访问
+ *
+ * @author zkpursuit
+ */
+final class MessageRoute {
+
+    private final static CommandPool[] EMPTY_POOLS = new CommandPool[0];
+    private final static Mediator[] EMPTY_MEDIATORS = new Mediator[0];
+    private final static IListener[] EMPTY_LISTENERS = new IListener[0];
+
+    /**
+     * 事件名
+     */
+    final Object what;
+    /**
+     * 按优先级排序的{@link Command}对象池
+     */
+    final CommandPool[] commandPools;
+    /**
+     * 按注册顺序排列的事件观察者
+     */
+    final Mediator[] mediators;
+    /**
+     * 按添加顺序排列的事件监听器
+     */
+    final IListener[] listeners;
+    /**
+     * 与{@link #mediators}一一对应的事件处理器唯一标识，用于事件执行完成后的回调
+     */
+    final String[] mediatorIds;
+    /**
+     * 与{@link #listeners}一一对应的事件处理器唯一标识，用于事件执行完成后的回调
+     */
+    final String[] listenerIds;
+    /**
+     * 是否并行派发，为true时同一执行层级的事件处理器并发执行
+     */
+    final boolean parallel;
+    /**
+     * {@link #commandPools}按优先级划分的执行层级边界，第i层为[commandLevels[i], commandLevels[i + 1])
+     */
+    final int[] commandLevels;
+
+    /**
+     * 构造方法
+     *
+     * @param what         事件名
+     * @param commandPools 按优先级排序的{@link Command}对象池，可为null
+     * @param mediators    事件观察者，可为null
+     * @param listeners    事件监听器，可为null
+     * @param parallel     是否并行派发
+     */
+    MessageRoute(Object what, CommandPool[] commandPools, Mediator[] mediators, IListener[] listeners, boolean parallel) {
+        this.what = what;
+        this.commandPools = commandPools == null ? EMPTY_POOLS : commandPools;
+        this.mediators = mediators == null ? EMPTY_MEDIATORS : mediators;
+        this.listeners = listeners == null ? EMPTY_LISTENERS : listeners;
+        this.mediatorIds = new String[this.mediators.length];
+        for (int i = 0; i < this.mediators.length; i++) {
+            this.mediatorIds[i] = Message.handlerId(this.mediators[i].getClass());
+        }
+        this.listenerIds = new String[this.listeners.length];
+        for (int i = 0; i < this.listeners.length; i++) {
+            this.listenerIds[i] = Message.handlerId(this.listeners[i].getClass());
+        }
+        this.parallel = parallel;
+        this.commandLevels = levelsOf(this.commandPools);
+    }
+
+    /**
+     * 按优先级划分执行层级
+     *
+     * @param pools 按优先级排序的{@link Command}对象池
+     * @return 执行层级边界，首元素为0，末元素为pools.length
+     */
+    private static int[] levelsOf(CommandPool[] pools) {
+        int count = 0;
+        for (int i = 0; i < pools.length; i++) {
+            if (i == 0 || pools[i].priority != pools[i - 1].priority) count++;
+        }
+        int[] levels = new int[count + 1];
+        int level = 0;
+        for (int i = 0; i < pools.length; i++) {
+            if (i == 0 || pools[i].priority != pools[i - 1].priority) levels[level++] = i;
+        }
+        levels[count] = pools.length;
+        return levels;
+    }
+
+    /**
+     * 是否不存在任何事件处理器
+     *
+     * @return true不存在任何事件处理器
+     */
+    boolean isEmpty() {
+        return commandPools.length == 0 && mediators.length == 0 && listeners.length == 0;
+    }
+
+}
@@ -0,0 +1,241 @@
+package com.kaka.notice;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 可并行执行子命令的控制命令类
+ * <br>
+ * 添加子命令时声明其依赖的子命令，构成有向无环图；执行时所有依赖均已完成的子命令各在一个虚拟线程中并发执行，
+ * 当前线程等待全部子命令完成后返回。
+ * <br>
+ * 任一子命令抛出异常时立即中断其它正在执行的子命令，不再执行尚未开始的子命令，并抛出此异常；
+ * 设置了超时时间且超时时同样中断所有子命令并抛出异常。子命令应响应线程中断以便及时结束。
+ * <br>
+ * 以类添加的子命令在每次执行时从所属{@link Facade}共享的对象池中取出，执行完成后放回，与{@link MacroCommand}相同。
+ *
+ * @author zkpursuit
+ * @see MacroCommand
+ */
+abstract public class ParallelMacroCommand extends Command {
+
+    /**
+     * 子命令节点
+     */
+    private static final class Node {
+        /**
+         * 子命令实例或子命令类，用于查找依赖
+         */
+        final Object key;
+        /**
+         * 以实例添加的子命令
+         */
+        final Command command;
+        /**
+         * 以类添加的子命令
+         */
+        final CommandPool.SubCommand subCommand;
+        /**
+         * 依赖的子命令数量
+         */
+        final int dependencies;
+        /**
+         * 依赖此子命令的子命令索引
+         */
+        int[] dependents = new int[0];
+
+        Node(Object key, Command command, CommandPool.SubCommand subCommand, int dependencies) {
+            this.key = key;
+            this.command = command;
+            this.subCommand = subCommand;
+            this.dependencies = dependencies;
+        }
+
+        void execute(Object cmd, Facade facade, Message msg) {
+            if (subCommand != null) {
+                facade.subCommandPool(subCommand).execute(cmd, facade, msg);
+            } else {
+                command.cmd = cmd;
+                command.facade = facade;
+                command.execute(msg);
+            }
+        }
+    }
+
+    private final List<Node> nodes;
+    /**
+     * 初始化完成后的子命令节点
+     */
+    private Node[] nodeArray;
+    private long timeoutNanos;
+
+    /**
+     * 构造方法
+     */
+    public ParallelMacroCommand() {
+        this.nodes = new ArrayList<>();
+        this.__init();
+    }
+
+    /**
+     * 初始化，间接调用添加所有子命令的方法
+     */
+    private void __init() {
+        initializeMacroCommand();
+        this.nodeArray = nodes.toArray(new Node[0]);
+    }
+
+    /**
+     * 必须在子类中实现此方法，并在方法体中调用addSubCommand方法添加子命令
+     */
+    abstract protected void initializeMacroCommand();
+
+    /**
+     * 添加子命令
+     *
+     * @param command      子命令
+     * @param dependencies 依赖的子命令，须已先行添加，所有依赖执行完成后才执行此子命令
+     */
+    final protected void addSubCommand(Command command, Command... dependencies) {
+        addNode(new Node(command, command, null, dependencies.length), dependencies);
+    }
+
+    /**
+     * 添加子命令，执行时从所属{@link Facade}共享的对象池中取出子命令实例
+     *
+     * @param commandClass 子命令类
+     * @param pooledSize   池化大小，-1表示不池化；同一子命令类以不同池化大小添加时使用各自独立的对象池
+     * @param dependencies 依赖的子命令类，须已先行添加，所有依赖执行完成后才执行此子命令
+     */
+    final protected void addSubCommand(Class<? extends Command> commandClass, int pooledSize, Class<?>... dependencies) {
+        CommandPool.SubCommand subCommand = new CommandPool.SubCommand(commandClass, pooledSize);
+        addNode(new Node(commandClass, null, subCommand, dependencies.length), dependencies);
+    }
+
+    /**
+     * 添加子命令，执行时从所属{@link Facade}共享的对象池中取出子命令实例，默认池化大小为64
+     *
+     * @param commandClass 子命令类
+     * @param dependencies 依赖的子命令类，须已先行添加，所有依赖执行完成后才执行此子命令
+     */
+    final protected void addSubCommand(Class<? extends Command> commandClass, Class<?>... dependencies) {
+        addSubCommand(commandClass, CommandPool.SUB_COMMAND_POOLED_SIZE, dependencies);
+    }
+
+    private void addNode(Node node, Object[] dependencies) {
+        if (indexOf(node.key) >= 0) {
+            throw new IllegalArgumentException(String.format("子命令%s重复添加", node.key));
+        }
+        int index = nodes.size();
+        for (Object dependency : dependencies) {
+            int dependencyIndex = indexOf(dependency);
+            if (dependencyIndex < 0) {
+                throw new IllegalArgumentException(String.format("依赖的子命令%s须先行添加", dependency));
+            }
+            Node dependencyNode = nodes.get(dependencyIndex);
+            int[] dependents = Arrays.copyOf(dependencyNode.dependents, dependencyNode.dependents.length + 1);
+            dependents[dependents.length - 1] = index;
+            dependencyNode.dependents = dependents;
+        }
+        nodes.add(node);
+    }
+
+    private int indexOf(Object key) {
+        for (int i = 0; i < nodes.size(); i++) {
+            if (nodes.get(i).key == key) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * 设置执行超时时间，超时后中断所有子命令并抛出异常
+     *
+     * @param timeout 超时时间，小于等于0表示不超时
+     * @param unit    时间单位
+     */
+    final protected void setTimeout(long timeout, TimeUnit unit) {
+        this.timeoutNanos = timeout <= 0 ? 0 : unit.toNanos(timeout);
+    }
+
+    /**
+     * 并行执行所有子命令，全部完成后返回
+     *
+     * @param msg 事件消息
+     */
+    @Override
+    public void execute(Message msg) {
+        final Node[] _nodes = this.nodeArray;
+        final int size = _nodes.length;
+        if (size == 0) return;
+        final Object _cmd = this.cmd;
+        final Facade _facade = this.facade;
+        final AtomicInteger[] waiting = new AtomicInteger[size];
+        for (int i = 0; i < size; i++) {
+            waiting[i] = new AtomicInteger(_nodes[i].dependencies);
+        }
+        final AtomicInteger remaining = new AtomicInteger(size);
+        final CompletableFuture<Void> completion = new CompletableFuture<>();
+        final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            for (int i = 0; i < size; i++) {
+                if (_nodes[i].dependencies == 0) {
+                    submit(executor, _nodes, i, waiting, remaining, completion, _cmd, _facade, msg);
+                }
+            }
+            if (timeoutNanos > 0) {
+                completion.get(timeoutNanos, TimeUnit.NANOSECONDS);
+            } else {
+                completion.get();
+            }
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException rex) throw rex;
+            if (cause instanceof Error err) throw err;
+            throw new RuntimeException(cause);
+        } catch (TimeoutException ex) {
+            throw new RuntimeException(String.format("%s执行超时，超时时间%d毫秒", this.getClass(), TimeUnit.NANOSECONDS.toMillis(timeoutNanos)), ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(ex);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 提交子命令，完成后提交所有依赖已全部完成的子命令
+     */
+    private static void submit(ExecutorService executor, Node[] _nodes, int index, AtomicInteger[] waiting,
+                        AtomicInteger remaining, CompletableFuture<Void> completion,
+                        Object _cmd, Facade _facade, Message msg) {
+        if (completion.isDone()) return;
+        try {
+            executor.execute(() -> {
+                if (completion.isDone()) return;
+                Node node = _nodes[index];
+                try {
+                    node.execute(_cmd, _facade, msg);
+                } catch (Throwable ex) {
+                    completion.completeExceptionally(ex);
+                    executor.shutdownNow();
+                    return;
+                }
+                if (remaining.decrementAndGet() == 0) {
+                    completion.complete(null);
+                    return;
+                }
+                for (int dependent : node.dependents) {
+                    if (waiting[dependent].decrementAndGet() == 0) {
+                        submit(executor, _nodes, dependent, waiting, remaining, completion, _cmd, _facade, msg);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            if (!completion.isDone()) throw ex;
+        }
+    }
+
+}
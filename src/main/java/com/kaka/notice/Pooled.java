@@ -1,5 +1,6 @@
 package com.kaka.notice;
 
+import com.kaka.util.MpmcArrayQueue;
 import com.kaka.util.StringUtils;
 
 import java.util.Map;
@@ -8,18 +9,188 @@ import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
+/**
+ * 事件消息对象池
+ * <br>
+ * 系统属性msg_pool_capacity设置每种消息类型的对象池容量，默认1024；
+ * 系统属性msg_pool_strategy设置对象池实现策略：
+ * <ul>
+ *     <li>queue：默认策略，每种消息类型共用一个有界阻塞队列</li>
+ *     <li>striped：平台线程优先使用线程私有的小容量缓存，缓存为空或已满时与无锁共享仓库整组交换；虚拟线程仅访问共享队列，不会产生线程私有缓存。
+ *     线程私有缓存不计入对象池容量，每个平台线程最多额外缓存32个对象</li>
+ * </ul>
+ *
+ * @author zkpursuit
+ */
 public class Pooled {
 
     static int pool_capacity = 1024;
+    static String pool_strategy = "queue";
+    /**
+     * 线程私有缓存容量
+     */
+    static final int MAGAZINE_CAPACITY = 32;
 
     static {
         String v = System.getProperty("msg_pool_capacity");
         if (StringUtils.isInteger(v)) {
             pool_capacity = Integer.parseInt(v);
         }
+        String strategy = System.getProperty("msg_pool_strategy");
+        if (StringUtils.isNotEmpty(strategy)) {
+            pool_strategy = strategy.trim().toLowerCase();
+        }
+    }
+
+    static final Map<Class<? extends Message>, MessagePool> poolMap = new ConcurrentHashMap<>();
+
+    /**
+     * 单种消息类型的对象池
+     */
+    static abstract class MessagePool {
+
+        /**
+         * 取出闲置的消息对象
+         *
+         * @return 闲置的消息对象，无可用对象时返回null
+         */
+        abstract Message poll();
+
+        /**
+         * 放入闲置的消息对象，对象池已满时直接丢弃
+         *
+         * @param msg 消息对象
+         */
+        abstract void offer(Message msg);
+
+        /**
+         * 创建对象池
+         *
+         * @param strategy 对象池实现策略
+         * @param capacity 对象池容量
+         * @return 对象池
+         */
+        static MessagePool create(String strategy, int capacity) {
+            if ("striped".equals(strategy)) {
+                return new StripedMessagePool(capacity);
+            }
+            return new QueueMessagePool(capacity);
+        }
     }
 
-    static final Map<Class<? extends Message>, Queue<Message>> poolMap = new ConcurrentHashMap<>();
+    /**
+     * 基于有界阻塞队列的对象池
+     */
+    static final class QueueMessagePool extends MessagePool {
+        private final Queue<Message> queue;
+
+        QueueMessagePool(int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        @Override
+        Message poll() {
+            return queue.poll();
+        }
+
+        @Override
+        void offer(Message msg) {
+            queue.offer(msg);
+        }
+    }
+
+    /**
+     * 线程私有缓存加无锁共享仓库的对象池
+     * <br>
+     * 平台线程的获取与回收优先在线程私有缓存中完成，无任何同步开销；私有缓存已满或为空时，
+     * 以整个缓存数组为单位与共享仓库交换，一次CAS即转移{@link #MAGAZINE_CAPACITY}个对象。
+     * 虚拟线程数量庞大且生命周期短，为其建立私有缓存只会泄露对象，故直接访问逐个存取的共享队列，且全程无锁，不会钉住载体线程；
+     * 平台线程的私有缓存为空且仓库中无整组对象时亦从此队列获取，虚拟线程回收的对象可被平台线程复用。
+     * <br>
+     * 共享仓库与共享队列合计容量为对象池容量，线程私有缓存不计入其中，
+     * 故闲置对象总数最多为 对象池容量 + 使用过此对象池的平台线程数 × {@link #MAGAZINE_CAPACITY}
+     */
+    static final class StripedMessagePool extends MessagePool {
+
+        /**
+         * 线程私有缓存
+         */
+        private static final class Magazine {
+            Message[] items;
+            int size;
+
+            Magazine(int capacity) {
+                this.items = new Message[capacity];
+            }
+        }
+
+        private final int magazineCapacity;
+        /**
+         * 装满的缓存数组
+         */
+        private final MpmcArrayQueue<Message[]> fullMagazines;
+        /**
+         * 已清空的缓存数组，交换时复用，避免分配新数组
+         */
+        private final MpmcArrayQueue<Message[]> emptyMagazines;
+        /**
+         * 逐个存取的共享队列
+         */
+        private final MpmcArrayQueue<Message> loose;
+        private final ThreadLocal<Magazine> magazines;
+
+        StripedMessagePool(int capacity) {
+            capacity = Math.max(1, capacity);
+            final int magazineCapacity = Math.max(1, Math.min(MAGAZINE_CAPACITY, capacity));
+            this.magazineCapacity = magazineCapacity;
+            //一半容量以整组形式存放于仓库，其余逐个存放
+            int fullCount = Math.max(1, capacity / 2 / magazineCapacity);
+            this.fullMagazines = new MpmcArrayQueue<>(fullCount);
+            this.emptyMagazines = new MpmcArrayQueue<>(fullCount);
+            this.loose = new MpmcArrayQueue<>(Math.max(1, capacity - fullCount * magazineCapacity));
+            this.magazines = ThreadLocal.withInitial(() -> new Magazine(magazineCapacity));
+        }
+
+        @Override
+        Message poll() {
+            if (!Thread.currentThread().isVirtual()) {
+                Magazine magazine = magazines.get();
+                if (magazine.size == 0) {
+                    Message[] full = fullMagazines.poll();
+                    if (full == null) {
+                        return loose.poll();
+                    }
+                    emptyMagazines.offer(magazine.items);
+                    magazine.items = full;
+                    magazine.size = full.length;
+                }
+                int index = --magazine.size;
+                Message msg = magazine.items[index];
+                magazine.items[index] = null;
+                return msg;
+            }
+            return loose.poll();
+        }
+
+        @Override
+        void offer(Message msg) {
+            if (!Thread.currentThread().isVirtual()) {
+                Magazine magazine = magazines.get();
+                if (magazine.size == magazine.items.length) {
+                    if (!fullMagazines.offer(magazine.items)) {
+                        loose.offer(msg);
+                        return;
+                    }
+                    Message[] empty = emptyMagazines.poll();
+                    magazine.items = empty != null ? empty : new Message[magazineCapacity];
+                    magazine.size = 0;
+                }
+                magazine.items[magazine.size++] = msg;
+                return;
+            }
+            loose.offer(msg);
+        }
+    }
 
     /**
      * 获取池化的对象
@@ -30,7 +201,7 @@ public class Pooled {
      * @return 待池化的对象
      */
     public static <T extends Message> T message(Class<T> clazz, Supplier<T> builder) {
-        Queue<Message> pool = poolMap.computeIfAbsent(clazz, k -> new ArrayBlockingQueue<>(pool_capacity));
+        MessagePool pool = poolMap.computeIfAbsent(clazz, k -> MessagePool.create(pool_strategy, pool_capacity));
         Message msg = pool.poll();
         if (msg == null) {
             T _msg = builder.get();
@@ -49,7 +220,7 @@ public class Pooled {
     static void release(Message msg) {
         if (!msg.poolable) return;
         msg.poolable = false;
-        Queue<Message> pool = Pooled.poolMap.get(msg.getClass());
+        MessagePool pool = Pooled.poolMap.get(msg.getClass());
         if (pool == null) return;
         pool.offer(msg);
     }
@@ -0,0 +1,43 @@
+package com.kaka.notice;
+
+import java.util.List;
+
+/**
+ * 远端事件批量帧，将同一主题的多个{@link RemoteMessage}合并为一次发送
+ * <br>
+ * 由{@link RemoteMessagePostman}开启批量发送后自动创建，接收方的事件处理器收到后逐个拆分处理，
+ * {@link RemoteMessagePostman#sendRemoteMessage(RemoteMessage)}的实现无需区分
+ *
+ * @author zkpursuit
+ */
+public class RemoteMessageBatch extends RemoteMessage {
+
+    /**
+     * 构造方法
+     *
+     * @param what     接收远端事件或远端事件处理结果的逻辑处理器事件名
+     * @param messages 同一事件名的远端事件
+     */
+    protected RemoteMessageBatch(Object what, List<RemoteMessage> messages) {
+        super(what, null, messages);
+    }
+
+    /**
+     * 获取合并的远端事件
+     *
+     * @return 远端事件
+     */
+    public List<RemoteMessage> getMessages() {
+        return (List<RemoteMessage>) this.getBody();
+    }
+
+    /**
+     * 合并的远端事件数量
+     *
+     * @return 远端事件数量
+     */
+    public int size() {
+        return getMessages().size();
+    }
+
+}
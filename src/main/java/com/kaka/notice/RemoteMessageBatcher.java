@@ -0,0 +1,153 @@
+package com.kaka.notice;
+
+import com.kaka.util.LogHistogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 远端事件批量发送器
+ * <br>
+ * 调用方仅将远端事件放入按主题划分的无锁队列后立即返回，由独立的虚拟线程按数量或等待时间将同一主题的远端事件
+ * 合并为{@link RemoteMessageBatch}后调用{@link RemoteMessagePostman#sendRemoteMessage(RemoteMessage)}发送，
+ * 发送期间调用方可继续投递，实现流水线式发送。
+ * <br>
+ * 此类在类包外不可访问
+ *
+ * @author zkpursuit
+ */
+final class RemoteMessageBatcher {
+
+    private final RemoteMessagePostman postman;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final Map<Object, ConcurrentLinkedQueue<RemoteMessage>> queues = new ConcurrentHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Thread flusher;
+    private volatile boolean closed;
+
+    final LongAdder sentBatches = new LongAdder();
+    final LongAdder sentMessages = new LongAdder();
+    final LongAdder failedBatches = new LongAdder();
+    final LogHistogram batchSizes = new LogHistogram();
+    final LogHistogram publishNanos = new LogHistogram();
+
+    /**
+     * 构造方法
+     *
+     * @param postman      远端事件处理器
+     * @param maxBatchSize 单批最大远端事件数量
+     * @param lingerNanos  远端事件最长等待合并时间，单位纳秒
+     */
+    RemoteMessageBatcher(RemoteMessagePostman postman, int maxBatchSize, long lingerNanos) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize必须大于0");
+        }
+        if (lingerNanos <= 0) {
+            throw new IllegalArgumentException("linger必须大于0");
+        }
+        this.postman = postman;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerNanos = lingerNanos;
+        this.flusher = Thread.ofVirtual().name("remote-message-batcher").start(this::run);
+    }
+
+    /**
+     * 投递远端事件，不阻塞
+     *
+     * @param remoteMessage 远端事件
+     * @return false表示批量发送器已关闭，未投递
+     */
+    boolean offer(RemoteMessage remoteMessage) {
+        //先计数再检查关闭状态，关闭后发送线程在计数归零前不会退出
+        int count = pending.incrementAndGet();
+        if (closed) {
+            pending.decrementAndGet();
+            return false;
+        }
+        Object topic = remoteMessage.getWhat();
+        ConcurrentLinkedQueue<RemoteMessage> queue = queues.get(topic);
+        if (queue == null) {
+            queue = queues.computeIfAbsent(topic, k -> new ConcurrentLinkedQueue<>());
+        }
+        queue.offer(remoteMessage);
+        if (count >= maxBatchSize) {
+            LockSupport.unpark(flusher);
+        }
+        return true;
+    }
+
+    /**
+     * 待发送的远端事件数量
+     *
+     * @return 待发送数量
+     */
+    int pending() {
+        return pending.get();
+    }
+
+    private void run() {
+        while (!closed || pending.get() > 0) {
+            if (!closed && pending.get() < maxBatchSize) {
+                LockSupport.parkNanos(this, lingerNanos);
+            }
+            flush();
+        }
+    }
+
+    /**
+     * 发送所有队列中的远端事件，每批不超过{@link #maxBatchSize}
+     */
+    private void flush() {
+        for (Map.Entry<Object, ConcurrentLinkedQueue<RemoteMessage>> entry : queues.entrySet()) {
+            ConcurrentLinkedQueue<RemoteMessage> queue = entry.getValue();
+            while (!queue.isEmpty()) {
+                List<RemoteMessage> messages = new ArrayList<>(Math.min(maxBatchSize, pending.get()));
+                RemoteMessage remoteMessage;
+                while (messages.size() < maxBatchSize && (remoteMessage = queue.poll()) != null) {
+                    messages.add(remoteMessage);
+                }
+                if (messages.isEmpty()) break;
+                pending.addAndGet(-messages.size());
+                publish(entry.getKey(), messages);
+            }
+        }
+    }
+
+    private void publish(Object topic, List<RemoteMessage> messages) {
+        RemoteMessage frame = messages.size() == 1 ? messages.get(0) : new RemoteMessageBatch(topic, messages);
+        long start = System.nanoTime();
+        try {
+            postman.sendRemoteMessage(frame);
+        } catch (Throwable ex) {
+            failedBatches.increment();
+            Logger.getLogger(RemoteMessageBatcher.class.getName()).log(Level.SEVERE, "发送远端事件失败：" + topic, ex);
+            return;
+        } finally {
+            publishNanos.record(System.nanoTime() - start);
+        }
+        sentBatches.increment();
+        sentMessages.add(messages.size());
+        batchSizes.record(messages.size());
+    }
+
+    /**
+     * 关闭批量发送器，发送完所有已投递的远端事件后返回
+     *
+     * @throws InterruptedException 等待时被中断
+     */
+    void close() throws InterruptedException {
+        closed = true;
+        LockSupport.unpark(flusher);
+        flusher.join();
+    }
+
+}
@@ -0,0 +1,482 @@
+package com.kaka.notice;
+
+import com.kaka.util.JdkSerializer;
+import com.kaka.util.MpmcArrayQueue;
+import com.kaka.util.Serializer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 远端事件二进制编解码器，{@link RemoteMessagePostman}的默认序列化器
+ * <br>
+ * 每个值以一个类型标记字节开头：整数以ZigZag变长编码，字符串以变长长度加UTF-8字节编码，
+ * {@link Message}、{@link RemoteMessage}、{@link RemoteMessageBatch}及处理结果按字段直接编码，不经过Java序列化；
+ * 其它类型的值交由后备序列化器处理，默认为{@link JdkSerializer}。
+ * <br>
+ * 编码时写入池化的堆内{@link ByteBuffer}，{@link #encode(RemoteMessage)}返回的缓冲区使用后须调用{@link #release(ByteBuffer)}归还；
+ * {@link #decode(ByteBuffer)}直接从缓冲区读取，无需先复制为字节数组。
+ *
+ * @author zkpursuit
+ */
+public class RemoteMessageCodec implements Serializer<RemoteMessage> {
+
+    private static final byte VERSION = 1;
+
+    private static final byte T_NULL = 0;
+    private static final byte T_TRUE = 1;
+    private static final byte T_FALSE = 2;
+    private static final byte T_INT = 3;
+    private static final byte T_LONG = 4;
+    private static final byte T_SHORT = 5;
+    private static final byte T_BYTE = 6;
+    private static final byte T_CHAR = 7;
+    private static final byte T_FLOAT = 8;
+    private static final byte T_DOUBLE = 9;
+    private static final byte T_STRING = 10;
+    private static final byte T_BYTES = 11;
+    private static final byte T_MESSAGE = 12;
+    private static final byte T_REMOTE_MESSAGE = 13;
+    private static final byte T_REMOTE_BATCH = 14;
+    private static final byte T_OBJECT = 15;
+
+    private static final byte R_ASYN = 1;
+    private static final byte R_SYNC = 2;
+    private static final byte R_CALLBACK = 3;
+    private static final byte R_OBJECT = 4;
+
+    private final Serializer<Object> fallback;
+    private final MpmcArrayQueue<ByteBuffer> bufferPool;
+    private final int bufferSize;
+    private final int maxPooledBufferSize;
+
+    /**
+     * 构造方法
+     *
+     * @param fallback            无法直接编码的值的后备序列化器
+     * @param poolSize            缓冲区池大小，须大于0
+     * @param bufferSize          新建缓冲区的初始大小，须大于0，写满时按倍数扩容
+     * @param maxPooledBufferSize 可归还至池中的最大缓冲区大小，更大的缓冲区直接丢弃
+     * @throws IllegalArgumentException poolSize或bufferSize不大于0
+     */
+    public RemoteMessageCodec(Serializer<Object> fallback, int poolSize, int bufferSize, int maxPooledBufferSize) {
+        if (poolSize <= 0) {
+            throw new IllegalArgumentException("缓冲区池大小须大于0：" + poolSize);
+        }
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("缓冲区初始大小须大于0：" + bufferSize);
+        }
+        this.fallback = fallback;
+        this.bufferPool = new MpmcArrayQueue<>(poolSize);
+        this.bufferSize = bufferSize;
+        this.maxPooledBufferSize = maxPooledBufferSize;
+    }
+
+    /**
+     * 构造方法，以{@link JdkSerializer}为后备序列化器，缓冲区池大小64，初始缓冲区大小4KB，最大可归还缓冲区1MB
+     */
+    public RemoteMessageCodec() {
+        this(new JdkSerializer(), 64, 4096, 1 << 20);
+    }
+
+    /**
+     * 编码远端事件，返回的缓冲区已翻转为可读状态
+     *
+     * @param remoteMessage 远端事件，可为{@link RemoteMessageBatch}
+     * @return 池化的缓冲区，使用后须调用{@link #release(ByteBuffer)}归还
+     */
+    public ByteBuffer encode(RemoteMessage remoteMessage) {
+        ByteBuffer buf = bufferPool.poll();
+        if (buf == null) {
+            buf = ByteBuffer.allocate(bufferSize);
+        }
+        Output out = new Output(buf);
+        out.ensure(1);
+        out.buf.put(VERSION);
+        writeValue(out, remoteMessage);
+        return out.buf.flip();
+    }
+
+    /**
+     * 归还{@link #encode(RemoteMessage)}返回的缓冲区
+     *
+     * @param buf 缓冲区
+     */
+    public void release(ByteBuffer buf) {
+        if (buf == null || buf.capacity() > maxPooledBufferSize) return;
+        bufferPool.offer(buf.clear());
+    }
+
+    /**
+     * 从缓冲区的当前位置解码远端事件，解码后缓冲区位置移至远端事件之后
+     *
+     * @param buf 缓冲区
+     * @return 远端事件
+     */
+    public RemoteMessage decode(ByteBuffer buf) {
+        byte version = buf.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("不支持的远端事件编码版本：" + version);
+        }
+        Object value = readValue(buf);
+        if (!(value instanceof RemoteMessage)) {
+            throw new IllegalArgumentException("编码内容不是远端事件：" + value);
+        }
+        return (RemoteMessage) value;
+    }
+
+    @Override
+    public byte[] serialize(RemoteMessage remoteMessage) {
+        if (remoteMessage == null) return null;
+        ByteBuffer buf = encode(remoteMessage);
+        try {
+            byte[] bytes = new byte[buf.remaining()];
+            buf.get(bytes);
+            return bytes;
+        } finally {
+            release(buf);
+        }
+    }
+
+    @Override
+    public RemoteMessage deserialize(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) return null;
+        return decode(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * 可扩容的写入目标
+     */
+    private final class Output {
+        ByteBuffer buf;
+
+        Output(ByteBuffer buf) {
+            this.buf = buf;
+        }
+
+        void ensure(int bytes) {
+            if (buf.remaining() >= bytes) return;
+            int capacity = buf.capacity();
+            int required = buf.position() + bytes;
+            while (capacity < required) {
+                capacity = capacity << 1;
+                if (capacity <= 0) {
+                    //倍数扩容溢出时按所需大小扩容
+                    capacity = required;
+                    break;
+                }
+            }
+            ByteBuffer grown = ByteBuffer.allocate(capacity);
+            ByteBuffer old = buf.flip();
+            grown.put(old);
+            release(old);
+            buf = grown;
+        }
+    }
+
+    private static void writeVarInt(Output out, int value) {
+        out.ensure(5);
+        ByteBuffer buf = out.buf;
+        while ((value & ~0x7F) != 0) {
+            buf.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buf.put((byte) value);
+    }
+
+    private static void writeVarLong(Output out, long value) {
+        out.ensure(10);
+        ByteBuffer buf = out.buf;
+        while ((value & ~0x7FL) != 0) {
+            buf.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buf.put((byte) value);
+    }
+
+    private static int readVarInt(ByteBuffer buf) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buf.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IllegalArgumentException("变长整数格式错误");
+    }
+
+    private static long readVarLong(ByteBuffer buf) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buf.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IllegalArgumentException("变长整数格式错误");
+    }
+
+    private static void writeString(Output out, String str) {
+        final int length = str.length();
+        boolean ascii = true;
+        for (int i = 0; i < length; i++) {
+            if (str.charAt(i) >= 0x80) {
+                ascii = false;
+                break;
+            }
+        }
+        if (ascii) {
+            writeVarInt(out, length);
+            out.ensure(length);
+            ByteBuffer buf = out.buf;
+            for (int i = 0; i < length; i++) {
+                buf.put((byte) str.charAt(i));
+            }
+            return;
+        }
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.ensure(bytes.length);
+        out.buf.put(bytes);
+    }
+
+    /**
+     * 读取长度或元素数量，并校验缓冲区剩余字节是否足够，避免损坏的数据导致负数长度或超大内存分配
+     *
+     * @param buf 缓冲区
+     * @return 长度或元素数量
+     * @throws IllegalArgumentException 长度为负数或超出缓冲区剩余字节数
+     */
+    private static int readLength(ByteBuffer buf) {
+        int length = readVarInt(buf);
+        if (length < 0 || length > buf.remaining()) {
+            throw new IllegalArgumentException("长度无效：" + length + "，缓冲区剩余字节数：" + buf.remaining());
+        }
+        return length;
+    }
+
+    private static String readString(ByteBuffer buf) {
+        int length = readLength(buf);
+        String str;
+        if (buf.hasArray()) {
+            str = new String(buf.array(), buf.arrayOffset() + buf.position(), length, StandardCharsets.UTF_8);
+            buf.position(buf.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buf.get(bytes);
+            str = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return str;
+    }
+
+    private void writeValue(Output out, Object value) {
+        if (value == null) {
+            out.ensure(1);
+            out.buf.put(T_NULL);
+        } else if (value instanceof String str) {
+            out.ensure(1);
+            out.buf.put(T_STRING);
+            writeString(out, str);
+        } else if (value instanceof Integer i) {
+            out.ensure(1);
+            out.buf.put(T_INT);
+            writeVarInt(out, (i << 1) ^ (i >> 31));
+        } else if (value instanceof Long l) {
+            out.ensure(1);
+            out.buf.put(T_LONG);
+            writeVarLong(out, (l << 1) ^ (l >> 63));
+        } else if (value instanceof Boolean b) {
+            out.ensure(1);
+            out.buf.put(b ? T_TRUE : T_FALSE);
+        } else if (value instanceof Short s) {
+            out.ensure(3);
+            out.buf.put(T_SHORT).putShort(s);
+        } else if (value instanceof Byte b) {
+            out.ensure(2);
+            out.buf.put(T_BYTE).put(b);
+        } else if (value instanceof Character c) {
+            out.ensure(3);
+            out.buf.put(T_CHAR).putChar(c);
+        } else if (value instanceof Float f) {
+            out.ensure(5);
+            out.buf.put(T_FLOAT).putFloat(f);
+        } else if (value instanceof Double d) {
+            out.ensure(9);
+            out.buf.put(T_DOUBLE).putDouble(d);
+        } else if (value instanceof byte[] bytes) {
+            out.ensure(1);
+            out.buf.put(T_BYTES);
+            writeBytes(out, bytes);
+        } else if (value instanceof RemoteMessageBatch batch) {
+            out.ensure(1);
+            out.buf.put(T_REMOTE_BATCH);
+            writeValue(out, batch.getWhat());
+            List<RemoteMessage> messages = batch.getMessages();
+            writeVarInt(out, messages.size());
+            for (int i = 0; i < messages.size(); i++) {
+                writeValue(out, messages.get(i));
+            }
+        } else if (value.getClass() == RemoteMessage.class) {
+            RemoteMessage remoteMessage = (RemoteMessage) value;
+            out.ensure(1);
+            out.buf.put(T_REMOTE_MESSAGE);
+            writeValue(out, remoteMessage.getWhat());
+            writeValue(out, remoteMessage.id);
+            writeValue(out, remoteMessage.getBody());
+        } else if (value.getClass() == Message.class) {
+            Message msg = (Message) value;
+            out.ensure(1);
+            out.buf.put(T_MESSAGE);
+            writeValue(out, msg.getWhat());
+            writeValue(out, msg.getBody());
+            writeResults(out, msg);
+        } else {
+            out.ensure(1);
+            out.buf.put(T_OBJECT);
+            writeBytes(out, fallback.serialize(value));
+        }
+    }
+
+    private static void writeBytes(Output out, byte[] bytes) {
+        writeVarInt(out, bytes.length);
+        out.ensure(bytes.length);
+        out.buf.put(bytes);
+    }
+
+    private void writeResults(Output out, Message msg) {
+        Map<Object, IResult> map = msg.resultMap;
+        if (map == null || map.isEmpty()) {
+            writeVarInt(out, 0);
+            return;
+        }
+        Set<Map.Entry<Object, IResult>> entries = map.entrySet();
+        writeVarInt(out, entries.size());
+        for (Map.Entry<Object, IResult> entry : entries) {
+            writeValue(out, entry.getKey());
+            IResult result = entry.getValue();
+            if (result instanceof CallbackResult<?> callbackResult) {
+                out.ensure(1);
+                out.buf.put(R_CALLBACK);
+                writeValue(out, callbackResult.eventHandlerClass);
+                writeValue(out, callbackResult.get());
+            } else if (result instanceof AsynResult<?> asynResult) {
+                out.ensure(2);
+                out.buf.put(R_ASYN);
+                boolean done = asynResult._isDone();
+                out.buf.put(done ? T_TRUE : T_FALSE);
+                if (done) {
+                    writeValue(out, asynResult.result);
+                }
+            } else if (result != null && result.getClass() == SyncResult.class) {
+                out.ensure(1);
+                out.buf.put(R_SYNC);
+                writeValue(out, result.get());
+            } else {
+                out.ensure(1);
+                out.buf.put(R_OBJECT);
+                writeValue(out, result);
+            }
+        }
+    }
+
+    private Object readValue(ByteBuffer buf) {
+        byte type = buf.get();
+        switch (type) {
+            case T_NULL:
+                return null;
+            case T_TRUE:
+                return Boolean.TRUE;
+            case T_FALSE:
+                return Boolean.FALSE;
+            case T_INT: {
+                int n = readVarInt(buf);
+                return (n >>> 1) ^ -(n & 1);
+            }
+            case T_LONG: {
+                long n = readVarLong(buf);
+                return (n >>> 1) ^ -(n & 1);
+            }
+            case T_SHORT:
+                return buf.getShort();
+            case T_BYTE:
+                return buf.get();
+            case T_CHAR:
+                return buf.getChar();
+            case T_FLOAT:
+                return buf.getFloat();
+            case T_DOUBLE:
+                return buf.getDouble();
+            case T_STRING:
+                return readString(buf);
+            case T_BYTES:
+                return readBytes(buf);
+            case T_REMOTE_BATCH: {
+                Object what = readValue(buf);
+                //每个远端事件至少占1字节
+                int size = readLength(buf);
+                List<RemoteMessage> messages = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    messages.add((RemoteMessage) readValue(buf));
+                }
+                return new RemoteMessageBatch(what, messages);
+            }
+            case T_REMOTE_MESSAGE: {
+                Object what = readValue(buf);
+                String id = (String) readValue(buf);
+                Object body = readValue(buf);
+                return new RemoteMessage(what, id, body);
+            }
+            case T_MESSAGE: {
+                Message msg = new Message(readValue(buf), readValue(buf));
+                readResults(buf, msg);
+                return msg;
+            }
+            case T_OBJECT:
+                return fallback.deserialize(readBytes(buf));
+            default:
+                throw new IllegalArgumentException("未知的类型标记：" + type);
+        }
+    }
+
+    private static byte[] readBytes(ByteBuffer buf) {
+        byte[] bytes = new byte[readLength(buf)];
+        buf.get(bytes);
+        return bytes;
+    }
+
+    private void readResults(ByteBuffer buf, Message msg) {
+        int size = readLength(buf);
+        for (int i = 0; i < size; i++) {
+            Object key = readValue(buf);
+            byte kind = buf.get();
+            IResult result;
+            switch (kind) {
+                case R_CALLBACK: {
+                    String eventHandlerClass = (String) readValue(buf);
+                    result = new CallbackResult<>(readValue(buf), eventHandlerClass);
+                    break;
+                }
+                case R_ASYN: {
+                    RemoteAsynResult<Object> asynResult = new RemoteAsynResult<>();
+                    if (buf.get() == T_TRUE) {
+                        asynResult.set(readValue(buf));
+                    }
+                    result = asynResult;
+                    break;
+                }
+                case R_SYNC:
+                    result = new SyncResult<>(readValue(buf));
+                    break;
+                case R_OBJECT:
+                    result = (IResult) readValue(buf);
+                    break;
+                default:
+                    throw new IllegalArgumentException("未知的处理结果类型：" + kind);
+            }
+            msg._setResult(key, result);
+        }
+    }
+
+}
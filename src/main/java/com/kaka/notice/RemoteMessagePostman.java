@@ -1,8 +1,12 @@
 package com.kaka.notice;
 
+import com.kaka.util.LogHistogram;
+import com.kaka.util.Serializer;
 import com.kaka.util.StringUtils;
 
-import java.util.Map;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 远端事件处理器 <br>
@@ -15,8 +19,30 @@ abstract public class RemoteMessagePostman {
 
     protected Facade facade;
     protected final RemoteMessageCache remoteMessageCache;
+    protected final Serializer<RemoteMessage> remoteMessageSerializer;
     protected final String event_topic; //收到远端事件数据后处理事件
     protected final String event_result_topic; //收到远端事件处理后的结果给本地缓存的事件赋值处理结果
+    private volatile RemoteMessageBatcher batcher;
+    private final LongAdder receivedBatches = new LongAdder();
+    private final LongAdder receivedMessages = new LongAdder();
+
+    /**
+     * 远端事件批量发送统计数据
+     *
+     * @param sentBatches      已发送批次，单个远端事件不合并发送时亦计为一批
+     * @param sentMessages     已发送远端事件数量
+     * @param failedBatches    发送失败批次
+     * @param pending          待发送远端事件数量
+     * @param meanBatchSize    平均每批远端事件数量
+     * @param maxBatchSize     最大每批远端事件数量
+     * @param p99PublishNanos  99分位单批发送耗时，单位纳秒
+     * @param receivedBatches  已接收的{@link RemoteMessageBatch}数量
+     * @param receivedMessages 已接收的{@link RemoteMessageBatch}中的远端事件数量
+     */
+    public record BatchStatistics(long sentBatches, long sentMessages, long failedBatches, int pending,
+                                  long meanBatchSize, long maxBatchSize, long p99PublishNanos,
+                                  long receivedBatches, long receivedMessages) {
+    }
 
     /**
      * 处理远端事件
@@ -32,8 +58,21 @@ abstract public class RemoteMessagePostman {
 
         @Override
         public void handleMessage(Message msg) {
-            RemoteMessage remoteMessage = (RemoteMessage) msg;
-            String cmd = msg.getWhat().toString();
+            if (msg instanceof RemoteMessageBatch batch) {
+                //批量帧逐个拆分处理
+                List<RemoteMessage> messages = batch.getMessages();
+                this.postman.receivedBatches.increment();
+                this.postman.receivedMessages.add(messages.size());
+                for (int i = 0; i < messages.size(); i++) {
+                    this.handleRemoteMessage(messages.get(i));
+                }
+                return;
+            }
+            this.handleRemoteMessage((RemoteMessage) msg);
+        }
+
+        private void handleRemoteMessage(RemoteMessage remoteMessage) {
+            String cmd = remoteMessage.getWhat().toString();
             if (this.postman.event_topic.equals(cmd)) {
                 //接收远端事件并执行事件处理逻辑
                 String id = remoteMessage.id;
@@ -45,9 +84,9 @@ abstract public class RemoteMessagePostman {
                 }
                 Message remoteEventMessage = (Message) remoteMessage.getBody();
                 this.sendMessage(remoteEventMessage);
-                if (remoteEventMessage.resultMap != null && !remoteEventMessage.resultMap.isEmpty()) {
+                if (remoteEventMessage.hasResults()) {
                     remoteMessage.what = this.postman.event_result_topic;
-                    this.postman.sendRemoteMessage(remoteMessage);
+                    this.postman.postRemoteMessage(remoteMessage);
                 }
                 return;
             }
@@ -60,9 +99,7 @@ abstract public class RemoteMessagePostman {
                     this.sendMessage(new Message("remote_processed_message", remoteEventMessage));
                     return;
                 }
-                Map<Object, IResult> eventResultMap = remoteEventMessage.resultMap;
-                if (eventResultMap == null) return;
-                eventResultMap.forEach((Object key, IResult result) -> {
+                remoteEventMessage.forEachResult((Object key, IResult result) -> {
                     String keyStr = String.valueOf(key);
                     IResult localResult = localEventMessage.getResult(keyStr);
                     if (localResult instanceof AsynResult) {
@@ -89,6 +126,7 @@ abstract public class RemoteMessagePostman {
      */
     public RemoteMessagePostman(String event_topic, String event_result_topic) {
         this.remoteMessageCache = this.initRemoteMessageCache();
+        this.remoteMessageSerializer = this.initRemoteMessageSerializer();
         this.event_topic = event_topic;
         this.event_result_topic = event_result_topic;
     }
@@ -105,16 +143,100 @@ abstract public class RemoteMessagePostman {
 
     /**
      * 初始化事件消息处理器缓存
+     * <br>
+     * 默认为存活时间30秒、容量上限100000的{@link TimedRemoteMessageCache}，可重写此方法替换
      *
      * @return 事件消息处理器缓存
      */
-    abstract protected RemoteMessageCache initRemoteMessageCache();
+    protected RemoteMessageCache initRemoteMessageCache() {
+        return new TimedRemoteMessageCache();
+    }
+
+    /**
+     * 初始化远端事件序列化器，子类在{@link #sendRemoteMessage(RemoteMessage)}及消费远端事件时可直接使用
+     * <br>
+     * 默认为{@link RemoteMessageCodec}，可重写此方法替换
+     *
+     * @return 远端事件序列化器
+     */
+    protected Serializer<RemoteMessage> initRemoteMessageSerializer() {
+        return new RemoteMessageCodec();
+    }
 
     /**
      * 发送远端消息
+     * <br>
+     * 开启批量发送后由批量发送线程调用，参数可能为{@link RemoteMessageBatch}，按普通远端事件序列化发送即可
      *
      * @param remoteMessage 事件消息
      */
     protected abstract void sendRemoteMessage(RemoteMessage remoteMessage);
 
+    /**
+     * 开启批量发送
+     * <br>
+     * 开启后远端事件先放入队列，累积到maxBatchSize个或等待linger时间后合并为一个{@link RemoteMessageBatch}发送，
+     * 调用方不再等待消息队列的发送结果；接收方须同样使用此类的子类处理远端事件，以便拆分批量帧。
+     * 已开启时重复调用无效，并发调用时仅创建一个批量发送器
+     *
+     * @param maxBatchSize 单批最大远端事件数量
+     * @param linger       远端事件最长等待合并时间
+     * @param unit         时间单位
+     */
+    public void initBatching(int maxBatchSize, long linger, TimeUnit unit) {
+        if (this.batcher != null) {
+            return;
+        }
+        //批量发送器创建时即启动发送线程，须保证只创建一个
+        synchronized (this) {
+            if (this.batcher == null) {
+                this.batcher = new RemoteMessageBatcher(this, maxBatchSize, unit.toNanos(linger));
+            }
+        }
+    }
+
+    /**
+     * 关闭批量发送，发送完所有已投递的远端事件后返回，此后恢复为逐个发送；{@link Facade#dispose()}时自动调用
+     *
+     * @throws InterruptedException 等待时被中断
+     */
+    public void closeBatching() throws InterruptedException {
+        RemoteMessageBatcher _batcher;
+        synchronized (this) {
+            _batcher = this.batcher;
+            this.batcher = null;
+        }
+        if (_batcher != null) {
+            _batcher.close();
+        }
+    }
+
+    /**
+     * 获取批量发送统计数据
+     *
+     * @return 统计数据，未开启批量发送时发送相关数据均为0
+     */
+    public BatchStatistics batchStatistics() {
+        RemoteMessageBatcher _batcher = this.batcher;
+        if (_batcher == null) {
+            return new BatchStatistics(0, 0, 0, 0, 0, 0, 0, receivedBatches.sum(), receivedMessages.sum());
+        }
+        LogHistogram sizes = _batcher.batchSizes;
+        return new BatchStatistics(_batcher.sentBatches.sum(), _batcher.sentMessages.sum(), _batcher.failedBatches.sum(),
+                _batcher.pending(), sizes.mean(), sizes.max(), _batcher.publishNanos.percentile(99),
+                receivedBatches.sum(), receivedMessages.sum());
+    }
+
+    /**
+     * 投递远端消息，开启批量发送时放入批量发送队列，否则直接发送
+     *
+     * @param remoteMessage 事件消息
+     */
+    final void postRemoteMessage(RemoteMessage remoteMessage) {
+        RemoteMessageBatcher _batcher = this.batcher;
+        if (_batcher == null || !_batcher.offer(remoteMessage)) {
+            this.sendRemoteMessage(remoteMessage);
+        }
+    }
+
 }
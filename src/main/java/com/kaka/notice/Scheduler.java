@@ -1,8 +1,10 @@
 package com.kaka.notice;
 
+import com.kaka.util.TimingWheel;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 事件调度器
@@ -17,16 +19,22 @@ public class Scheduler implements Runnable {
     long endTime;
     long interval;
     int repeatCount;
-    AtomicInteger count;
-    AtomicLong prevExecTime; //执行次数尽可能的不受执行耗时影响
+    //以下两个字段仅由调度执行线程依次更新，前后两次执行之间由线程池或时间轮保证可见性，无需原子类
+    int count;
+    long prevExecTime; //执行次数尽可能的不受执行耗时影响
     String name;
+    Object cmd;
+    //以下为调度句柄，二者仅其一有效
+    private volatile ScheduledFuture<?> future;
+    private volatile TimingWheel.Timeout timeout;
+    private TimingWheel timingWheel;
+    private long delay;
+    private volatile boolean cancelled;
 
     /**
      * 私有构造方法，外部不允许实例化
      */
     private Scheduler() {
-        this.count = new AtomicInteger(0);
-        this.prevExecTime = new AtomicLong(0);
         this.repeatCount = 1;
         this.name = "";
         this.endTime = Long.MAX_VALUE;
@@ -40,7 +48,7 @@ public class Scheduler implements Runnable {
      */
     public static Scheduler create(String group) {
         Scheduler scheduler = new Scheduler();
-        scheduler.name = group;
+        scheduler.name = group == null ? "" : group;
         return scheduler;
     }
 
@@ -89,30 +97,86 @@ public class Scheduler implements Runnable {
         return this;
     }
 
+    /**
+     * 以线程池开始调度
+     *
+     * @param pool      定时调度线程池
+     * @param initDelay 首次执行延迟，单位毫秒
+     * @param delay     执行间隔，单位毫秒
+     */
+    void start(ScheduledExecutorService pool, long initDelay, long delay) {
+        this.future = pool.scheduleWithFixedDelay(this, initDelay, delay, TimeUnit.MILLISECONDS);
+        if (this.cancelled) {
+            this.future.cancel(true);
+        }
+    }
+
+    /**
+     * 以时间轮开始调度，每次执行完成后再添加下一次的定时任务
+     *
+     * @param timingWheel 时间轮
+     * @param initDelay   首次执行延迟，单位毫秒
+     * @param delay       执行间隔，单位毫秒
+     */
+    void start(TimingWheel timingWheel, long initDelay, long delay) {
+        this.timingWheel = timingWheel;
+        this.delay = delay;
+        this.schedule(initDelay);
+    }
+
+    /**
+     * 添加时间轮定时任务
+     *
+     * @param delay 延迟时间，单位毫秒
+     */
+    private void schedule(long delay) {
+        this.timeout = this.timingWheel.schedule(this, delay, TimeUnit.MILLISECONDS);
+        if (this.cancelled) {
+            this.timeout.cancel();
+        }
+    }
+
+    /**
+     * 终止调度
+     */
+    void cancel() {
+        this.cancelled = true;
+        ScheduledFuture<?> future = this.future;
+        if (future != null) {
+            future.cancel(true);
+        }
+        TimingWheel.Timeout timeout = this.timeout;
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
     /**
      * 调度器正式执行
      */
     @Override
     final public void run() {
         if (this.startTime > this.endTime) {
-            facade.cancelSchedule(name);
+            facade.cancelSchedule(this);
             return;
         }
-        long last = this.prevExecTime.addAndGet(this.interval);
+        long last = this.prevExecTime += this.interval;
         try {
             facade.sendMessage(msg);
         } catch (Exception ex) {
             msg.reset();
-            facade.cancelSchedule(name);
+            facade.cancelSchedule(this);
         }
-        int c = this.count.addAndGet(1);
+        int c = ++this.count;
         if (c >= this.repeatCount) {
             msg.reset();
-            facade.cancelSchedule(name);
+            facade.cancelSchedule(this);
         } else {
             if (last > this.endTime) {
                 msg.reset();
-                facade.cancelSchedule(name);
+                facade.cancelSchedule(this);
+            } else if (this.timingWheel != null && !this.cancelled) {
+                this.schedule(this.delay);
             }
         }
     }
@@ -121,8 +185,8 @@ public class Scheduler implements Runnable {
 //    public void reset() {
 //        this.facade = null;
 //        this.msg = null;
-//        this.count.set(0);
-//        this.prevExecTime.set(0);
+//        this.count = 0;
+//        this.prevExecTime = 0;
 //        this.repeatCount = 1;
 //        this.name = "";
 //        this.endTime = Long.MAX_VALUE;
@@ -0,0 +1,203 @@
+package com.kaka.notice;
+
+import com.kaka.util.TimingWheel;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 带过期时间及容量上限的事件消息本地缓存，为{@link RemoteMessagePostman#initRemoteMessageCache()}的默认实现
+ * <br>
+ * 事件消息存储于{@link ConcurrentHashMap}，读写无全局锁；每个事件消息在{@link TimingWheel}中登记一个过期任务，
+ * 超过存活时间仍未收到远端处理结果时移除，并以{@link java.util.concurrent.TimeoutException}完成其中尚未赋值的{@link AsynResult}，
+ * 避免未返回结果的事件消息永久驻留内存。
+ * <br>
+ * 缓存数量达到上限时不再缓存新的事件消息，新事件消息中的{@link AsynResult}立即以超时完成。
+ *
+ * @author zkpursuit
+ */
+public class TimedRemoteMessageCache implements RemoteMessageCache {
+
+    /**
+     * 默认存活时间，单位毫秒
+     */
+    public static final long DEFAULT_TTL_MILLIS = 30_000;
+    /**
+     * 默认容量上限
+     */
+    public static final int DEFAULT_MAX_SIZE = 100_000;
+
+    /**
+     * 未指定时间轮时共用的时间轮，过期任务在虚拟线程中执行，首次使用时创建
+     */
+    private static final class SharedWheel {
+        static final TimingWheel INSTANCE = new TimingWheel(10, TimeUnit.MILLISECONDS,
+                task -> Thread.ofVirtual().start(task), "remote-message-cache");
+    }
+
+    /**
+     * 缓存项
+     */
+    private final class Entry implements Runnable {
+        final String id;
+        final Message message;
+        volatile TimingWheel.Timeout timeout;
+
+        Entry(String id, Message message) {
+            this.id = id;
+            this.message = message;
+        }
+
+        @Override
+        public void run() {
+            if (map.remove(id, this)) {
+                size.decrementAndGet();
+                expiredCounter.increment();
+                expire(message);
+            }
+        }
+    }
+
+    /**
+     * 统计数据
+     *
+     * @param size     当前缓存数量
+     * @param added    累计缓存数量
+     * @param hits     收到远端处理结果时命中缓存的数量
+     * @param misses   收到远端处理结果时未命中缓存的数量
+     * @param expired  过期移除的数量
+     * @param overflow 因达到容量上限而未缓存的数量
+     */
+    public record Statistics(int size, long added, long hits, long misses, long expired, long overflow) {
+    }
+
+    private final Map<String, Entry> map = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final long ttlNanos;
+    private final int maxSize;
+    private final TimingWheel timingWheel;
+    private final LongAdder addedCounter = new LongAdder();
+    private final LongAdder hitCounter = new LongAdder();
+    private final LongAdder missCounter = new LongAdder();
+    private final LongAdder expiredCounter = new LongAdder();
+    private final LongAdder overflowCounter = new LongAdder();
+
+    /**
+     * 构造方法
+     *
+     * @param ttl         存活时间
+     * @param unit        存活时间单位
+     * @param maxSize     容量上限
+     * @param timingWheel 登记过期任务的时间轮，为null时使用共用的时间轮
+     */
+    public TimedRemoteMessageCache(long ttl, TimeUnit unit, int maxSize, TimingWheel timingWheel) {
+        if (ttl <= 0) {
+            throw new IllegalArgumentException("ttl必须大于0");
+        }
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize必须大于0");
+        }
+        this.ttlNanos = unit.toNanos(ttl);
+        this.maxSize = maxSize;
+        this.timingWheel = timingWheel;
+    }
+
+    /**
+     * 构造方法，使用共用的时间轮
+     *
+     * @param ttl     存活时间
+     * @param unit    存活时间单位
+     * @param maxSize 容量上限
+     */
+    public TimedRemoteMessageCache(long ttl, TimeUnit unit, int maxSize) {
+        this(ttl, unit, maxSize, null);
+    }
+
+    /**
+     * 构造方法，存活时间30秒，容量上限100000
+     */
+    public TimedRemoteMessageCache() {
+        this(DEFAULT_TTL_MILLIS, TimeUnit.MILLISECONDS, DEFAULT_MAX_SIZE);
+    }
+
+    private TimingWheel timingWheel() {
+        return timingWheel != null ? timingWheel : SharedWheel.INSTANCE;
+    }
+
+    @Override
+    public void add(String id, Message message) {
+        if (size.incrementAndGet() > maxSize) {
+            size.decrementAndGet();
+            overflowCounter.increment();
+            expire(message);
+            return;
+        }
+        Entry entry = new Entry(id, message);
+        Entry prev = map.put(id, entry);
+        if (prev != null) {
+            size.decrementAndGet();
+            if (prev.timeout != null) prev.timeout.cancel();
+        }
+        addedCounter.increment();
+        entry.timeout = timingWheel().schedule(entry, ttlNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public Message get(String id) {
+        Entry entry = map.get(id);
+        return entry == null ? null : entry.message;
+    }
+
+    @Override
+    public Message remove(String id) {
+        Entry entry = map.remove(id);
+        if (entry == null) {
+            missCounter.increment();
+            return null;
+        }
+        size.decrementAndGet();
+        hitCounter.increment();
+        TimingWheel.Timeout timeout = entry.timeout;
+        if (timeout != null) {
+            timeout.cancel();
+        }
+        return entry.message;
+    }
+
+    /**
+     * 当前缓存数量
+     *
+     * @return 缓存数量
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * 获取统计数据
+     *
+     * @return 统计数据
+     */
+    public Statistics statistics() {
+        return new Statistics(size.get(), addedCounter.sum(), hitCounter.sum(), missCounter.sum(),
+                expiredCounter.sum(), overflowCounter.sum());
+    }
+
+    /**
+     * 以超时完成事件消息中尚未赋值的{@link AsynResult}
+     *
+     * @param message 事件消息
+     */
+    private static void expire(Message message) {
+        if (!message.hasResults()) return;
+        message.forEachResult((key, result) -> {
+            if (result instanceof AsynResult<?> asynResult) {
+                asynResult.expire("Remote result timeout: " + key);
+            }
+        });
+    }
+
+}
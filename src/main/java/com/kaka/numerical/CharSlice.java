@@ -0,0 +1,226 @@
+package com.kaka.numerical;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 数据行中单元格内容的只读视图，不复制字符
+ * <br>
+ * 视图对象由分析器复用，仅在分析器设置下一行数据前有效，需保留内容时调用{@link #toString()}
+ *
+ * @author zkpursuit
+ */
+public final class CharSlice implements CharSequence {
+
+    private String source;
+    private char[] chars;
+    private byte[] bytes;
+    private int start;
+    private int end;
+
+    /**
+     * 重置为字符串的一段，并去除首尾空白字符
+     *
+     * @param source 字符串
+     * @param start  开始索引（包含）
+     * @param end    结束索引（不包含）
+     * @return 本视图
+     */
+    CharSlice reset(String source, int start, int end) {
+        while (start < end && source.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && source.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        this.source = source;
+        this.chars = null;
+        this.bytes = null;
+        this.start = start;
+        this.end = end;
+        return this;
+    }
+
+    /**
+     * 重置为字符数组的一段，并去除首尾空白字符
+     *
+     * @param chars 字符数组
+     * @param start 开始索引（包含）
+     * @param end   结束索引（不包含）
+     * @return 本视图
+     */
+    CharSlice reset(char[] chars, int start, int end) {
+        while (start < end && chars[start] <= ' ') {
+            start++;
+        }
+        while (end > start && chars[end - 1] <= ' ') {
+            end--;
+        }
+        this.source = null;
+        this.chars = chars;
+        this.bytes = null;
+        this.start = start;
+        this.end = end;
+        return this;
+    }
+
+    /**
+     * 重置为仅含ASCII字符的字节数组的一段，并去除首尾空白字符，每个字节即一个字符，无需解码
+     *
+     * @param bytes 字节数组
+     * @param start 开始索引（包含）
+     * @param end   结束索引（不包含）
+     * @return 本视图
+     */
+    CharSlice reset(byte[] bytes, int start, int end) {
+        while (start < end && bytes[start] <= ' ') {
+            start++;
+        }
+        while (end > start && bytes[end - 1] <= ' ') {
+            end--;
+        }
+        this.source = null;
+        this.chars = null;
+        this.bytes = bytes;
+        this.start = start;
+        this.end = end;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= end - start) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        if (chars != null) {
+            return chars[start + index];
+        }
+        if (bytes != null) {
+            return (char) bytes[start + index];
+        }
+        return source.charAt(start + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().subSequence(start, end);
+    }
+
+    /**
+     * 内容是否与字符串相同
+     *
+     * @param str        字符串
+     * @param ignoreCase 是否忽略大小写
+     * @return true表示相同
+     */
+    public boolean contentEquals(String str, boolean ignoreCase) {
+        int len = end - start;
+        if (str.length() != len) {
+            return false;
+        }
+        if (chars == null && bytes == null) {
+            return source.regionMatches(ignoreCase, start, str, 0, len);
+        }
+        for (int i = 0; i < len; i++) {
+            char c1 = chars != null ? chars[start + i] : (char) bytes[start + i];
+            char c2 = str.charAt(i);
+            if (c1 != c2 && (!ignoreCase || Character.toLowerCase(c1) != Character.toLowerCase(c2))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 将内容解析为十进制int，规则与{@link Integer#parseInt(CharSequence, int, int, int)}一致，
+     * 字节数组视图直接由字节解析数字
+     *
+     * @return int值
+     * @throws NumberFormatException 格式错误或超出范围
+     */
+    public int parseInt() {
+        if (bytes == null) {
+            return Integer.parseInt(this, 0, end - start, 10);
+        }
+        long value = parseAsciiLong(Integer.MIN_VALUE, Integer.MAX_VALUE);
+        return (int) value;
+    }
+
+    /**
+     * 将内容解析为十进制long，规则与{@link Long#parseLong(CharSequence, int, int, int)}一致，
+     * 字节数组视图直接由字节解析数字
+     *
+     * @return long值
+     * @throws NumberFormatException 格式错误或超出范围
+     */
+    public long parseLong() {
+        if (bytes == null) {
+            return Long.parseLong(this, 0, end - start, 10);
+        }
+        return parseAsciiLong(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * 由ASCII字节解析十进制整数，以负数累加避免最小值溢出
+     *
+     * @param min 最小值
+     * @param max 最大值
+     * @return 整数值
+     */
+    private long parseAsciiLong(long min, long max) {
+        final byte[] _bytes = this.bytes;
+        int i = start;
+        final int _end = end;
+        if (i == _end) {
+            throw numberFormat();
+        }
+        boolean negative = false;
+        long limit = -max;
+        byte first = _bytes[i];
+        if (first < '0') {
+            if (first == '-') {
+                negative = true;
+                limit = min;
+            } else if (first != '+') {
+                throw numberFormat();
+            }
+            if (++i == _end) {
+                throw numberFormat();
+            }
+        }
+        long multmin = limit / 10;
+        long result = 0;
+        while (i < _end) {
+            int digit = _bytes[i++] - '0';
+            if (digit < 0 || digit > 9 || result < multmin) {
+                throw numberFormat();
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                throw numberFormat();
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    private NumberFormatException numberFormat() {
+        return new NumberFormatException("For input string: \"" + this + "\"");
+    }
+
+    @Override
+    public String toString() {
+        if (chars != null) {
+            return new String(chars, start, end - start);
+        }
+        if (bytes != null) {
+            return new String(bytes, start, end - start, StandardCharsets.ISO_8859_1);
+        }
+        return source.substring(start, end);
+    }
+
+}
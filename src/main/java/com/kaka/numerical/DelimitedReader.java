@@ -0,0 +1,307 @@
+package com.kaka.numerical;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * 分隔符文本的流式读取器，逐行将单元格切分为复用字符缓冲区中的区间，不为每行生成字符串及字符串数组
+ * <br>
+ * 支持多字符分隔符、\n、\r\n及\r换行；以双引号开头的单元格为引用单元格，其中可包含分隔符及换行，
+ * 连续两个双引号表示一个双引号字符。与{@link String#split(String)}一致，每行末尾的空单元格被忽略。
+ * 字符流开头的字节顺序标记（BOM）被忽略，与{@link MappedDelimitedReader}一致。
+ * <br>
+ * 缓冲区仅需容纳当前行，内存占用与最长行而非文件大小相关。
+ * <br>
+ * 此类在类包外不可访问
+ *
+ * @author zkpursuit
+ */
+final class DelimitedReader implements IRowReader {
+
+    private static final char QUOTE = '"';
+    private static final char BOM = '\uFEFF';
+
+    private final Reader reader;
+    private final char[] delimiter;
+    private char[] buf;
+    /**
+     * 缓冲区中有效字符的结束索引（不包含）
+     */
+    private int limit;
+    /**
+     * 下一行的开始索引
+     */
+    private int pos;
+    private boolean eof;
+    /**
+     * 是否已检查字符流开头的字节顺序标记
+     */
+    private boolean bomChecked;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private int count;
+    private boolean blankLine;
+
+    /**
+     * 构造方法
+     *
+     * @param reader     字符流
+     * @param delimiter  单元格分隔符，按字面匹配
+     * @param bufferSize 缓冲区初始大小
+     */
+    DelimitedReader(Reader reader, String delimiter, int bufferSize) {
+        if (delimiter == null || delimiter.isEmpty()) {
+            throw new IllegalArgumentException("分隔符不能为空");
+        }
+        this.reader = reader;
+        this.delimiter = delimiter.toCharArray();
+        this.buf = new char[Math.max(bufferSize, 64)];
+    }
+
+    /**
+     * 构造方法，缓冲区初始大小为8192
+     *
+     * @param reader    字符流
+     * @param delimiter 单元格分隔符，按字面匹配
+     */
+    DelimitedReader(Reader reader, String delimiter) {
+        this(reader, delimiter, 8192);
+    }
+
+    /**
+     * 将{@link String#split(String)}所用的分隔符正则表达式转换为字面分隔符
+     *
+     * @param regex 分隔符正则表达式
+     * @return 字面分隔符，无法转换时返回null
+     */
+    static String literalOf(String regex) {
+        if (regex == null || regex.isEmpty()) {
+            return null;
+        }
+        if (regex.length() == 2 && regex.charAt(0) == '\\') {
+            char ch = regex.charAt(1);
+            if (ch == 't') return "\t";
+            if (!Character.isLetterOrDigit(ch)) return String.valueOf(ch);
+            return null;
+        }
+        for (int i = 0; i < regex.length(); i++) {
+            if (".$|()[]{}^?*+\\".indexOf(regex.charAt(i)) >= 0) {
+                return null;
+            }
+        }
+        return regex;
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        final char[] delim = this.delimiter;
+        final char d0 = delim[0];
+        final int dlen = delim.length;
+        if (!bomChecked) {
+            bomChecked = true;
+            ensure(pos, 1);
+            if (pos < limit && buf[pos] == BOM) {
+                pos++;
+            }
+        }
+        //读取期间pos为当前行的开始索引，缓冲区前移时r、w、cellStart同步前移
+        int r = pos;
+        int w = r;
+        int cellStart = r;
+        boolean inQuote = false;
+        count = 0;
+        int shift = ensure(r, 1);
+        r -= shift;
+        w -= shift;
+        cellStart -= shift;
+        if (r == limit) {
+            return false;
+        }
+        if (buf[r] == QUOTE) {
+            inQuote = true;
+            r++;
+        }
+        while (true) {
+            if (r == limit) {
+                shift = ensure(r, 1);
+                r -= shift;
+                w -= shift;
+                cellStart -= shift;
+                if (r == limit) {
+                    //文件结束且最后一行无换行符
+                    addCell(cellStart, w);
+                    blankLine = false;
+                    pos = r;
+                    endRow();
+                    return true;
+                }
+            }
+            final char[] _buf = this.buf;
+            char c = _buf[r];
+            if (inQuote) {
+                if (c == QUOTE) {
+                    shift = ensure(r, 2);
+                    r -= shift;
+                    w -= shift;
+                    cellStart -= shift;
+                    if (r + 1 < limit && buf[r + 1] == QUOTE) {
+                        buf[w++] = QUOTE;
+                        r += 2;
+                    } else {
+                        inQuote = false;
+                        r++;
+                    }
+                } else {
+                    _buf[w++] = c;
+                    r++;
+                }
+            } else if (c == '\n' || c == '\r') {
+                addCell(cellStart, w);
+                blankLine = r == pos;
+                r++;
+                if (c == '\r') {
+                    r -= ensure(r, 1);
+                    if (r < limit && buf[r] == '\n') {
+                        r++;
+                    }
+                }
+                pos = r;
+                endRow();
+                return true;
+            } else if (c == d0) {
+                if (dlen > 1) {
+                    shift = ensure(r, dlen);
+                    r -= shift;
+                    w -= shift;
+                    cellStart -= shift;
+                }
+                if (dlen == 1 || matchDelimiter(r)) {
+                    addCell(cellStart, w);
+                    r += dlen;
+                    shift = ensure(r, 1);
+                    r -= shift;
+                    cellStart = w = r;
+                    if (r < limit && buf[r] == QUOTE) {
+                        inQuote = true;
+                        r++;
+                    }
+                } else {
+                    buf[w++] = c;
+                    r++;
+                }
+            } else {
+                _buf[w++] = c;
+                r++;
+            }
+        }
+    }
+
+    private boolean matchDelimiter(int r) {
+        final char[] delim = this.delimiter;
+        if (limit - r < delim.length) {
+            return false;
+        }
+        for (int i = 1; i < delim.length; i++) {
+            if (buf[r + i] != delim[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 确保缓冲区中自r起至少有n个字符，文件结束时可能不足
+     *
+     * @param r 索引
+     * @param n 字符数
+     * @return 缓冲区前移的字符数
+     * @throws IOException 读取异常
+     */
+    private int ensure(int r, int n) throws IOException {
+        int shift = 0;
+        while (limit - (r - shift) < n && !eof) {
+            shift += fill();
+        }
+        return shift;
+    }
+
+    /**
+     * 将当前行移至缓冲区头部并读取更多字符，缓冲区已满时扩容
+     *
+     * @return 缓冲区前移的字符数
+     * @throws IOException 读取异常
+     */
+    private int fill() throws IOException {
+        int shift = pos;
+        if (shift > 0) {
+            System.arraycopy(buf, shift, buf, 0, limit - shift);
+            limit -= shift;
+            pos = 0;
+            for (int i = 0; i < count; i++) {
+                starts[i] -= shift;
+                ends[i] -= shift;
+            }
+        }
+        if (limit == buf.length) {
+            char[] newBuf = new char[buf.length << 1];
+            System.arraycopy(buf, 0, newBuf, 0, limit);
+            buf = newBuf;
+        }
+        int n = reader.read(buf, limit, buf.length - limit);
+        if (n < 0) {
+            eof = true;
+        } else {
+            limit += n;
+        }
+        return shift;
+    }
+
+    private void addCell(int start, int end) {
+        if (count == starts.length) {
+            int newLen = count << 1;
+            int[] newStarts = new int[newLen];
+            int[] newEnds = new int[newLen];
+            System.arraycopy(starts, 0, newStarts, 0, count);
+            System.arraycopy(ends, 0, newEnds, 0, count);
+            starts = newStarts;
+            ends = newEnds;
+        }
+        starts[count] = start;
+        ends[count] = end;
+        count++;
+    }
+
+    /**
+     * 与{@link String#split(String)}一致，忽略行末尾的空单元格
+     */
+    private void endRow() {
+        while (count > 0 && starts[count - 1] == ends[count - 1]) {
+            count--;
+        }
+    }
+
+    @Override
+    public boolean isBlankLine() {
+        return blankLine;
+    }
+
+    @Override
+    public String[] toArray() {
+        String[] cells = new String[count];
+        for (int i = 0; i < count; i++) {
+            cells[i] = new String(buf, starts[i], ends[i] - starts[i]);
+        }
+        return cells;
+    }
+
+    @Override
+    public void applyTo(TextAnalyzer analyzer) {
+        analyzer.setSourceData(buf, starts, ends, count);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+}
@@ -0,0 +1,440 @@
+package com.kaka.numerical;
+
+import com.kaka.numerical.NumericField.BiConverter;
+import com.kaka.numerical.NumericField.Converter;
+import com.kaka.util.ArrayUtils;
+import com.kaka.util.MethodAccessor;
+import com.kaka.util.ReflectUtils;
+import com.kaka.util.TypeUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 数值配置类的字段绑定器，每个配置类仅编译一次
+ * <br>
+ * 编译时缓存需赋值的字段、字段的{@link MethodHandle}读写器、{@link NumericField}中已规整的列名及单例的字段转换器，
+ * 解析每行数据时仅按顺序遍历字段绑定项，不再反射查找字段及注解、不再创建字段转换器。
+ * <br>
+ * 分析器支持按索引读取时（{@link IAnalyzer#getTitleIndexes()}），列名在每个数据源中仅解析一次为列索引；
+ * 无字段转换器的int、long、double、boolean字段直接由单元格视图解析，不生成中间字符串。
+ * <br>
+ * 字段转换器在同一配置类的所有数据行及所有线程间共用，须为无状态对象。
+ * <br>
+ * 此类在类包外不可访问
+ *
+ * @param <T> 配置类类型
+ * @author zkpursuit
+ */
+final class FieldBinder<T> {
+
+    private static final ClassValue<FieldBinder<?>> BINDERS = new ClassValue<>() {
+        @Override
+        protected FieldBinder<?> computeValue(Class<?> type) {
+            return new FieldBinder<>(type);
+        }
+    };
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final int[] NO_INDEX = {-1};
+
+    /**
+     * 字段类型：普通字段
+     */
+    private static final int KIND_SINGLE = 0;
+    /**
+     * 字段类型：集合
+     */
+    private static final int KIND_COLLECTION = 1;
+    /**
+     * 字段类型：Map
+     */
+    private static final int KIND_MAP = 2;
+
+    /**
+     * 列名映射及按其解析的各字段列索引
+     *
+     * @param titleIndexes 分析器的列名映射
+     * @param indexes      各字段绑定项的列索引，未匹配的列名为-1
+     */
+    private record Columns(Map<String, Integer> titleIndexes, int[][] indexes) {
+    }
+
+    /**
+     * 单个字段的绑定项
+     */
+    private static final class Binding {
+        final Field field;
+        final Class<?> type;
+        final MethodHandle setter;
+        final MethodHandle getter;
+        /**
+         * 以基本类型写入的写入器，仅用于无字段转换器的int、long、double、boolean字段
+         */
+        final MethodHandle primitiveSetter;
+        /**
+         * 无{@link NumericField}注解的字段，赋值异常包装为{@link IllegalArgumentException}
+         */
+        final boolean plain;
+        /**
+         * 已规整的列名
+         */
+        final String[] titles;
+        final Converter<?> converter;
+        final BiConverter<?> biConverter;
+        final int kind;
+        /**
+         * 集合字段为null时的创建函数
+         */
+        final Supplier<Object> collectionFactory;
+
+        Binding(Field field) {
+            this.field = field;
+            this.type = field.getType();
+            MethodHandle[] accessors = accessorsOf(field);
+            this.setter = accessors[0];
+            this.getter = accessors[1];
+            NumericField att = field.getAnnotation(NumericField.class);
+            this.plain = att == null;
+            if (att == null) {
+                this.titles = new String[]{field.getName()};
+                this.converter = null;
+                this.biConverter = null;
+            } else {
+                String[] elements = att.elements();
+                Class<? extends FieldConverter> converterClass = att.converter();
+                FieldConverter fieldConverter = converterClass == FieldConverter.class ? null : MethodAccessor.newInstance(converterClass);
+                this.titles = new String[elements.length];
+                for (int i = 0; i < elements.length; i++) {
+                    this.titles[i] = fieldConverter == null ? elements[i].trim().replace(" ", "") : elements[i].trim();
+                }
+                this.biConverter = fieldConverter instanceof BiConverter<?> bi ? bi : null;
+                this.converter = fieldConverter instanceof Converter<?> si && biConverter == null ? si : null;
+            }
+            if (converter != null && Collection.class.isAssignableFrom(type)) {
+                this.kind = KIND_COLLECTION;
+                this.collectionFactory = collectionFactoryOf(type);
+            } else if (converter != null && Map.class.isAssignableFrom(type)) {
+                this.kind = KIND_MAP;
+                this.collectionFactory = null;
+            } else {
+                this.kind = KIND_SINGLE;
+                this.collectionFactory = null;
+            }
+            boolean simple = converter == null && biConverter == null && setter != null;
+            this.primitiveSetter = simple && (type == int.class || type == long.class || type == double.class || type == boolean.class)
+                    ? setter.asType(MethodType.methodType(void.class, Object.class, type)) : null;
+        }
+
+        /**
+         * 由单元格视图为基本类型字段赋值，空内容或null文本时不赋值，与{@link TypeUtils#cast(Object, Class)}规则一致
+         *
+         * @param object 配置类实例
+         * @param cell   单元格内容
+         * @throws Throwable 赋值异常
+         */
+        void setPrimitive(Object object, CharSequence cell) throws Throwable {
+            if (cell == null || cell.isEmpty() || isNullText(cell)) {
+                return;
+            }
+            if (type == int.class) {
+                int value = cell instanceof CharSlice slice ? slice.parseInt() : Integer.parseInt(cell, 0, cell.length(), 10);
+                primitiveSetter.invokeExact(object, value);
+            } else if (type == long.class) {
+                long value;
+                try {
+                    value = cell instanceof CharSlice slice ? slice.parseLong() : Long.parseLong(cell, 0, cell.length(), 10);
+                } catch (NumberFormatException ex) {
+                    throw new ClassCastException("can not cast to long, value : " + cell);
+                }
+                primitiveSetter.invokeExact(object, value);
+            } else if (type == double.class) {
+                primitiveSetter.invokeExact(object, Double.parseDouble(cell.toString()));
+            } else {
+                boolean value;
+                if (contentEquals(cell, "true", true) || contentEquals(cell, "1", false)) {
+                    value = true;
+                } else if (contentEquals(cell, "false", true) || contentEquals(cell, "0", false)) {
+                    value = false;
+                } else {
+                    throw new ClassCastException("can not cast to boolean, value : " + cell);
+                }
+                primitiveSetter.invokeExact(object, value);
+            }
+        }
+
+        void set(Object object, Object value) throws Throwable {
+            if (setter == null) {
+                ReflectUtils.setFieldValue(object, field, value);
+                return;
+            }
+            Object newValue = TypeUtils.cast(value, type);
+            if (newValue == null && type.isPrimitive()) {
+                return;
+            }
+            setter.invokeExact(object, newValue);
+        }
+
+        Object get(Object object) throws Throwable {
+            if (getter == null) {
+                return ReflectUtils.getFieldValue(object, field);
+            }
+            return (Object) getter.invokeExact(object);
+        }
+    }
+
+    /**
+     * 获取字段的读写器，静态字段或无法访问的字段返回null，以反射方式读写
+     *
+     * @param field 字段
+     * @return 依次为写、读
+     */
+    private static MethodHandle[] accessorsOf(Field field) {
+        if (Modifier.isStatic(field.getModifiers())) {
+            return new MethodHandle[2];
+        }
+        try {
+            field.setAccessible(true);
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle setter = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+            MethodHandle getter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+            return new MethodHandle[]{setter, getter};
+        } catch (RuntimeException | IllegalAccessException ex) {
+            return new MethodHandle[2];
+        }
+    }
+
+    private static boolean isNullText(CharSequence cell) {
+        return contentEquals(cell, "null", false) || contentEquals(cell, "NULL", false);
+    }
+
+    private static boolean contentEquals(CharSequence cell, String str, boolean ignoreCase) {
+        if (cell instanceof CharSlice slice) {
+            return slice.contentEquals(str, ignoreCase);
+        }
+        if (cell.length() != str.length()) {
+            return false;
+        }
+        return ignoreCase ? str.equalsIgnoreCase(cell.toString()) : str.contentEquals(cell);
+    }
+
+    private static Supplier<Object> collectionFactoryOf(Class<?> type) {
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            if (java.util.SortedSet.class.isAssignableFrom(type)) {
+                return java.util.TreeSet::new;
+            } else if (java.util.LinkedHashSet.class.isAssignableFrom(type)) {
+                return java.util.LinkedHashSet::new;
+            } else if (java.util.Set.class.isAssignableFrom(type)) {
+                return java.util.HashSet::new;
+            } else if (java.util.Stack.class.isAssignableFrom(type)) {
+                return java.util.Stack::new;
+            } else if (java.util.LinkedList.class.isAssignableFrom(type)) {
+                return java.util.LinkedList::new;
+            } else if (java.util.Queue.class.isAssignableFrom(type)) {
+                return java.util.LinkedList::new;
+            }
+            return java.util.ArrayList::new;
+        }
+        return () -> MethodAccessor.newInstance(type);
+    }
+
+    /**
+     * 获取配置类的字段绑定器，首次获取时编译
+     *
+     * @param infoClass 配置类
+     * @param <T>       配置类类型
+     * @return 字段绑定器
+     */
+    static <T> FieldBinder<T> of(Class<T> infoClass) {
+        return (FieldBinder<T>) BINDERS.get(infoClass);
+    }
+
+    private final Class<T> infoClass;
+    private final Field[] fields;
+    private final Binding[] bindings;
+    /**
+     * 最近一次解析的列索引，数据源的列名映射变更时重新解析
+     */
+    private volatile Columns columns;
+
+    private FieldBinder(Class<T> infoClass) {
+        this.infoClass = infoClass;
+        List<Field> list = new ArrayList<>();
+        for (Field field : ReflectUtils.getDeclaredFields(infoClass)) {
+            int modifier = field.getModifiers();
+            if (Modifier.isStatic(modifier) && Modifier.isFinal(modifier)) {
+                continue;
+            }
+            list.add(field);
+        }
+        this.fields = list.toArray(new Field[0]);
+        this.bindings = new Binding[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            this.bindings[i] = new Binding(fields[i]);
+        }
+    }
+
+    /**
+     * 需赋值的字段，已排除静态常量
+     *
+     * @return 字段
+     */
+    Field[] fields() {
+        return fields;
+    }
+
+    /**
+     * 创建配置类实例并为所有字段赋值
+     *
+     * @param analyzer 字段内容分析处理器
+     * @return 配置类实例
+     * @throws Exception 解析异常
+     */
+    T bind(IAnalyzer<?> analyzer) throws Exception {
+        T object = MethodAccessor.newInstance(infoClass);
+        final Binding[] _bindings = this.bindings;
+        final int[][] indexes = columnsOf(analyzer);
+        for (int i = 0; i < _bindings.length; i++) {
+            try {
+                bind(object, _bindings[i], analyzer, indexes == null ? null : indexes[i]);
+            } catch (Exception | Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new RuntimeException(ex);
+            }
+        }
+        return object;
+    }
+
+    /**
+     * 获取分析器当前数据源中各字段的列索引
+     *
+     * @param analyzer 字段内容分析处理器
+     * @return 各字段绑定项的列索引，分析器不支持按索引读取时返回null
+     */
+    private int[][] columnsOf(IAnalyzer<?> analyzer) {
+        Map<String, Integer> titleIndexes = analyzer.getTitleIndexes();
+        if (titleIndexes == null) {
+            return null;
+        }
+        Columns _columns = this.columns;
+        if (_columns == null || _columns.titleIndexes() != titleIndexes) {
+            int[][] indexes = new int[bindings.length][];
+            for (int i = 0; i < bindings.length; i++) {
+                String[] titles = bindings[i].titles;
+                int[] idxes = titles.length == 0 ? NO_INDEX : new int[titles.length];
+                for (int j = 0; j < titles.length; j++) {
+                    Integer index = titleIndexes.get(titles[j]);
+                    idxes[j] = index == null ? -1 : index;
+                }
+                indexes[i] = idxes;
+            }
+            _columns = new Columns(titleIndexes, indexes);
+            this.columns = _columns;
+        }
+        return _columns.indexes();
+    }
+
+    /**
+     * 读取单元格内容
+     *
+     * @param analyzer 字段内容分析处理器
+     * @param titles   列名
+     * @param indexes  列索引，为null时按列名读取
+     * @param i        列名及列索引的下标
+     * @return 单元格内容
+     */
+    private static String contentOf(IAnalyzer<?> analyzer, String[] titles, int[] indexes, int i) {
+        if (indexes == null) {
+            return analyzer.getContent(titles[i]);
+        }
+        int index = indexes[i];
+        if (index < 0) {
+            return null;
+        }
+        CharSequence cell = analyzer.getContent(index);
+        return cell == null ? null : cell.toString();
+    }
+
+    private static void bind(Object object, Binding binding, IAnalyzer<?> analyzer, int[] indexes) throws Throwable {
+        final String[] titles = binding.titles;
+        if (binding.biConverter == null && binding.converter == null) {
+            try {
+                if (indexes != null && binding.primitiveSetter != null) {
+                    int index = indexes[0];
+                    binding.setPrimitive(object, index < 0 ? null : analyzer.getContent(index));
+                } else {
+                    binding.set(object, contentOf(analyzer, titles, indexes, 0));
+                }
+            } catch (Exception ex) {
+                if (binding.plain) {
+                    throw new IllegalArgumentException(ex);
+                }
+                throw ex;
+            }
+            return;
+        }
+        if (binding.biConverter != null) {
+            Object fieldValue = binding.get(object);
+            Class<?> fieldClass = binding.type;
+            for (int i = 0; i < titles.length; i++) {
+                String value = contentOf(analyzer, titles, indexes, i);
+                Object resultValue = binding.biConverter.convert(titles[i], value, i, titles.length, object, binding.field);
+                if (fieldValue == null && resultValue != null && (resultValue.getClass() == fieldClass || fieldClass.isAssignableFrom(resultValue.getClass()))) {
+                    binding.set(object, resultValue);
+                    fieldValue = resultValue;
+                }
+            }
+            return;
+        }
+        final Converter<?> converter = binding.converter;
+        Object fieldValue = binding.get(object);
+        if (binding.kind == KIND_COLLECTION && fieldValue == null) {
+            fieldValue = binding.collectionFactory.get();
+            binding.set(object, fieldValue);
+        }
+        for (int t = 0; t < titles.length; t++) {
+            String value = contentOf(analyzer, titles, indexes, t);
+            Object resultValue = converter.convert(value);
+            if (binding.kind == KIND_COLLECTION) {
+                if (resultValue != null && fieldValue != null) {
+                    Collection<Object> collection = (Collection<Object>) fieldValue;
+                    if (resultValue.getClass().isArray()) {
+                        int len = ArrayUtils.getLength(resultValue);
+                        for (int i = 0; i < len; i++) {
+                            Object arrVal = ArrayUtils.get(resultValue, i);
+                            if (arrVal != null) {
+                                collection.add(arrVal);
+                            }
+                        }
+                    } else {
+                        collection.add(resultValue);
+                    }
+                }
+            } else if (binding.kind == KIND_MAP) {
+                if (resultValue != null) {
+                    if (fieldValue == null) {
+                        binding.set(object, resultValue);
+                        fieldValue = resultValue;
+                    } else {
+                        ((Map) fieldValue).putAll((Map) resultValue);
+                    }
+                }
+            } else {
+                if (resultValue != null) {
+                    binding.set(object, resultValue);
+                }
+                break;
+            }
+        }
+    }
+
+}
@@ -1,5 +1,7 @@
 package com.kaka.numerical;
 
+import java.util.Map;
+
 /**
  * 数据单元分析匹配
  *
@@ -23,4 +25,26 @@ public interface IAnalyzer<V> {
      */
     String getContent(String title);
 
+    /**
+     * 数据单元名与数据单元索引的映射，同一数据源（如同一文件）的映射对象不变，
+     * 解析器据此一次性将数据单元名解析为索引，后续按{@link #getContent(int)}读取
+     *
+     * @return 不可修改的映射，返回null表示不支持按索引读取
+     */
+    default Map<String, Integer> getTitleIndexes() {
+        return null;
+    }
+
+    /**
+     * 根据数据单元索引查找数据单元内容，返回值可能为复用的视图，仅在设置下一个源数据前有效
+     * <br>
+     * 默认实现与{@link #getTitleIndexes()}的默认实现对应，不支持按索引读取，始终返回null
+     *
+     * @param index 数据单元索引
+     * @return 数据单元内容，索引超出当前源数据范围或不支持按索引读取时返回null
+     */
+    default CharSequence getContent(int index) {
+        return null;
+    }
+
 }
@@ -0,0 +1,44 @@
+package com.kaka.numerical;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * 分隔符文本的逐行读取器，单元格内容保留在读取器的缓冲区中，由{@link TextAnalyzer}直接读取
+ * <br>
+ * 此接口在类包外不可访问
+ *
+ * @author zkpursuit
+ */
+interface IRowReader extends Closeable {
+
+    /**
+     * 读取下一行，之前行的单元格随即失效
+     *
+     * @return false表示已无数据
+     * @throws IOException 读取异常
+     */
+    boolean next() throws IOException;
+
+    /**
+     * 当前行是否为空行（不含任何字符）
+     *
+     * @return true表示空行
+     */
+    boolean isBlankLine();
+
+    /**
+     * 将当前行的单元格生成字符串数组
+     *
+     * @return 字符串数组
+     */
+    String[] toArray();
+
+    /**
+     * 将当前行设置为分析器的源数据
+     *
+     * @param analyzer 分析器
+     */
+    void applyTo(TextAnalyzer analyzer);
+
+}
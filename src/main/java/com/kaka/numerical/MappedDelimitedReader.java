@@ -0,0 +1,349 @@
+package com.kaka.numerical;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * UTF-8分隔符文本的内存映射读取器，以{@link FileChannel#map(FileChannel.MapMode, long, long)}映射整个文件，
+ * 直接在字节上切分单元格，不将文件解码为字符
+ * <br>
+ * UTF-8中多字节字符的各字节均不小于0x80，不会与ASCII换行符、双引号及分隔符的字节混淆，故可逐字节切分。
+ * 映射区按64KB批量复制至复用的字节窗口后逐字节切分，仅含ASCII字符的单元格以字节视图交由分析器读取，数字列直接由字节解析；
+ * 含非ASCII字符或双引号引用的单元格在读取时由字节窗口直接解码。
+ * 换行、双引号引用及行末空单元格的规则与{@link DelimitedReader}一致。
+ * <br>
+ * 文件内容位于操作系统页缓存而非Java堆中，堆内仅保留字节窗口，窗口大小与最长行相关；单个文件不可超过2GB。
+ * <br>
+ * 此类在类包外不可访问
+ *
+ * @author zkpursuit
+ */
+final class MappedDelimitedReader implements IRowReader {
+
+    /**
+     * 单元格标记：含非ASCII字符
+     */
+    static final byte NON_ASCII = 1;
+    /**
+     * 单元格标记：以双引号引用
+     */
+    static final byte QUOTED = 2;
+
+    private static final byte QUOTE = '"';
+    private static final byte[] UTF8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    /**
+     * 每次由映射区批量复制的字节数
+     */
+    private static final int WINDOW_SIZE = 64 * 1024;
+
+    private final ByteBuffer buf;
+    private final byte[] delimiter;
+    /**
+     * 映射区中下一次复制的开始索引
+     */
+    private int mappedPos;
+    /**
+     * 由映射区批量复制的字节窗口，当前行及单元格区间位于其中
+     */
+    private byte[] window = new byte[WINDOW_SIZE];
+    /**
+     * 窗口中有效字节的结束索引（不包含）
+     */
+    private int limit;
+    /**
+     * 窗口中下一行的开始索引
+     */
+    private int pos;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private byte[] flags = new byte[16];
+    private int count;
+    private boolean blankLine;
+    private byte[] scratch = new byte[64];
+
+    /**
+     * 构造方法
+     *
+     * @param buf       UTF-8文本
+     * @param delimiter 单元格分隔符，按字面匹配
+     */
+    MappedDelimitedReader(ByteBuffer buf, String delimiter) {
+        if (delimiter == null || delimiter.isEmpty()) {
+            throw new IllegalArgumentException("分隔符不能为空");
+        }
+        this.buf = buf;
+        this.delimiter = delimiter.getBytes(StandardCharsets.UTF_8);
+        int start = buf.position();
+        if (buf.limit() - start >= 3 && buf.get(start) == UTF8_BOM[0] && buf.get(start + 1) == UTF8_BOM[1] && buf.get(start + 2) == UTF8_BOM[2]) {
+            start += 3;
+        }
+        this.mappedPos = start;
+    }
+
+    /**
+     * 以只读方式映射文件
+     *
+     * @param file      UTF-8文本文件
+     * @param delimiter 单元格分隔符，按字面匹配
+     * @return 内存映射读取器
+     * @throws IOException 映射异常
+     */
+    static MappedDelimitedReader map(File file, String delimiter) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("文件超过2GB，无法映射：" + file);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return new MappedDelimitedReader(mapped, delimiter);
+        }
+    }
+
+    @Override
+    public boolean next() {
+        final byte[] delim = this.delimiter;
+        final byte d0 = delim[0];
+        final int dlen = delim.length;
+        //读取期间pos为当前行的开始索引，窗口前移时r、cellStart同步前移
+        int r = pos;
+        int cellStart = r;
+        byte flag = 0;
+        boolean inQuote = false;
+        count = 0;
+        int shift = ensure(r, 1);
+        r -= shift;
+        cellStart -= shift;
+        if (r == limit) {
+            return false;
+        }
+        if (window[r] == QUOTE) {
+            inQuote = true;
+            flag = QUOTED;
+            cellStart = ++r;
+        }
+        while (true) {
+            if (r == limit) {
+                shift = ensure(r, 1);
+                r -= shift;
+                cellStart -= shift;
+                if (r == limit) {
+                    //文件结束且最后一行无换行符
+                    addCell(cellStart, r, flag);
+                    blankLine = false;
+                    pos = r;
+                    endRow();
+                    return true;
+                }
+            }
+            final byte[] _window = this.window;
+            byte b = _window[r];
+            if (inQuote) {
+                if (b == QUOTE) {
+                    shift = ensure(r, 2);
+                    r -= shift;
+                    cellStart -= shift;
+                    if (r + 1 < limit && window[r + 1] == QUOTE) {
+                        r += 2;
+                    } else {
+                        inQuote = false;
+                        r++;
+                    }
+                } else {
+                    if (b < 0) flag |= NON_ASCII;
+                    r++;
+                }
+            } else if (b == '\n' || b == '\r') {
+                addCell(cellStart, r, flag);
+                blankLine = r == pos;
+                r++;
+                if (b == '\r') {
+                    r -= ensure(r, 1);
+                    if (r < limit && window[r] == '\n') {
+                        r++;
+                    }
+                }
+                pos = r;
+                endRow();
+                return true;
+            } else if (b == d0) {
+                if (dlen > 1) {
+                    shift = ensure(r, dlen);
+                    r -= shift;
+                    cellStart -= shift;
+                }
+                if (dlen == 1 || matchDelimiter(r)) {
+                    addCell(cellStart, r, flag);
+                    r += dlen;
+                    r -= ensure(r, 1);
+                    cellStart = r;
+                    flag = 0;
+                    if (r < limit && window[r] == QUOTE) {
+                        inQuote = true;
+                        flag = QUOTED;
+                        cellStart = ++r;
+                    }
+                } else {
+                    r++;
+                }
+            } else {
+                if (b < 0) flag |= NON_ASCII;
+                r++;
+            }
+        }
+    }
+
+    private boolean matchDelimiter(int r) {
+        final byte[] delim = this.delimiter;
+        if (limit - r < delim.length) {
+            return false;
+        }
+        for (int i = 1; i < delim.length; i++) {
+            if (window[r + i] != delim[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 确保窗口中自r起至少有n个字节，映射区结束时可能不足
+     *
+     * @param r 索引
+     * @param n 字节数
+     * @return 窗口前移的字节数
+     */
+    private int ensure(int r, int n) {
+        int shift = 0;
+        while (limit - (r - shift) < n && mappedPos < buf.limit()) {
+            shift += fill();
+        }
+        return shift;
+    }
+
+    /**
+     * 将当前行移至窗口头部并由映射区批量复制更多字节，窗口已满时扩容
+     *
+     * @return 窗口前移的字节数
+     */
+    private int fill() {
+        int shift = pos;
+        if (shift > 0) {
+            System.arraycopy(window, shift, window, 0, limit - shift);
+            limit -= shift;
+            pos = 0;
+            for (int i = 0; i < count; i++) {
+                starts[i] -= shift;
+                ends[i] -= shift;
+            }
+        }
+        if (limit == window.length) {
+            byte[] newWindow = new byte[window.length << 1];
+            System.arraycopy(window, 0, newWindow, 0, limit);
+            window = newWindow;
+        }
+        int n = Math.min(window.length - limit, buf.limit() - mappedPos);
+        buf.get(mappedPos, window, limit, n);
+        mappedPos += n;
+        limit += n;
+        return shift;
+    }
+
+    private void addCell(int start, int end, byte flag) {
+        if (count == starts.length) {
+            int newLen = count << 1;
+            int[] newStarts = new int[newLen];
+            int[] newEnds = new int[newLen];
+            byte[] newFlags = new byte[newLen];
+            System.arraycopy(starts, 0, newStarts, 0, count);
+            System.arraycopy(ends, 0, newEnds, 0, count);
+            System.arraycopy(flags, 0, newFlags, 0, count);
+            starts = newStarts;
+            ends = newEnds;
+            flags = newFlags;
+        }
+        starts[count] = start;
+        ends[count] = end;
+        flags[count] = flag;
+        count++;
+    }
+
+    /**
+     * 与{@link String#split(String)}一致，忽略行末尾的空单元格
+     */
+    private void endRow() {
+        while (count > 0) {
+            int cellLen = ends[count - 1] - starts[count - 1];
+            //引用的空单元格仅含结束双引号
+            if (cellLen == 0 || ((flags[count - 1] & QUOTED) != 0 && cellLen == 1 && window[starts[count - 1]] == QUOTE)) {
+                count--;
+            } else {
+                break;
+            }
+        }
+    }
+
+    /**
+     * 将单元格解码为字符串，引用的单元格去除双引号
+     *
+     * @param index 单元格索引
+     * @return 单元格内容
+     */
+    String cellString(int index) {
+        final byte[] _window = this.window;
+        int start = starts[index];
+        int len = ends[index] - start;
+        if ((flags[index] & QUOTED) == 0) {
+            return new String(_window, start, len, (flags[index] & NON_ASCII) == 0 ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+        }
+        if (scratch.length < len) {
+            scratch = new byte[Math.max(len, scratch.length << 1)];
+        }
+        final byte[] _scratch = this.scratch;
+        int w = 0;
+        boolean inQuote = true;
+        for (int i = start, end = start + len; i < end; i++) {
+            byte b = _window[i];
+            if (inQuote && b == QUOTE) {
+                if (i + 1 < end && _window[i + 1] == QUOTE) {
+                    _scratch[w++] = QUOTE;
+                    i++;
+                } else {
+                    inQuote = false;
+                }
+            } else {
+                _scratch[w++] = b;
+            }
+        }
+        return new String(_scratch, 0, w, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean isBlankLine() {
+        return blankLine;
+    }
+
+    @Override
+    public String[] toArray() {
+        String[] cells = new String[count];
+        for (int i = 0; i < count; i++) {
+            cells[i] = cellString(i);
+        }
+        return cells;
+    }
+
+    @Override
+    public void applyTo(TextAnalyzer analyzer) {
+        analyzer.setSourceData(this, window, starts, ends, flags, count);
+    }
+
+    @Override
+    public void close() {
+    }
+
+}
@@ -8,15 +8,69 @@ import com.kaka.util.StringUtils;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * 基于{@link NumericConfig}的注册器
+ * <br>
+ * 指定{@link Loader}时，注册完成后按{@link Numeric#priority()}由高到低分层加载数值配置：
+ * 同一优先级的数值配置并发加载，当前优先级全部加载完成后才加载下一优先级，依赖其它数值配置者应声明较低的优先级。
  *
  * @author zkpursuit
  */
 public class NumericDetector extends PriorityDetector {
 
+    /**
+     * 数值配置加载器，通常在其中调用{@link NumericConfig#parse(String)}
+     * <br>
+     * 同一优先级的数值配置在不同线程中同时加载，实现须线程安全
+     */
+    @FunctionalInterface
+    public interface Loader {
+        /**
+         * 加载数值配置
+         *
+         * @param config  已注册的数值配置
+         * @param numeric 数值配置的注解
+         * @throws Exception 加载异常
+         */
+        void load(NumericConfig<?> config, Numeric numeric) throws Exception;
+    }
+
     private final List<Element<? extends NumericConfig<?>>> list = new ArrayList<>();
+    private final Loader loader;
+    private final Executor executor;
+
+    /**
+     * 构造方法，仅注册数值配置，不加载
+     */
+    public NumericDetector() {
+        this(null, null);
+    }
+
+    /**
+     * 构造方法，注册后以虚拟线程分层并发加载数值配置
+     *
+     * @param loader 数值配置加载器
+     */
+    public NumericDetector(Loader loader) {
+        this(loader, null);
+    }
+
+    /**
+     * 构造方法，注册后分层并发加载数值配置
+     *
+     * @param loader   数值配置加载器，为null时仅注册不加载
+     * @param executor 执行加载的线程池，为null时每个数值配置在独立的虚拟线程中加载
+     */
+    public NumericDetector(Loader loader, Executor executor) {
+        this.loader = loader;
+        this.executor = executor;
+    }
 
     @Override
     public String name() {
@@ -56,13 +110,88 @@ public class NumericDetector extends PriorityDetector {
             Numeric numeric2 = e2.getAnnotation();
             return Integer.compare(numeric2.priority(), numeric1.priority());
         });
+        List<NumericConfig<?>> configs = new ArrayList<>(list.size());
         list.forEach(element -> {
             Class<? extends NumericConfig<?>> cls = element.getClasz();
             Numeric numeric = element.getAnnotation();
             Facade facade = numeric.context().isEmpty() ? FacadeFactory.getFacade() : FacadeFactory.getFacade(numeric.context());
             Proxy proxy = numeric.ignoreCase() ? facade.registerProxy(cls, numeric.src(), numeric.src().toLowerCase()) : facade.registerProxy(cls, numeric.src());
             proxy.setPriority(numeric.priority());
+            configs.add((NumericConfig<?>) proxy);
         });
-        list.clear();
+        try {
+            if (loader != null) {
+                load(configs);
+            }
+        } finally {
+            list.clear();
+        }
+    }
+
+    /**
+     * 按优先级分层加载数值配置，同一优先级并发加载
+     *
+     * @param configs 已按优先级由高到低排序的数值配置
+     */
+    private void load(List<NumericConfig<?>> configs) {
+        ExecutorService ownExecutor = executor == null ? Executors.newVirtualThreadPerTaskExecutor() : null;
+        Executor _executor = executor == null ? ownExecutor : executor;
+        try {
+            int from = 0;
+            while (from < configs.size()) {
+                int priority = list.get(from).<Numeric>getAnnotation().priority();
+                int to = from + 1;
+                while (to < configs.size() && list.get(to).<Numeric>getAnnotation().priority() == priority) {
+                    to++;
+                }
+                loadTier(configs, from, to, _executor);
+                from = to;
+            }
+        } finally {
+            if (ownExecutor != null) {
+                ownExecutor.shutdown();
+            }
+        }
+    }
+
+    /**
+     * 并发加载同一优先级的数值配置，全部完成后返回，任一加载失败时抛出异常且不再加载后续优先级
+     *
+     * @param configs  数值配置
+     * @param from     开始索引（包含）
+     * @param to       结束索引（不包含）
+     * @param executor 执行加载的线程池
+     */
+    private void loadTier(List<NumericConfig<?>> configs, int from, int to, Executor executor) {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[to - from];
+        for (int i = from; i < to; i++) {
+            NumericConfig<?> config = configs.get(i);
+            Numeric numeric = list.get(i).getAnnotation();
+            futures[i - from] = CompletableFuture.runAsync(() -> {
+                try {
+                    loader.load(config, numeric);
+                } catch (RuntimeException ex) {
+                    throw ex;
+                } catch (Exception ex) {
+                    throw new CompletionException(ex);
+                }
+            }, executor);
+        }
+        RuntimeException error = null;
+        for (int i = 0; i < futures.length; i++) {
+            try {
+                futures[i].join();
+            } catch (CompletionException ex) {
+                Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                if (error == null) {
+                    error = new RuntimeException(String.format("数值配置%s加载失败", list.get(from + i).<Numeric>getAnnotation().src()), cause);
+                } else {
+                    error.addSuppressed(cause);
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
     }
 }
@@ -4,7 +4,6 @@ import com.kaka.numerical.NumericField.BiConverter;
 import com.kaka.numerical.NumericField.Converter;
 import com.kaka.util.ArrayUtils;
 import com.kaka.util.MethodAccessor;
-import com.kaka.util.ReflectUtils;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
@@ -21,6 +20,23 @@ import static com.kaka.util.ReflectUtils.setFieldValue;
  */
 abstract public class Parser {
 
+    /**
+     * 解析器类型是否重写了{@link #doParse(Object, Field, IAnalyzer)}，重写时按字段逐个调用以保留自定义赋值逻辑
+     */
+    private static final ClassValue<Boolean> FIELD_PARSE_OVERRIDDEN = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (Class<?> cls = type; cls != Parser.class && cls != null; cls = cls.getSuperclass()) {
+                try {
+                    cls.getDeclaredMethod("doParse", Object.class, Field.class, IAnalyzer.class);
+                    return true;
+                } catch (NoSuchMethodException ignored) {
+                }
+            }
+            return false;
+        }
+    };
+
     /**
      * 为对象的字段赋值
      *
@@ -135,6 +151,7 @@ abstract public class Parser {
     /**
      * 将文本数据解析为对象<br>
      * 子类中必须调用此方法将文本反序列化为对象<br>
+     * 配置类的字段、读写器及字段转换器由{@link FieldBinder}按类编译并缓存，每行数据仅按序赋值<br>
      *
      * @param <T>       JavaBean对象类型
      * @param infoClass 目标对象
@@ -143,13 +160,13 @@ abstract public class Parser {
      * @throws Exception 解析异常
      */
     protected <T> T doParse(Class<T> infoClass, IAnalyzer analyzer) throws Exception {
+        FieldBinder<T> binder = FieldBinder.of(infoClass);
+        if (!FIELD_PARSE_OVERRIDDEN.get(this.getClass())) {
+            return binder.bind(analyzer);
+        }
         T object = MethodAccessor.newInstance(infoClass);
-        Field[] fields = ReflectUtils.getDeclaredFields(infoClass);
+        Field[] fields = binder.fields();
         for (Field field : fields) {
-            int modifier = field.getModifiers();
-            if (Modifier.isStatic(modifier) && Modifier.isFinal(modifier)) {
-                continue;
-            }
             doParse(object, field, analyzer);
         }
         return object;
@@ -1,16 +1,69 @@
 package com.kaka.numerical;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * excel文件复制成的制表符分割的txt文件分析器，用于分析每行每个单元格内容
+ * <br>
+ * 同一文件的列名固定，列名仅在首次设置或列名集合变更时解析为列索引，每行数据不再重建列名与内容的映射
  *
  * @author zkpursuit
  */
 public class TextAnalyzer implements IAnalyzer<String[][]> {
 
-    private final Map<String, String> title_content_map = new HashMap<>();
+    private String[] titles;
+    private Map<String, Integer> titleIndexes = Collections.emptyMap();
+    /**
+     * 首个空列名或重复列名的列索引，数据行覆盖此列时抛出异常
+     */
+    private int invalidColumn = -1;
+    private String invalidMessage;
+    private String[] lineDatas;
+    /**
+     * 以字符缓冲区区间设置的数据行，与lineDatas互斥
+     */
+    private char[] buffer;
+    private int[] starts;
+    private int[] ends;
+    /**
+     * 以内存映射读取器的字节区间设置的数据行，与lineDatas、buffer互斥
+     */
+    private MappedDelimitedReader mappedReader;
+    private byte[] bytes;
+    private byte[] flags;
+    private int cellCount;
+    private CharSlice[] slices = new CharSlice[0];
+
+    /**
+     * 设置列名集合，解析列名与列索引的映射
+     *
+     * @param titles 列名集合
+     */
+    public void setTitles(String[] titles) {
+        Map<String, Integer> indexes = new HashMap<>(titles.length * 4 / 3 + 1);
+        int invalid = -1;
+        String message = null;
+        for (int i = 0; i < titles.length; i++) {
+            String title = titles[i].trim();
+            if (title.isEmpty()) {
+                invalid = i;
+                message = "存在空列名（列号>>" + (i + 1) + "）";
+                break;
+            }
+            if (indexes.containsKey(title)) {
+                invalid = i;
+                message = "存在重复的列名（列号>>" + (i + 1) + "）：" + title;
+                break;
+            }
+            indexes.put(title, i);
+        }
+        this.titles = titles;
+        this.titleIndexes = Collections.unmodifiableMap(indexes);
+        this.invalidColumn = invalid;
+        this.invalidMessage = message;
+    }
 
     /**
      * 设置数据行，每行包括数个单元格内容
@@ -21,18 +74,74 @@ public class TextAnalyzer implements IAnalyzer<String[][]> {
     public void setSourceData(String[][] sourceData) {
         String[] lineDatas = sourceData[0]; //一行数据
         String[] titles = sourceData[1]; //列名集合
-        title_content_map.clear();
-        for (int i = 0; i < lineDatas.length; i++) {
-            String title = titles[i].trim();
-            String value = lineDatas[i].trim();
-            if (title.isEmpty()) {
-                throw new RuntimeException("存在空列名（列号>>" + (i + 1) + "）");
-            }
-            if (title_content_map.containsKey(title)) {
-                throw new RuntimeException("存在重复的列名（列号>>" + (i + 1) + "）：" + title);
-            }
-            title_content_map.put(title, value);
+        if (titles != this.titles) {
+            setTitles(titles);
+        }
+        if (invalidColumn >= 0 && lineDatas.length > invalidColumn) {
+            throw new RuntimeException(invalidMessage);
+        }
+        this.lineDatas = lineDatas;
+        this.buffer = null;
+        this.bytes = null;
+        this.cellCount = lineDatas.length;
+    }
+
+    /**
+     * 以字符缓冲区中的区间设置数据行，单元格内容不复制，缓冲区在解析完本行前不可修改
+     *
+     * @param buffer    字符缓冲区
+     * @param starts    各单元格的开始索引（包含）
+     * @param ends      各单元格的结束索引（不包含）
+     * @param cellCount 单元格数量
+     */
+    void setSourceData(char[] buffer, int[] starts, int[] ends, int cellCount) {
+        if (invalidColumn >= 0 && cellCount > invalidColumn) {
+            throw new RuntimeException(invalidMessage);
         }
+        this.lineDatas = null;
+        this.buffer = buffer;
+        this.bytes = null;
+        this.starts = starts;
+        this.ends = ends;
+        this.cellCount = cellCount;
+    }
+
+    /**
+     * 以内存映射读取器中的UTF-8字节区间设置数据行，仅含ASCII字符的单元格不解码
+     *
+     * @param reader    内存映射读取器，用于解码含非ASCII字符或双引号引用的单元格
+     * @param bytes     字节窗口
+     * @param starts    各单元格的开始索引（包含）
+     * @param ends      各单元格的结束索引（不包含）
+     * @param flags     各单元格的标记
+     * @param cellCount 单元格数量
+     */
+    void setSourceData(MappedDelimitedReader reader, byte[] bytes, int[] starts, int[] ends, byte[] flags, int cellCount) {
+        if (invalidColumn >= 0 && cellCount > invalidColumn) {
+            throw new RuntimeException(invalidMessage);
+        }
+        this.lineDatas = null;
+        this.buffer = null;
+        this.mappedReader = reader;
+        this.bytes = bytes;
+        this.starts = starts;
+        this.ends = ends;
+        this.flags = flags;
+        this.cellCount = cellCount;
+    }
+
+    /**
+     * 当前列名集合
+     *
+     * @return 列名集合
+     */
+    String[] getTitles() {
+        return titles;
+    }
+
+    @Override
+    public Map<String, Integer> getTitleIndexes() {
+        return titleIndexes;
     }
 
     /**
@@ -43,12 +152,50 @@ public class TextAnalyzer implements IAnalyzer<String[][]> {
      */
     @Override
     public String getContent(String title) {
-        if (title_content_map.isEmpty()) {
+        if (title == null) {
             return null;
         }
-        if (title == null) {
+        Integer index = titleIndexes.get(title);
+        if (index == null || index >= cellCount) {
             return null;
         }
-        return title_content_map.get(title);
+        if (lineDatas == null) {
+            return getContent(index).toString();
+        }
+        return lineDatas[index].trim();
+    }
+
+    /**
+     * 通过列索引在数据行中查找单元格内容
+     *
+     * @param index 列索引
+     * @return 去除首尾空白字符的单元格内容视图，仅在设置下一行数据前有效；列索引超出数据行范围返回null
+     */
+    @Override
+    public CharSequence getContent(int index) {
+        if (index < 0 || index >= cellCount) {
+            return null;
+        }
+        if (index >= slices.length) {
+            CharSlice[] newSlices = new CharSlice[Math.max(index + 1, titles.length)];
+            System.arraycopy(slices, 0, newSlices, 0, slices.length);
+            slices = newSlices;
+        }
+        CharSlice slice = slices[index];
+        if (slice == null) {
+            slice = slices[index] = new CharSlice();
+        }
+        if (buffer != null) {
+            return slice.reset(buffer, starts[index], ends[index]);
+        }
+        if (bytes != null) {
+            if (flags[index] == 0) {
+                return slice.reset(bytes, starts[index], ends[index]);
+            }
+            String cell = mappedReader.cellString(index);
+            return slice.reset(cell, 0, cell.length());
+        }
+        String cell = lineDatas[index];
+        return slice.reset(cell, 0, cell.length());
     }
 }
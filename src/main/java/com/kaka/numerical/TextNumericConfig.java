@@ -4,6 +4,8 @@ import com.kaka.notice.Facade;
 import com.kaka.util.StringUtils;
 
 import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 
 /**
  * 对复制excel表格数据内容生成的txt数值配置文件进行解析并转换为JavaBean对象<br>
@@ -13,6 +15,11 @@ import java.io.*;
  */
 abstract public class TextNumericConfig<T> extends NumericConfig<T> {
 
+    /**
+     * 默认以内存映射方式读取的最小文件大小，8MB
+     */
+    public static final long MAPPED_FILE_THRESHOLD = 8L << 20;
+
     /**
      * 字段单元分隔符
      */
@@ -60,8 +67,23 @@ abstract public class TextNumericConfig<T> extends NumericConfig<T> {
         parse(file, "UTF-8", 1);
     }
 
+    /**
+     * 是否以内存映射方式读取文件，仅在文件编码为UTF-8且分隔符可按字面匹配时生效 <br>
+     * 默认文件大小不小于{@link #MAPPED_FILE_THRESHOLD}且不超过2GB时以内存映射方式读取，子类可重写
+     *
+     * @param file 待解析的文件
+     * @return true表示以内存映射方式读取
+     */
+    protected boolean isMappedFile(File file) {
+        long size = file.length();
+        return size >= MAPPED_FILE_THRESHOLD && size <= Integer.MAX_VALUE;
+    }
+
     /**
      * 解析Excel复制成的纯文本内容
+     * <br>
+     * 文件编码为UTF-8、分隔符可按字面匹配且{@link #isMappedFile(File)}为true时，
+     * 以{@link MappedDelimitedReader}映射文件并直接在字节上切分单元格，否则以文件流读取
      *
      * @param file      待解析的文件
      * @param charset   读取文件所用编码
@@ -69,6 +91,13 @@ abstract public class TextNumericConfig<T> extends NumericConfig<T> {
      * @throws Exception 异常
      */
     public final void parse(File file, String charset, int startLine) throws Exception {
+        String literal = DelimitedReader.literalOf(getDelimiter());
+        if (literal != null && isUtf8(charset) && isMappedFile(file)) {
+            try (MappedDelimitedReader reader = MappedDelimitedReader.map(file, literal)) {
+                parse(reader, startLine, true);
+            }
+            return;
+        }
         try (FileInputStream fis = new FileInputStream(file)) {
             parse(fis, charset, startLine);
         }
@@ -76,6 +105,9 @@ abstract public class TextNumericConfig<T> extends NumericConfig<T> {
 
     /**
      * 解析Excel复制成的纯文本内容
+     * <br>
+     * 分隔符可按字面匹配时以{@link DelimitedReader}流式读取，内存占用与最长行相关，并支持双引号引用的单元格；
+     * 否则按分隔符正则表达式逐行拆分
      *
      * @param is        文本内容流
      * @param charset   读取文件流的字符编码
@@ -83,6 +115,13 @@ abstract public class TextNumericConfig<T> extends NumericConfig<T> {
      * @throws Exception 异常
      */
     public final void parse(InputStream is, String charset, int startLine) throws Exception {
+        String literal = DelimitedReader.literalOf(getDelimiter());
+        if (literal != null) {
+            try (DelimitedReader reader = new DelimitedReader(new InputStreamReader(is, charset), literal)) {
+                parse(reader, startLine, true);
+            }
+            return;
+        }
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(is, charset))) {
             parseBefore();
             String[] titles = null;
@@ -91,6 +130,9 @@ abstract public class TextNumericConfig<T> extends NumericConfig<T> {
             TextParser parser = new TextParser();
             Class<T> beanClass = this.getMappingClass();
             while ((line = reader.readLine()) != null && !line.isEmpty()) {
+                if (titles == null && sl == 0 && line.charAt(0) == '\uFEFF') {
+                    line = line.substring(1);
+                }
                 if (sl < startLine) {
                     sl++;
                     continue;
@@ -108,13 +150,20 @@ abstract public class TextNumericConfig<T> extends NumericConfig<T> {
     }
 
     /**
-     * 解析文本内容，以\\n结束符分行，\\t分隔行元素
+     * 解析文本内容，以\\n、\\r\\n或\\r结束符分行，以分隔符分隔行元素
      *
      * @param content   文本内容
      * @param startLine 解析的开始行索引（序列号从0开始）
      * @throws Exception 异常
      */
     public final void parse(String content, int startLine) throws Exception {
+        String literal = DelimitedReader.literalOf(getDelimiter());
+        if (literal != null) {
+            try (DelimitedReader reader = new DelimitedReader(new StringReader(content), literal)) {
+                parse(reader, startLine, false);
+            }
+            return;
+        }
         parseBefore();
         String[] lines = content.split("\n");
         String[] keys = null;
@@ -140,4 +189,47 @@ abstract public class TextNumericConfig<T> extends NumericConfig<T> {
         parseAfter();
     }
 
+    /**
+     * 以逐行读取器解析，首个有效行为列名
+     *
+     * @param reader          逐行读取器
+     * @param startLine       解析的开始行索引（序列号从0开始）
+     * @param stopAtBlankLine 遇到空行时结束解析，为false时跳过空行
+     * @throws Exception 异常
+     */
+    private void parse(IRowReader reader, int startLine, boolean stopAtBlankLine) throws Exception {
+        parseBefore();
+        String[] titles = null;
+        int sl = 0;
+        TextParser parser = new TextParser();
+        Class<T> beanClass = this.getMappingClass();
+        while (reader.next()) {
+            if (reader.isBlankLine()) {
+                if (stopAtBlankLine) {
+                    break;
+                }
+                continue;
+            }
+            if (sl < startLine) {
+                sl++;
+                continue;
+            }
+            if (titles == null) {
+                titles = reader.toArray();
+            } else {
+                T info = parser.doParse(reader, titles, beanClass);
+                cacheObject(info);
+            }
+        }
+        parseAfter();
+    }
+
+    private static boolean isUtf8(String charset) {
+        try {
+            return StandardCharsets.UTF_8.equals(Charset.forName(charset));
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
 }
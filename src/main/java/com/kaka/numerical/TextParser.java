@@ -27,4 +27,25 @@ public class TextParser extends Parser {
         return this.doParse(infoClass, analyzer);
     }
 
+    /**
+     * 将逐行读取器的当前行序列化为对象，单元格内容直接取自读取器的缓冲区
+     *
+     * @param <T>       序列化的目标对象类型
+     * @param reader    已读取到数据行的逐行读取器
+     * @param titles    列名集合，同一文件须为同一数组
+     * @param infoClass 序列化的目标对象Class
+     * @return 序列化后的目标对象
+     * @throws Exception 解析异常
+     */
+    <T> T doParse(IRowReader reader, String[] titles, Class<T> infoClass) throws Exception {
+        if (analyzer == null) {
+            analyzer = new TextAnalyzer();
+        }
+        if (analyzer.getTitles() != titles) {
+            analyzer.setTitles(titles);
+        }
+        reader.applyTo(analyzer);
+        return this.doParse(infoClass, analyzer);
+    }
+
 }
@@ -0,0 +1,153 @@
+package com.kaka.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 对数分桶直方图，线程安全
+ * <br>
+ * 以2的幂划分数量级，每个数量级再等分为8个子桶，相对误差不超过12.5%；
+ * 桶数量固定，记录数据时仅做原子累加，不产生任何对象分配，适用于热路径上的耗时统计；
+ * 记录次数由各桶计数求和得出，数值总和以{@link LongAdder}分散累加，最大值仅在超过当前值时才尝试更新，多线程记录时不争用同一计数器
+ *
+ * @author zkpursuit
+ */
+public class LogHistogram {
+
+    /**
+     * 每个数量级的子桶位数
+     */
+    private static final int SUB_BITS = 3;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BITS + 1) * SUB_COUNT;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * 数值对应的桶索引
+     *
+     * @param value 非负数值
+     * @return 桶索引
+     */
+    private static int indexOf(long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+        int exp = 63 - Long.numberOfLeadingZeros(value);
+        return (exp - SUB_BITS + 1) * SUB_COUNT + (int) ((value >>> (exp - SUB_BITS)) & (SUB_COUNT - 1));
+    }
+
+    /**
+     * 桶所能记录的最大数值
+     *
+     * @param index 桶索引
+     * @return 桶上界
+     */
+    private static long upperBoundOf(int index) {
+        if (index < SUB_COUNT) {
+            return index;
+        }
+        int exp = index / SUB_COUNT + SUB_BITS - 1;
+        long lower = ((long) (SUB_COUNT + index % SUB_COUNT)) << (exp - SUB_BITS);
+        return lower + (1L << (exp - SUB_BITS)) - 1;
+    }
+
+    /**
+     * 记录数值
+     *
+     * @param value 数值，负数按0记录
+     */
+    public void record(long value) {
+        if (value < 0) value = 0;
+        buckets.incrementAndGet(indexOf(value));
+        sum.add(value);
+        if (value > max.get()) {
+            updateMax(value);
+        }
+    }
+
+    private void updateMax(long value) {
+        long m;
+        while (value > (m = max.get()) && !max.compareAndSet(m, value)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * 记录次数
+     *
+     * @return 记录次数
+     */
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += buckets.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * 记录数值总和
+     *
+     * @return 数值总和
+     */
+    public long sum() {
+        return sum.sum();
+    }
+
+    /**
+     * 记录的最大数值
+     *
+     * @return 最大数值
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * 记录数值的平均值
+     *
+     * @return 平均值，无记录时返回0
+     */
+    public long mean() {
+        long c = count();
+        return c == 0 ? 0 : sum.sum() / c;
+    }
+
+    /**
+     * 百分位数值，返回所在桶的上界且不超过最大数值
+     *
+     * @param percentile 百分位，取值范围(0, 100]
+     * @return 百分位数值，无记录时返回0
+     */
+    public long percentile(double percentile) {
+        long total = count();
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(total * Math.min(100, percentile) / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets.get(i);
+            if (seen >= target) {
+                return Math.min(upperBoundOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * 清除所有记录
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        sum.reset();
+        max.set(0);
+    }
+
+}
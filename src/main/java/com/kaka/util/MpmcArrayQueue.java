@@ -0,0 +1,170 @@
+package com.kaka.util;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 基于数组的有界无锁队列，支持多生产者多消费者并发访问
+ * <br>
+ * 每个槽位以序号标记可写或可读状态，入队、出队仅需一次CAS，且不会为元素分配链表节点
+ * <br>
+ * 环形数组长度为不小于指定容量的2的幂，元素数量严格不超过指定容量；不支持null元素，size为近似值
+ *
+ * @param <E> 元素类型
+ * @author zkpursuit
+ */
+public class MpmcArrayQueue<E> extends AbstractQueue<E> {
+
+    private final int mask;
+    /**
+     * 指定容量，小于环形数组长度时入队须额外校验
+     */
+    private final int capacity;
+    private final AtomicLongArray sequences;
+    private final AtomicReferenceArray<E> buffer;
+    /**
+     * 生产者序号
+     */
+    private final AtomicLong tail = new AtomicLong();
+    /**
+     * 消费者序号
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * 构造方法
+     *
+     * @param capacity 队列容量，环形数组长度为不小于此值的2的幂
+     */
+    public MpmcArrayQueue(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        int size = MathUtils.nextPowerOfTwo(Math.max(2, capacity));
+        this.mask = size - 1;
+        this.capacity = capacity;
+        this.sequences = new AtomicLongArray(size);
+        this.buffer = new AtomicReferenceArray<>(size);
+        for (int i = 0; i < size; i++) {
+            this.sequences.set(i, i);
+        }
+    }
+
+    /**
+     * 队列容量
+     *
+     * @return 队列容量
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * 入队，队列已满时立即返回false
+     *
+     * @param e 元素
+     * @return true入队成功
+     */
+    @Override
+    public boolean offer(E e) {
+        if (e == null) {
+            throw new NullPointerException();
+        }
+        for (; ; ) {
+            long pos = tail.get();
+            int index = (int) pos & mask;
+            long dif = sequences.get(index) - pos;
+            if (dif == 0) {
+                //head只增不减，以旧值校验时占用数只会偏大，故成功入队后元素数量不会超过容量
+                if (capacity <= mask && pos - head.get() >= capacity) {
+                    return false;
+                }
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    buffer.lazySet(index, e);
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+            } else if (dif < 0) {
+                return false;
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * 出队，队列为空时立即返回null
+     *
+     * @return 队首元素
+     */
+    @Override
+    public E poll() {
+        for (; ; ) {
+            long pos = head.get();
+            int index = (int) pos & mask;
+            long dif = sequences.get(index) - (pos + 1);
+            if (dif == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    E e = buffer.get(index);
+                    buffer.lazySet(index, null);
+                    sequences.set(index, pos + mask + 1);
+                    return e;
+                }
+            } else if (dif < 0) {
+                return null;
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    @Override
+    public E peek() {
+        long pos = head.get();
+        int index = (int) pos & mask;
+        if (sequences.get(index) - (pos + 1) != 0) {
+            return null;
+        }
+        return buffer.get(index);
+    }
+
+    @Override
+    public int size() {
+        long h = head.get();
+        long t = tail.get();
+        long size = t - h;
+        if (size < 0) return 0;
+        return (int) Math.min(size, capacity);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return tail.get() <= head.get();
+    }
+
+    /**
+     * 弱一致性迭代器，仅为当前队列元素的快照，不支持移除
+     *
+     * @return 迭代器
+     */
+    @Override
+    public Iterator<E> iterator() {
+        List<E> list = new ArrayList<>();
+        long h = head.get();
+        long t = tail.get();
+        for (long pos = h; pos < t && pos - h <= mask; pos++) {
+            E e = buffer.get((int) pos & mask);
+            if (e != null) {
+                list.add(e);
+            }
+        }
+        return Collections.unmodifiableList(list).iterator();
+    }
+
+}
@@ -3,7 +3,9 @@ package com.kaka.util;
 import com.kaka.util.ObjectPool.Poolable;
 
 import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 
 /**
@@ -23,9 +25,29 @@ abstract public class ObjectPool<T extends Poolable> {
      */
     private int peak;
     /**
-     * 对象存储队列
+     * 对象存储队列，首次闲置对象时创建
      */
-    private Queue<T> freeObjects;
+    private volatile Queue<T> freeObjects;
+    /**
+     * 初始化队列回调函数
+     */
+    private final Function<Integer, Queue<T>> initQueueAction;
+    /**
+     * 获取对象次数
+     */
+    private final LongAdder obtainCounter = new LongAdder();
+    /**
+     * 闲置对象次数
+     */
+    private final LongAdder releaseCounter = new LongAdder();
+    /**
+     * 池中无闲置对象而新建对象的次数
+     */
+    private final LongAdder missCounter = new LongAdder();
+    /**
+     * 池已满而丢弃闲置对象的次数
+     */
+    private final LongAdder overflowCounter = new LongAdder();
 
     /**
      * 构造方法
@@ -40,23 +62,22 @@ abstract public class ObjectPool<T extends Poolable> {
      * @param max 对象池中可缓存的最大池化对象
      */
     public ObjectPool(int max) {
-        this.max = max;
-        if (this.max > 0) {
-            freeObjects = this.initQueue(max);
-        }
+        this(max, null);
     }
 
     /**
      * 构造方法
+     * <br>
+     * 高并发场景可传入MpmcArrayQueue::new，以无锁环形数组队列存储闲置对象；
+     * 队列于首次闲置对象时才创建，从未闲置过对象的对象池不占用队列内存
      *
      * @param max             对象池中可缓存的最大池化对象
      * @param initQueueAction 初始化队列回调函数，当为null时使用initQueue方法初始化队列
+     * @see MpmcArrayQueue
      */
     public ObjectPool(int max, Function<Integer, Queue<T>> initQueueAction) {
         this.max = max;
-        if (this.max > 0) {
-            freeObjects = initQueueAction != null ? initQueueAction.apply(max) : initQueue(max);
-        }
+        this.initQueueAction = initQueueAction;
     }
 
     /**
@@ -69,6 +90,25 @@ abstract public class ObjectPool<T extends Poolable> {
         return new LinkedBlockingQueue<>(initialCapacity);
     }
 
+    /**
+     * 获取对象存储队列，不存在时创建
+     *
+     * @return 对象存储队列
+     */
+    private Queue<T> freeObjects() {
+        Queue<T> queue = freeObjects;
+        if (queue == null) {
+            synchronized (this) {
+                queue = freeObjects;
+                if (queue == null) {
+                    queue = initQueueAction != null ? initQueueAction.apply(max) : initQueue(max);
+                    freeObjects = queue;
+                }
+            }
+        }
+        return queue;
+    }
+
     /**
      * 创建新的可池化对象
      *
@@ -82,7 +122,14 @@ abstract public class ObjectPool<T extends Poolable> {
      * @return 可用对象
      */
     public T obtain() {
-        return (freeObjects == null || freeObjects.isEmpty()) ? newObject() : freeObjects.poll();
+        obtainCounter.increment();
+        Queue<T> queue = freeObjects;
+        T object = queue == null ? null : queue.poll();
+        if (object == null) {
+            missCounter.increment();
+            object = newObject();
+        }
+        return object;
     }
 
     /**
@@ -98,11 +145,17 @@ abstract public class ObjectPool<T extends Poolable> {
             throw new IllegalArgumentException("object cannot be null.");
         }
         this.reset(object);
-        if (freeObjects != null) {
-            int idleCount = freeObjects.size();
-            if (idleCount < max) {
-                this.peak = freeObjects.add(object) ? Math.max(peak, idleCount + 1) : Math.max(peak, idleCount);
+        releaseCounter.increment();
+        Queue<T> queue = freeObjects();
+        //有界队列已满时入队失败即可保证上限，无需再以近似的size()预先判断
+        boolean bounded = queue instanceof MpmcArrayQueue || queue instanceof BlockingQueue;
+        if ((bounded || queue.size() < max) && queue.offer(object)) {
+            int idleCount = queue.size();
+            if (idleCount > peak) {
+                this.peak = idleCount;
             }
+        } else {
+            overflowCounter.increment();
         }
     }
 
@@ -119,8 +172,9 @@ abstract public class ObjectPool<T extends Poolable> {
      * 清除对象池中的所有数据
      */
     public void clear() {
-        if (freeObjects != null) {
-            freeObjects.clear();
+        Queue<T> queue = freeObjects;
+        if (queue != null) {
+            queue.clear();
         }
     }
 
@@ -130,8 +184,9 @@ abstract public class ObjectPool<T extends Poolable> {
      * @return 闲置对象总数
      */
     public int getIdleCount() {
-        if (freeObjects != null) {
-            return freeObjects.size();
+        Queue<T> queue = freeObjects;
+        if (queue != null) {
+            return queue.size();
         }
         return 0;
     }
@@ -158,6 +213,74 @@ abstract public class ObjectPool<T extends Poolable> {
         return this.peak;
     }
 
+    /**
+     * 调用{@link #obtain()}的次数
+     *
+     * @return 获取对象次数
+     */
+    public long obtainCount() {
+        return obtainCounter.sum();
+    }
+
+    /**
+     * 调用{@link #idle(Poolable)}的次数
+     *
+     * @return 闲置对象次数
+     */
+    public long releaseCount() {
+        return releaseCounter.sum();
+    }
+
+    /**
+     * 池中无闲置对象而新建对象的次数
+     *
+     * @return 未命中次数
+     */
+    public long missCount() {
+        return missCounter.sum();
+    }
+
+    /**
+     * 池已满而丢弃闲置对象的次数
+     *
+     * @return 溢出次数
+     */
+    public long overflowCount() {
+        return overflowCounter.sum();
+    }
+
+    /**
+     * 获取对象池统计数据快照，可依据未命中及溢出次数调整池化大小
+     *
+     * @return 统计数据
+     */
+    public Statistics statistics() {
+        return new Statistics(max, getIdleCount(), peak, obtainCount(), releaseCount(), missCount(), overflowCount());
+    }
+
+    /**
+     * 对象池统计数据
+     *
+     * @param max       可池化对象最大数量
+     * @param idle      当前闲置对象数量
+     * @param peak      闲置对象数量峰值
+     * @param obtains   获取对象次数
+     * @param releases  闲置对象次数
+     * @param misses    未命中而新建对象的次数
+     * @param overflows 池已满而丢弃对象的次数
+     */
+    public record Statistics(int max, int idle, int peak, long obtains, long releases, long misses, long overflows) {
+
+        /**
+         * 命中率
+         *
+         * @return 从池中获取到闲置对象的比例，未获取过对象时为0
+         */
+        public double hitRatio() {
+            return obtains == 0 ? 0 : (double) (obtains - misses) / obtains;
+        }
+    }
+
     /**
      * 可池化对象接口
      */
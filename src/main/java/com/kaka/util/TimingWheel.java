@@ -0,0 +1,447 @@
+package com.kaka.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 分层时间轮定时器
+ * <br>
+ * 第0层256个槽位，每个槽位对应一个刻度；第1至4层各64个槽位，每个槽位对应下一层的一整圈；
+ * 上层槽位在下层转完一圈时整体降级到下层，最大可表示2的32次方个刻度，超出部分先放在最高层等待再次降级。
+ * <br>
+ * 添加及取消定时任务均为O(1)：任务先以无锁栈交给时间轮线程，由时间轮线程在每个刻度统一放入槽位或从槽位中摘除，
+ * 槽位链表仅由时间轮线程访问，无需任何同步；同一刻度到期的任务按批次交由执行器执行，执行器为null时直接在时间轮线程中执行。
+ * <br>
+ * 定时精度为一个刻度，到期任务不会早于设定的延迟时间执行。
+ *
+ * @author zkpursuit
+ */
+public class TimingWheel {
+
+    private static final int[] LEVEL_BITS = {8, 6, 6, 6, 6};
+    private static final int[] LEVEL_SHIFTS = new int[LEVEL_BITS.length];
+    /**
+     * 可直接放入槽位的最大刻度数
+     */
+    private static final long MAX_TICKS;
+    /**
+     * 到期任务每批次的最大数量
+     */
+    private static final int EXPIRE_BATCH = 256;
+
+    static {
+        int shift = 0;
+        for (int i = 0; i < LEVEL_BITS.length; i++) {
+            LEVEL_SHIFTS[i] = shift;
+            shift += LEVEL_BITS[i];
+        }
+        MAX_TICKS = 1L << shift;
+    }
+
+    /**
+     * 定时任务句柄
+     */
+    public static final class Timeout {
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE = AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+        private static final int ST_INIT = 0;
+        private static final int ST_CANCELLED = 1;
+        private static final int ST_EXPIRED = 2;
+
+        private final TimingWheel wheel;
+        private final Runnable task;
+        private final long deadlineTick;
+        private volatile int state;
+        //以下字段仅由时间轮线程访问
+        private Timeout prev;
+        private Timeout next;
+        private Bucket bucket;
+        //无锁栈中的下一个节点
+        private Timeout nextPending;
+        private Timeout nextCancelled;
+
+        private Timeout(TimingWheel wheel, Runnable task, long deadlineTick) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        /**
+         * 取消定时任务
+         *
+         * @return true取消成功，false已到期或已取消
+         */
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, ST_INIT, ST_CANCELLED)) {
+                return false;
+            }
+            wheel.onCancelled(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state == ST_CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state == ST_EXPIRED;
+        }
+
+        public Runnable task() {
+            return task;
+        }
+    }
+
+    /**
+     * 槽位，双向链表
+     */
+    private static final class Bucket {
+        Timeout head;
+        Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            timeout.prev = tail;
+            timeout.next = null;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.prev == null) {
+                head = timeout.next;
+            } else {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.prev;
+            } else {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        /**
+         * 清空槽位
+         *
+         * @return 原链表头
+         */
+        Timeout clear() {
+            Timeout first = head;
+            head = null;
+            tail = null;
+            return first;
+        }
+    }
+
+    private final long tickNanos;
+    private final Executor executor;
+    private final Bucket[][] wheels;
+    private final AtomicReference<Timeout> pendingStack = new AtomicReference<>();
+    private final AtomicReference<Timeout> cancelledStack = new AtomicReference<>();
+    private final AtomicLong size = new AtomicLong();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile boolean running;
+    private volatile long startNanos;
+    private volatile Thread worker;
+    private final String name;
+    private long currentTick;
+
+    /**
+     * 构造方法
+     *
+     * @param tick     刻度时长，最小1毫秒
+     * @param unit     刻度时长单位
+     * @param executor 到期任务执行器，为null或拒绝执行时在时间轮线程中直接执行，此时到期任务须足够轻量
+     */
+    public TimingWheel(long tick, TimeUnit unit, Executor executor) {
+        this(tick, unit, executor, "timing-wheel");
+    }
+
+    /**
+     * 构造方法
+     *
+     * @param tick     刻度时长，最小1毫秒
+     * @param unit     刻度时长单位
+     * @param executor 到期任务执行器，为null或拒绝执行时在时间轮线程中直接执行，此时到期任务须足够轻量
+     * @param name     时间轮线程名
+     */
+    public TimingWheel(long tick, TimeUnit unit, Executor executor, String name) {
+        this.tickNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(1), unit.toNanos(tick));
+        this.executor = executor;
+        this.name = name;
+        this.wheels = new Bucket[LEVEL_BITS.length][];
+        for (int i = 0; i < LEVEL_BITS.length; i++) {
+            Bucket[] buckets = new Bucket[1 << LEVEL_BITS[i]];
+            for (int j = 0; j < buckets.length; j++) {
+                buckets[j] = new Bucket();
+            }
+            this.wheels[i] = buckets;
+        }
+    }
+
+    /**
+     * 添加定时任务，首次添加时启动时间轮线程
+     *
+     * @param task  到期执行的任务
+     * @param delay 延迟时间
+     * @param unit  延迟时间单位
+     * @return 定时任务句柄
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (task == null) {
+            throw new NullPointerException("task");
+        }
+        start();
+        long elapsed = System.nanoTime() - startNanos + unit.toNanos(Math.max(0, delay));
+        long deadlineTick = (elapsed + tickNanos - 1) / tickNanos;
+        Timeout timeout = new Timeout(this, task, deadlineTick);
+        size.incrementAndGet();
+        Timeout head;
+        do {
+            head = pendingStack.get();
+            timeout.nextPending = head;
+        } while (!pendingStack.compareAndSet(head, timeout));
+        return timeout;
+    }
+
+    /**
+     * 定时任务被取消，交由时间轮线程从槽位中摘除
+     *
+     * @param timeout 定时任务句柄
+     */
+    private void onCancelled(Timeout timeout) {
+        size.decrementAndGet();
+        Timeout head;
+        do {
+            head = cancelledStack.get();
+            timeout.nextCancelled = head;
+        } while (!cancelledStack.compareAndSet(head, timeout));
+    }
+
+    /**
+     * 启动时间轮线程
+     */
+    private void start() {
+        if (started.get() || !started.compareAndSet(false, true)) {
+            while (startNanos == 0) {
+                Thread.onSpinWait();
+            }
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::work, name);
+        thread.setDaemon(true);
+        worker = thread;
+        startNanos = System.nanoTime() | 1;
+        thread.start();
+    }
+
+    /**
+     * 停止时间轮线程，未到期的定时任务将不再执行
+     */
+    public void stop() {
+        running = false;
+        Thread thread = worker;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * 未到期且未取消的定时任务数量
+     *
+     * @return 定时任务数量
+     */
+    public long size() {
+        return size.get();
+    }
+
+    /**
+     * 刻度时长
+     *
+     * @param unit 时间单位
+     * @return 刻度时长
+     */
+    public long getTick(TimeUnit unit) {
+        return unit.convert(tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void work() {
+        List<Runnable> expired = new ArrayList<>();
+        while (running) {
+            long deadline = startNanos + (currentTick + 1) * tickNanos;
+            long sleepNanos = deadline - System.nanoTime();
+            while (sleepNanos > 0) {
+                LockSupport.parkNanos(this, sleepNanos);
+                if (!running) return;
+                sleepNanos = deadline - System.nanoTime();
+            }
+            currentTick++;
+            transferPending();
+            removeCancelled();
+            cascade();
+            expire(expired);
+        }
+    }
+
+    /**
+     * 将新添加的定时任务放入槽位
+     */
+    private void transferPending() {
+        Timeout timeout = pendingStack.getAndSet(null);
+        while (timeout != null) {
+            Timeout next = timeout.nextPending;
+            timeout.nextPending = null;
+            if (timeout.state == Timeout.ST_INIT) {
+                place(timeout);
+            }
+            timeout = next;
+        }
+    }
+
+    /**
+     * 将已取消的定时任务从槽位中摘除
+     */
+    private void removeCancelled() {
+        Timeout timeout = cancelledStack.getAndSet(null);
+        while (timeout != null) {
+            Timeout next = timeout.nextCancelled;
+            timeout.nextCancelled = null;
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+            timeout = next;
+        }
+    }
+
+    /**
+     * 按剩余刻度数将定时任务放入对应层级的槽位
+     *
+     * @param timeout 定时任务句柄
+     */
+    private void place(Timeout timeout) {
+        long deadlineTick = Math.max(timeout.deadlineTick, currentTick);
+        long ticks = deadlineTick - currentTick;
+        if (ticks >= MAX_TICKS) {
+            ticks = MAX_TICKS - 1;
+            deadlineTick = currentTick + ticks;
+        }
+        int level = 0;
+        while (level < LEVEL_BITS.length - 1 && ticks >= (1L << LEVEL_SHIFTS[level + 1])) {
+            level++;
+        }
+        Bucket[] buckets = wheels[level];
+        int index = (int) (deadlineTick >>> LEVEL_SHIFTS[level]) & (buckets.length - 1);
+        buckets[index].add(timeout);
+    }
+
+    /**
+     * 下层转完一圈时，将上层当前槽位中的定时任务降级放入下层
+     */
+    private void cascade() {
+        for (int level = 1; level < LEVEL_BITS.length; level++) {
+            if ((currentTick & ((1L << LEVEL_SHIFTS[level]) - 1)) != 0) {
+                break;
+            }
+            Bucket[] buckets = wheels[level];
+            int index = (int) (currentTick >>> LEVEL_SHIFTS[level]) & (buckets.length - 1);
+            Timeout timeout = buckets[index].clear();
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                timeout.prev = null;
+                timeout.next = null;
+                timeout.bucket = null;
+                place(timeout);
+                timeout = next;
+            }
+        }
+    }
+
+    /**
+     * 执行第0层当前槽位中到期的定时任务
+     *
+     * @param expired 到期任务的复用列表
+     */
+    private void expire(List<Runnable> expired) {
+        Bucket[] buckets = wheels[0];
+        Timeout timeout = buckets[(int) currentTick & (buckets.length - 1)].clear();
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+            if (timeout.deadlineTick > currentTick) {
+                //超出最大刻度数的定时任务
+                place(timeout);
+            } else if (Timeout.STATE.compareAndSet(timeout, Timeout.ST_INIT, Timeout.ST_EXPIRED)) {
+                size.decrementAndGet();
+                expired.add(timeout.task);
+                if (expired.size() >= EXPIRE_BATCH) {
+                    dispatch(expired);
+                    expired.clear();
+                }
+            }
+            timeout = next;
+        }
+        if (!expired.isEmpty()) {
+            dispatch(expired);
+            expired.clear();
+        }
+    }
+
+    /**
+     * 执行一批到期任务，交由执行器时复制为数组，列表可继续复用
+     * <br>
+     * 执行器拒绝执行（比如已关闭或队列已满）时在时间轮线程中直接执行，到期任务不会丢失，时间轮线程亦不会因此退出
+     *
+     * @param batch 到期任务
+     */
+    private void dispatch(List<Runnable> batch) {
+        if (executor == null) {
+            runAll(batch);
+            return;
+        }
+        final Runnable[] tasks = batch.toArray(new Runnable[0]);
+        try {
+            executor.execute(() -> runAll(tasks));
+        } catch (RejectedExecutionException ex) {
+            runAll(tasks);
+        }
+    }
+
+    private static void runAll(Iterable<Runnable> tasks) {
+        for (Runnable task : tasks) {
+            runSafely(task);
+        }
+    }
+
+    private static void runAll(Runnable[] tasks) {
+        for (Runnable task : tasks) {
+            runSafely(task);
+        }
+    }
+
+    private static void runSafely(Runnable task) {
+        try {
+            task.run();
+        } catch (Throwable ex) {
+            Thread t = Thread.currentThread();
+            t.getUncaughtExceptionHandler().uncaughtException(t, ex);
+        }
+    }
+
+}
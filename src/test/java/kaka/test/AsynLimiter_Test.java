@@ -0,0 +1,184 @@
+package kaka.test;
+
+import com.kaka.notice.AsynLimiter;
+import com.kaka.notice.Facade;
+import com.kaka.notice.FacadeFactory;
+import com.kaka.notice.Message;
+import com.kaka.notice.Pooled;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 异步执行限流器范例
+ * <br>
+ * 以虚拟线程方式瞬间投递大量事件消息，观察不同溢出策略下的最大并发数、等待队列深度及丢弃、拒绝数量；
+ * 并校验限流器已满时按键分道的事件消息不会被丢弃或拒绝，通道不会停滞；
+ * 以及被丢弃或被线程池拒绝执行的池化事件消息均回收至对象池，且拒绝执行不会向执行完成的任务抛出异常
+ *
+ * @author zkpursuit
+ */
+public class AsynLimiter_Test {
+
+    private static final int TOTAL = 100_000;
+
+    private static void run(AsynLimiter.OverflowPolicy policy) throws InterruptedException {
+        Facade facade = FacadeFactory.getFacade();
+        AsynLimiter limiter = new AsynLimiter(64, 1024, policy);
+        facade.initAsynLimiter(limiter);
+        final AtomicInteger concurrent = new AtomicInteger();
+        final AtomicInteger peak = new AtomicInteger();
+        final LongAdder handled = new LongAdder();
+        facade.addListener("spike", (msg, _facade) -> {
+            int n = concurrent.incrementAndGet();
+            peak.accumulateAndGet(n, Math::max);
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException ignored) {
+            }
+            concurrent.decrementAndGet();
+            handled.increment();
+        });
+        int failed = 0;
+        int maxDepth = 0;
+        long t1 = System.nanoTime();
+        for (int i = 0; i < TOTAL; i++) {
+            try {
+                facade.sendMessage(new Message("spike", i), Message.ExecuteType.ASYN_VIRTUAL_THREAD);
+            } catch (RuntimeException ex) {
+                failed++;
+            }
+            maxDepth = Math.max(maxDepth, limiter.queueDepth());
+        }
+        while (limiter.running() > 0 || limiter.queueDepth() > 0) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        long millis = (System.nanoTime() - t1) / 1_000_000;
+        System.out.printf("%s\thandled=%d\tpeak=%d\tmaxDepth=%d\tfailed=%d\t%s\t%dms%n", policy, handled.sum(),
+                peak.get(), maxDepth, failed, limiter.statistics(), millis);
+        facade.dispose();
+    }
+
+    private static final int LANES = 8;
+    private static final int LANE_MESSAGES = 200;
+
+    private static void runLanes(AsynLimiter.OverflowPolicy policy) throws InterruptedException {
+        Facade facade = FacadeFactory.getFacade();
+        AsynLimiter limiter = new AsynLimiter(1, 1, policy);
+        facade.initAsynLimiter(limiter);
+        final CountDownLatch release = new CountDownLatch(1);
+        facade.addListener("hold", (msg, _facade) -> {
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        final CountDownLatch handled = new CountDownLatch(LANES * LANE_MESSAGES);
+        final int[] last = new int[LANES];
+        final AtomicInteger disorder = new AtomicInteger();
+        facade.addListener("lane", (msg, _facade) -> {
+            int[] body = (int[]) msg.getBody();
+            if (last[body[0]] + 1 != body[1]) {
+                disorder.incrementAndGet();
+            }
+            last[body[0]] = body[1];
+            handled.countDown();
+        });
+        //占满限流器的执行名额及等待队列
+        facade.sendMessage(new Message("hold"), Message.ExecuteType.ASYN_VIRTUAL_THREAD);
+        facade.sendMessage(new Message("hold"), Message.ExecuteType.ASYN_VIRTUAL_THREAD);
+        for (int i = 1; i <= LANE_MESSAGES; i++) {
+            for (int key = 0; key < LANES; key++) {
+                facade.sendMessage(new Message("lane", new int[]{key, i}), key, Message.ExecuteType.ASYN_VIRTUAL_THREAD);
+            }
+        }
+        boolean done = handled.await(10, TimeUnit.SECONDS);
+        release.countDown();
+        if (!done || disorder.get() > 0) {
+            throw new IllegalStateException(policy + "：分道事件未全部按序执行，剩余" + handled.getCount() + "，乱序" + disorder.get());
+        }
+        System.out.printf("%s\tlanes=%d\thandled=%d\t%s%n", policy, LANES, LANES * LANE_MESSAGES, limiter.statistics());
+        facade.dispose();
+    }
+
+    private static void runRelease(AsynLimiter.OverflowPolicy policy) throws InterruptedException {
+        Facade facade = FacadeFactory.getFacade();
+        AsynLimiter limiter = new AsynLimiter(1, 1, policy);
+        facade.initAsynLimiter(limiter);
+        final AtomicBoolean reject = new AtomicBoolean();
+        final List<Throwable> uncaught = new CopyOnWriteArrayList<>();
+        facade.initThreadPool(task -> {
+            if (reject.get()) {
+                throw new RejectedExecutionException("rejected");
+            }
+            Thread thread = new Thread(task);
+            thread.setUncaughtExceptionHandler((t, ex) -> uncaught.add(ex));
+            thread.start();
+        });
+        final CountDownLatch release = new CountDownLatch(1);
+        facade.addListener("hold", (msg, _facade) -> {
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        final LongAdder handled = new LongAdder();
+        facade.addListener("pooled", (msg, _facade) -> handled.increment());
+        facade.sendMessage(new Message("hold"), Message.ExecuteType.ASYN_THREAD);
+        //一个消息进入等待队列，另一个按溢出策略被丢弃
+        Message first = Pooled.message(Message.class, () -> new Message(null)).set("pooled", 1);
+        Message second = Pooled.message(Message.class, () -> new Message(null)).set("pooled", 2);
+        facade.sendMessage(first, Message.ExecuteType.ASYN_THREAD);
+        facade.sendMessage(second, Message.ExecuteType.ASYN_THREAD);
+        //执行名额释放时线程池拒绝执行等待队列中的消息
+        reject.set(true);
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while ((limiter.running() > 0 || limiter.queueDepth() > 0) && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        TimeUnit.MILLISECONDS.sleep(50);
+        AsynLimiter.Statistics stats = limiter.statistics();
+        if (!uncaught.isEmpty() || handled.sum() != 0 || stats.dropped() != 2 || stats.running() != 0 || stats.queued() != 0) {
+            throw new IllegalStateException(policy + "：拒绝执行的任务未计为丢弃，" + stats + "，执行" + handled.sum() + "，异常" + uncaught);
+        }
+        if (first.getWhat() != null || second.getWhat() != null) {
+            throw new IllegalStateException(policy + "：被丢弃的池化消息未重置");
+        }
+        //从对象池中取出全部闲置消息，被丢弃的两个消息均应在其中
+        Set<Message> idle = Collections.newSetFromMap(new IdentityHashMap<>());
+        final AtomicBoolean empty = new AtomicBoolean();
+        while (!empty.get()) {
+            idle.add(Pooled.message(Message.class, () -> {
+                empty.set(true);
+                return new Message(null);
+            }));
+        }
+        if (!idle.contains(first) || !idle.contains(second)) {
+            throw new IllegalStateException(policy + "：被丢弃的池化消息未回收至对象池");
+        }
+        System.out.printf("%s	released=2	%s%n", policy, stats);
+        facade.dispose();
+    }
+
+    public static void main(String[] args) throws Exception {
+        for (AsynLimiter.OverflowPolicy policy : AsynLimiter.OverflowPolicy.values()) {
+            run(policy);
+        }
+        runLanes(AsynLimiter.OverflowPolicy.DROP_NEWEST);
+        runLanes(AsynLimiter.OverflowPolicy.DROP_OLDEST);
+        runLanes(AsynLimiter.OverflowPolicy.FAIL);
+        runRelease(AsynLimiter.OverflowPolicy.DROP_NEWEST);
+        runRelease(AsynLimiter.OverflowPolicy.DROP_OLDEST);
+    }
+
+}
@@ -4,17 +4,80 @@ import com.kaka.Startup;
 import com.kaka.notice.*;
 
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * 异步使用范例
+ * <br>
+ * 并校验回调方式获取结果的语义：等待超时与缓存过期均使结果失效且以{@link TimeoutException}完成回调，
+ * {@link AsynResult#orTimeout(long, TimeUnit)}仅作用于返回的副本
  *
  * @author zkpursuit
  */
 public class Asyn_Test extends Startup {
 
-    public static void main(String[] args) {
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    private static boolean isTimeout(CompletableFuture<?> future) throws InterruptedException {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            return false;
+        } catch (ExecutionException ex) {
+            return ex.getCause() instanceof TimeoutException;
+        } catch (TimeoutException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * 等待超时后结果失效，回调方式获取的结果以超时异常完成，此后的赋值被忽略
+     *
+     * @param result 未赋值的异步结果
+     */
+    private static void checkGetTimeout(AsynResult<String> result) throws Exception {
+        CompletableFuture<String> before = result.toCompletableFuture();
+        try {
+            result.get(50, TimeUnit.MILLISECONDS);
+            check(false, result.getClass().getSimpleName() + "：等待超时未抛出异常");
+        } catch (TimeoutException ignored) {
+        }
+        result.set("late");
+        check(isTimeout(before), result.getClass().getSimpleName() + "：超时前获取的回调结果未以超时异常完成");
+        check(isTimeout(result.toCompletableFuture()), result.getClass().getSimpleName() + "：超时后获取的回调结果未以超时异常完成");
+        check(result.isDone() && result.get() == null, result.getClass().getSimpleName() + "：超时后的赋值未被忽略");
+    }
+
+    private static void checkCallbacks() throws Exception {
+        checkGetTimeout(new AsynResult<>());
+        checkGetTimeout(new AsynLatchResult<>());
+
+        //orTimeout仅使返回的副本超时，结果本身仍可赋值
+        AsynResult<String> result = new AsynResult<>();
+        CompletableFuture<String> copy = result.orTimeout(50, TimeUnit.MILLISECONDS);
+        check(isTimeout(copy), "orTimeout未以超时异常完成");
+        result.set("value");
+        check("value".equals(result.toCompletableFuture().get(1, TimeUnit.SECONDS)), "orTimeout超时后结果本身不应失效");
+        check("value".equals(result.get(0, TimeUnit.MILLISECONDS)), "赋值后等待结果错误");
+
+        //先赋值后超时，以赋值结果完成
+        AsynResult<String> done = new AsynResult<>();
+        CompletableFuture<Integer> mapped = done.thenApply(String::length);
+        done.set("four");
+        check(mapped.get(1, TimeUnit.SECONDS) == 4, "thenApply结果错误");
+        check("four".equals(done.get(10, TimeUnit.MILLISECONDS)), "赋值后等待结果错误");
+        System.out.println("回调方式获取结果校验通过");
+    }
+
+    public static void main(String[] args) throws Exception {
+        checkCallbacks();
         Facade facade = FacadeFactory.getFacade();
         facade.registerCommand("print_log", PrintLogHandler.class, 100);
         Asyn_Test test = new Asyn_Test();
@@ -32,8 +95,8 @@ public class Asyn_Test extends Startup {
             3、我们应该尽可能的使用事件模式代替，比如事件处理器处理完成后再次
         调用sendMessage向外派发事件，分散到其它事件处理器中处理，而不是等待处
         理结果。
-            4、异步future模式获取事件处理结果其本质是利用wait、notify（notifyAll）
-        实现，而使用事件模式则无需调用wait让线程中断等待。
+            4、异步future模式获取事件处理结果其本质是挂起等待线程直至结果赋值，
+        而使用事件模式或AsynResult的回调方式则无需让线程等待。
          */
         //获取异步处理结果
         Message asynMsg = new Message("10000", "让ResultCommand接收执行");
@@ -42,6 +105,14 @@ public class Asyn_Test extends Startup {
         facade.sendMessage(asynMsg, true); //异步发送事件通知
         System.out.println(result0.get());
 
+        //以回调方式获取异步处理结果，不阻塞当前线程
+        Message asynMsg1 = new Message("10000", "让ResultCommand接收执行");
+        AsynResult<String> result5 = asynMsg1.setResult("ResultMsg", new AsynResult<>());
+        CompletableFuture<Void> callback = result5.orTimeout(5, TimeUnit.SECONDS).thenAccept(value -> System.out.println("回调获取异步处理结果：" + value));
+        facade.sendMessage(asynMsg1, true);
+        callback.get(6, TimeUnit.SECONDS);
+        check(">>>>>>>>异步执行结果".equals(result5.toCompletableFuture().join()), "回调获取的异步处理结果错误");
+
         //获取同步执行结果
         Message syncMsg = new Message("20000", "让ResultCommand接收执行");
         //由于事件通知为广播模式，故而必须为执行结果进行命名标识唯一性
@@ -0,0 +1,150 @@
+package kaka.test;
+
+import com.kaka.notice.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 批量派发范例
+ * <br>
+ * 校验{@link Facade#sendMessages}同组消息以事件处理器为主序执行，覆盖{@link Command#executeBatch(List)}的命令通过
+ * {@link Command#returnCallbackResult(Message, Object)}为每个消息设置回调参数；
+ * 事件观察者中同步派发其它事件消息后仍可为外层消息设置回调参数，事件处理器抛出异常后线程变量不残留；
+ * 并校验每个事件处理器处理完整组消息时统计一次执行
+ *
+ * @author zkpursuit
+ */
+public class Batch_Test {
+
+    private static final String WHAT = "batch";
+    private static final String NESTED = "batch_nested";
+    private static final String OTHER = "batch_other";
+    private static final List<String> logs = new ArrayList<>();
+    private static final List<String> callbacks = new ArrayList<>();
+
+    public static class BatchCommand extends Command {
+        @Override
+        protected void executeBatch(List<Message> msgs) {
+            logs.add("BatchCommand:" + msgs.stream().map(m -> String.valueOf(m.getBody())).collect(Collectors.joining(",")));
+            for (Message msg : msgs) {
+                returnCallbackResult(msg, "b" + msg.getBody());
+            }
+        }
+
+        @Override
+        public void execute(Message msg) {
+            throw new IllegalStateException("批量派发不应逐个执行");
+        }
+    }
+
+    public static class PlainCommand extends Command {
+        @Override
+        public void execute(Message msg) {
+            logs.add("PlainCommand:" + msg.getBody());
+            returnCallbackResult("p" + msg.getBody());
+        }
+    }
+
+    public static class BatchMediator extends Mediator {
+        @Override
+        public void handleMessage(Message msg) {
+            logs.add("BatchMediator:" + msg.getBody());
+            //同步派发其它事件消息，内层事件观察者执行完成后不得清除外层消息的线程变量
+            sendMessage(new Message(NESTED, msg.getBody()));
+            returnCallbackResult("m" + msg.getBody());
+        }
+
+        @Override
+        public Object[] listMessageInterests() {
+            return new Object[]{WHAT};
+        }
+    }
+
+    public static class NestedMediator extends Mediator {
+        @Override
+        public void handleMessage(Message msg) {
+            if ("fail".equals(msg.getBody())) {
+                throw new IllegalStateException("fail");
+            }
+            logs.add("NestedMediator:" + msg.getBody());
+            returnCallbackResult("n" + msg.getBody());
+        }
+
+        @Override
+        public Object[] listMessageInterests() {
+            return new Object[]{NESTED};
+        }
+    }
+
+    public static class BatchListener implements IListener {
+        @Override
+        public void onMessage(Message msg, Facade facade) {
+            logs.add("BatchListener:" + msg.getWhat() + ":" + msg.getBody());
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    private static Message message(Object what, Object body) {
+        return new Message(what, body, result -> {
+            String handler = ((CallbackResult<?>) result).eventHandlerClass;
+            callbacks.add(handler.substring(handler.lastIndexOf('$') + 1) + "=" + result.get());
+        });
+    }
+
+    public static void main(String[] args) {
+        Facade facade = FacadeFactory.getFacade();
+        DispatchMetrics metrics = new DispatchMetrics();
+        facade.initDispatchMetrics(metrics);
+        facade.registerCommand(WHAT, BatchCommand.class, 4, 0);
+        facade.registerCommand(WHAT, PlainCommand.class, 4, 1);
+        facade.registerMediator(BatchMediator.class);
+        facade.registerMediator(NestedMediator.class);
+        BatchListener listener = new BatchListener();
+        facade.addListener(WHAT, listener);
+        facade.addListener(OTHER, listener);
+
+        facade.sendMessages(List.of(message(WHAT, 0), message(OTHER, 9), message(WHAT, 1), message(WHAT, 2)), Message.ExecuteType.SYNC);
+        List<String> expectedLogs = List.of("BatchCommand:0,1,2",
+                "PlainCommand:0", "PlainCommand:1", "PlainCommand:2",
+                "BatchMediator:0", "NestedMediator:0", "BatchMediator:1", "NestedMediator:1", "BatchMediator:2", "NestedMediator:2",
+                "BatchListener:batch:0", "BatchListener:batch:1", "BatchListener:batch:2",
+                "BatchListener:batch_other:9");
+        check(logs.equals(expectedLogs), "批量派发执行顺序错误：" + logs);
+        List<String> expectedCallbacks = List.of("BatchCommand=b0", "BatchCommand=b1", "BatchCommand=b2",
+                "PlainCommand=p0", "PlainCommand=p1", "PlainCommand=p2",
+                "BatchMediator=m0", "BatchMediator=m1", "BatchMediator=m2");
+        check(callbacks.equals(expectedCallbacks), "批量派发回调错误：" + callbacks);
+
+        //每个事件处理器处理完整组消息计为一次执行
+        check(metrics.getHandlerStats(WHAT, BatchCommand.class).invocations() == 1, "BatchCommand统计次数错误");
+        check(metrics.getHandlerStats(WHAT, PlainCommand.class).invocations() == 1, "PlainCommand统计次数错误");
+        check(metrics.getHandlerStats(WHAT, BatchMediator.class).invocations() == 1, "BatchMediator统计次数错误");
+        check(metrics.getHandlerStats(WHAT, BatchListener.class).invocations() == 1, "BatchListener统计次数错误");
+        check(metrics.getHandlerStats(OTHER, BatchListener.class).invocations() == 1, "BatchListener统计次数错误");
+        check(metrics.getHandlerStats(NESTED, NestedMediator.class).invocations() == 3, "NestedMediator统计次数错误");
+
+        //事件观察者抛出异常后线程变量恢复，后续事件消息的回调参数不受影响
+        try {
+            facade.sendMessages(List.of(message(NESTED, "ok"), message(NESTED, "fail")), Message.ExecuteType.SYNC);
+            check(false, "事件观察者异常未抛出");
+        } catch (IllegalStateException ex) {
+            check("fail".equals(ex.getMessage()), "事件观察者异常错误：" + ex);
+        }
+        check(metrics.getHandlerStats(NESTED, NestedMediator.class).errors() == 1, "NestedMediator异常统计错误");
+        logs.clear();
+        callbacks.clear();
+        facade.sendMessage(message(NESTED, "after"));
+        check(callbacks.equals(List.of("NestedMediator=nafter")), "异常后的回调错误：" + callbacks);
+
+        System.out.println("批量派发校验通过：" + expectedLogs);
+        facade.dispose();
+    }
+
+}
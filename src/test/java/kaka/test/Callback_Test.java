@@ -0,0 +1,90 @@
+package kaka.test;
+
+import com.kaka.notice.*;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 事件处理器回调性能范例
+ * <br>
+ * 同一事件名注册4个命令执行器、3个事件观察者及3个事件监听器，分别派发无回调及有回调的事件消息
+ *
+ * @author zkpursuit
+ */
+public class Callback_Test {
+
+    private static final int TOTAL = 2_000_000;
+    private static final String WHAT = "callback";
+    private static final LongAdder counter = new LongAdder();
+
+    public static class Command1 extends Command {
+        @Override
+        public void execute(Message msg) {
+        }
+    }
+
+    public static class Command2 extends Command1 {
+    }
+
+    public static class Command3 extends Command1 {
+    }
+
+    public static class Command4 extends Command1 {
+        @Override
+        public void execute(Message msg) {
+            returnCallbackResult(msg.getBody());
+        }
+    }
+
+    public static class Mediator1 extends Mediator {
+        @Override
+        public void handleMessage(Message msg) {
+        }
+
+        @Override
+        public Object[] listMessageInterests() {
+            return new Object[]{WHAT};
+        }
+    }
+
+    public static class Mediator2 extends Mediator1 {
+    }
+
+    public static class Mediator3 extends Mediator1 {
+    }
+
+    private static long run(Facade facade, boolean withCallback) {
+        long t1 = System.nanoTime();
+        for (int i = 0; i < TOTAL; i++) {
+            Message msg = withCallback ? new Message(WHAT, i, result -> counter.increment()) : new Message(WHAT, i);
+            facade.sendMessage(msg);
+        }
+        return System.nanoTime() - t1;
+    }
+
+    public static void main(String[] args) {
+        Facade facade = FacadeFactory.getFacade();
+        facade.registerCommand(WHAT, Command1.class, 16);
+        facade.registerCommand(WHAT, Command2.class, 16);
+        facade.registerCommand(WHAT, Command3.class, 16);
+        facade.registerCommand(WHAT, Command4.class, 16);
+        facade.registerMediator(Mediator1.class);
+        facade.registerMediator(Mediator2.class);
+        facade.registerMediator(Mediator3.class);
+        for (int i = 0; i < 3; i++) {
+            final int index = i;
+            facade.addListener(WHAT, (msg, _facade) -> {
+                if (index < 0) System.out.println(msg);
+            });
+        }
+        long bestWithout = Long.MAX_VALUE, bestWith = Long.MAX_VALUE;
+        for (int round = 0; round < 10; round++) {
+            bestWithout = Math.min(bestWithout, run(facade, false));
+            bestWith = Math.min(bestWith, run(facade, true));
+        }
+        System.out.printf("10 handlers\twithout callback=%.1f ops/ms\twith callback=%.1f ops/ms%n",
+                TOTAL / (bestWithout / 1e6), TOTAL / (bestWith / 1e6));
+        System.out.println("callbacks: " + counter.sum());
+    }
+
+}
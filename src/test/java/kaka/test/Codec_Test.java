@@ -0,0 +1,143 @@
+package kaka.test;
+
+import com.kaka.notice.*;
+import com.kaka.util.JdkSerializer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 远端事件编解码性能范例
+ * <br>
+ * 以实际发送的远端事件为样本，对比{@link JdkSerializer}与{@link RemoteMessageCodec}的编码大小及编解码耗时
+ *
+ * @author zkpursuit
+ */
+public class Codec_Test {
+
+    private static final int ROUNDS = 200_000;
+
+    /**
+     * 仅记录最近一次发送的远端事件
+     */
+    private static class CapturePostman extends RemoteMessagePostman {
+        volatile RemoteMessage last;
+
+        CapturePostman() {
+            super("event_exec_before", "event_exec_after");
+        }
+
+        @Override
+        protected void sendRemoteMessage(RemoteMessage remoteMessage) {
+            last = remoteMessage;
+        }
+    }
+
+    private static long measure(Runnable action, int rounds) {
+        for (int i = 0; i < rounds / 10; i++) action.run();
+        long t1 = System.nanoTime();
+        for (int i = 0; i < rounds; i++) action.run();
+        return (System.nanoTime() - t1) / rounds;
+    }
+
+    private static void compare(String shape, RemoteMessage sample, int rounds) {
+        JdkSerializer jdk = new JdkSerializer();
+        RemoteMessageCodec codec = new RemoteMessageCodec();
+        int jdkSize = jdk.serialize(sample).length;
+        int codecSize = codec.serialize(sample).length;
+        long jdkNanos = measure(() -> jdk.deserialize(jdk.serialize(sample)), rounds);
+        long codecNanos = measure(() -> codec.deserialize(codec.serialize(sample)), rounds);
+        long bufferNanos = measure(() -> {
+            ByteBuffer buf = codec.encode(sample);
+            codec.decode(buf);
+            codec.release(buf);
+        }, rounds);
+        System.out.printf("%-16s jdk=%dB %dns\tcodec=%dB %dns\tcodec(ByteBuffer)=%dns%n", shape, jdkSize, jdkNanos,
+                codecSize, codecNanos, bufferNanos);
+    }
+
+    private static RemoteMessage capture(CapturePostman postman, Supplier<Message> supplier) {
+        Facade facade = FacadeFactory.getFacade();
+        facade.sendRemoteMessage(supplier.get());
+        return postman.last;
+    }
+
+    private static void expectRejected(String name, Runnable action) {
+        try {
+            action.run();
+        } catch (IllegalArgumentException ex) {
+            System.out.println(name + " 已拒绝：" + ex.getMessage());
+            return;
+        }
+        throw new IllegalStateException(name + " 未被拒绝");
+    }
+
+    private static int indexOf(byte[] bytes, byte[] target) {
+        outer:
+        for (int i = 0; i + target.length <= bytes.length; i++) {
+            for (int j = 0; j < target.length; j++) {
+                if (bytes[i + j] != target[j]) continue outer;
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * 非法的缓冲区参数及长度字段损坏的编码内容均以{@link IllegalArgumentException}拒绝
+     */
+    private static void invalid(RemoteMessage sample) {
+        expectRejected("bufferSize=0", () -> new RemoteMessageCodec(new JdkSerializer(), 64, 0, 1 << 20));
+        expectRejected("poolSize=0", () -> new RemoteMessageCodec(new JdkSerializer(), 0, 4096, 1 << 20));
+        RemoteMessageCodec codec = new RemoteMessageCodec(new JdkSerializer(), 1, 1, 1 << 20);
+        byte[] bytes = codec.serialize(sample);
+        if (!codec.deserialize(bytes).id.equals(sample.id)) {
+            throw new IllegalStateException("1字节初始缓冲区编码错误");
+        }
+        //消息ID以字符串长度加ASCII字节编码，长度字段位于ID字节之前
+        byte[] id = sample.id.getBytes(StandardCharsets.US_ASCII);
+        int lengthIndex = indexOf(bytes, id) - 1;
+        if (lengthIndex < 0 || bytes[lengthIndex] != id.length || id.length < 4) {
+            throw new IllegalStateException("未找到消息ID的长度字段");
+        }
+        byte[] negative = bytes.clone();
+        negative[lengthIndex] = (byte) 0xFF;
+        negative[lengthIndex + 1] = (byte) 0xFF;
+        negative[lengthIndex + 2] = (byte) 0xFF;
+        negative[lengthIndex + 3] = (byte) 0xFF;
+        negative[lengthIndex + 4] = (byte) 0x0F;
+        expectRejected("负数长度", () -> codec.deserialize(negative));
+        byte[] oversized = bytes.clone();
+        oversized[lengthIndex] = (byte) 0x7F;
+        expectRejected("超出剩余字节的长度", () -> codec.deserialize(oversized));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Facade facade = FacadeFactory.getFacade();
+        CapturePostman postman = new CapturePostman();
+        facade.initRemoteMessagePostman(postman);
+
+        RemoteMessage simple = capture(postman, () -> new Message(1001, "hello world"));
+        RemoteMessage withResult = capture(postman, () -> {
+            Message msg = new Message("player_login", 10086L);
+            msg.setResult("ResultMsg", new AsynResult<>());
+            msg.setResult("ResultCount", new AsynResult<>());
+            return msg;
+        });
+        postman.initBatching(64, 1, TimeUnit.SECONDS);
+        for (int i = 0; i < 64; i++) {
+            facade.sendRemoteMessage(new Message(1001, "hello world " + i));
+        }
+        postman.closeBatching();
+        RemoteMessage batch = postman.last;
+
+        invalid(simple);
+        compare("int+String", simple, ROUNDS);
+        compare("String+results", withResult, ROUNDS);
+        compare("batch of " + ((RemoteMessageBatch) batch).size(), batch, ROUNDS / 50);
+        System.exit(0);
+    }
+
+}
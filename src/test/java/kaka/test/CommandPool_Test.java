@@ -0,0 +1,84 @@
+package kaka.test;
+
+import com.kaka.notice.Command;
+import com.kaka.notice.Facade;
+import com.kaka.notice.FacadeFactory;
+import com.kaka.notice.Message;
+import com.kaka.util.ObjectPool;
+
+/**
+ * 命令对象池统计范例
+ * <br>
+ * 以{@link Facade#getCommandPoolStatistics(Object)}校验命令对象的复用、重入执行时的未命中与溢出次数，
+ * 以及不池化命令每次均新建对象
+ *
+ * @author zkpursuit
+ */
+public class CommandPool_Test {
+
+    public static class PooledCommand extends Command {
+        @Override
+        public void execute(Message msg) {
+            int depth = (Integer) msg.getBody();
+            if (depth > 1) {
+                //同步重入执行同一命令，重入期间外层命令对象尚未放回对象池
+                sendMessage(new Message(msg.getWhat(), depth - 1));
+            }
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    private static ObjectPool.Statistics statistics(Facade facade, Object cmd) {
+        return facade.getCommandPoolStatistics(cmd).get(PooledCommand.class);
+    }
+
+    public static void main(String[] args) {
+        Facade facade = FacadeFactory.getFacade();
+        facade.registerCommand("pooled", PooledCommand.class, 3);
+        facade.registerCommand("unpooled", PooledCommand.class, -1);
+        facade.registerCommand("large", PooledCommand.class, 1 << 20);
+
+        ObjectPool.Statistics stats = statistics(facade, "pooled");
+        check(stats.max() == 3 && stats.obtains() == 0 && stats.idle() == 0, "未执行时统计数据错误：" + stats);
+
+        //顺序执行时始终复用同一命令对象
+        for (int i = 0; i < 100; i++) {
+            facade.sendMessage(new Message("pooled", 1));
+        }
+        stats = statistics(facade, "pooled");
+        check(stats.obtains() == 100 && stats.misses() == 1 && stats.idle() == 1 && stats.overflows() == 0,
+                "顺序执行时统计数据错误：" + stats);
+
+        //5层重入，池中仅1个闲置对象，新建4个；放回5个对象，超出池化大小的2个被丢弃
+        facade.sendMessage(new Message("pooled", 5));
+        stats = statistics(facade, "pooled");
+        check(stats.obtains() == 105 && stats.misses() == 5 && stats.releases() == 105, "重入执行时获取统计错误：" + stats);
+        check(stats.idle() == 3 && stats.peak() == 3 && stats.overflows() == 2, "重入执行时闲置统计错误：" + stats);
+
+        for (int i = 0; i < 10; i++) {
+            facade.sendMessage(new Message("unpooled", 1));
+        }
+        stats = statistics(facade, "unpooled");
+        check(stats.obtains() == 10 && stats.misses() == 10 && stats.idle() == 0 && stats.hitRatio() == 0,
+                "不池化命令统计数据错误：" + stats);
+
+        //池化大小较大时按需使用链表队列，同样复用命令对象
+        for (int i = 0; i < 10; i++) {
+            facade.sendMessage(new Message("large", 2));
+        }
+        stats = statistics(facade, "large");
+        check(stats.obtains() == 20 && stats.misses() == 2 && stats.idle() == 2, "大池化命令统计数据错误：" + stats);
+
+        check(facade.getCommandPoolStatistics("absent").isEmpty(), "未注册的命令号应返回空统计");
+        System.out.println("pooled: " + statistics(facade, "pooled"));
+        System.out.println("unpooled: " + statistics(facade, "unpooled"));
+        System.out.println("large: " + statistics(facade, "large"));
+        facade.dispose();
+    }
+
+}
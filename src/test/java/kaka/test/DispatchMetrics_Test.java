@@ -0,0 +1,68 @@
+package kaka.test;
+
+import com.kaka.notice.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+
+/**
+ * 事件派发统计范例
+ * <br>
+ * 先以{@link Dispatch_Test}对比关闭与开启统计时的同步派发吞吐量，再以异步方式派发并输出统计数据快照；
+ * 以系统属性dispatch_baseline传入在引入统计接口之前的版本上运行{@link Dispatch_Test}得到的吞吐量时，
+ * 同时输出关闭统计时相对该基线的比例
+ *
+ * @author zkpursuit
+ */
+public class DispatchMetrics_Test {
+
+    public static class MetricsCommand extends Command {
+        @Override
+        public void execute(Message msg) {
+            if (msg.getBody() instanceof Integer i && i % 1000 == 999) {
+                throw new IllegalStateException("error " + i);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Facade facade = FacadeFactory.getFacade();
+        facade.initThreadPool(Executors.newFixedThreadPool(4));
+        facade.registerCommand("metrics", MetricsCommand.class, 16);
+        facade.addListener("metrics", (msg, _facade) -> {
+        });
+        DispatchMetrics metrics = new DispatchMetrics();
+        Facade bench = Dispatch_Test.init(FacadeFactory.getFacade("dispatch_bench"));
+        String baselineValue = System.getProperty("dispatch_baseline");
+        double baseline = baselineValue == null ? 0 : Double.parseDouble(baselineValue);
+        for (int round = 0; round < 5; round++) {
+            bench.initDispatchMetrics(null);
+            double disabled = Dispatch_Test.run(bench);
+            bench.initDispatchMetrics(metrics);
+            double enabled = Dispatch_Test.run(bench);
+            if (baseline > 0) {
+                System.out.printf("baseline=%.1f ops/ms\tdisabled=%.1f ops/ms (%.1f%%)\tenabled=%.1f ops/ms%n",
+                        baseline, disabled, disabled * 100 / baseline, enabled);
+            } else {
+                System.out.printf("disabled=%.1f ops/ms\tenabled=%.1f ops/ms%n", disabled, enabled);
+            }
+        }
+        bench.dispose();
+
+        metrics.reset();
+        facade.initDispatchMetrics(metrics);
+        //每1000个消息中有1个在命令执行器中抛出异常，后续的事件监听器不会执行
+        CountDownLatch latch = new CountDownLatch(10_000 - 10);
+        facade.addListener("metrics", (msg, _facade) -> latch.countDown());
+        for (int i = 0; i < 10_000; i++) {
+            facade.sendMessage(new Message("metrics", i), Message.ExecuteType.ASYN_THREAD);
+        }
+        latch.await();
+        metrics.export(facade, snapshot -> {
+            snapshot.handlers().forEach(System.out::println);
+            snapshot.queueWaits().forEach(System.out::println);
+        });
+        System.exit(0);
+    }
+
+}
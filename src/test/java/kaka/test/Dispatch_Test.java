@@ -0,0 +1,58 @@
+package kaka.test;
+
+import com.kaka.notice.Command;
+import com.kaka.notice.Facade;
+import com.kaka.notice.FacadeFactory;
+import com.kaka.notice.Message;
+
+/**
+ * 同步派发吞吐量基准
+ * <br>
+ * 同一事件名注册1个池化命令执行器及1个事件监听器，以同一消息对象连续同步派发；
+ * 仅使用引入事件派发统计接口之前即已存在的API，可在该版本上编译运行得到基线吞吐量，
+ * 再以系统属性dispatch_baseline传入{@link DispatchMetrics_Test}与关闭统计时的吞吐量对比
+ *
+ * @author zkpursuit
+ */
+public class Dispatch_Test {
+
+    static final int TOTAL = 5_000_000;
+    static final String WHAT = "dispatch";
+
+    public static class DispatchCommand extends Command {
+        @Override
+        public void execute(Message msg) {
+        }
+    }
+
+    static Facade init(Facade facade) {
+        facade.registerCommand(WHAT, DispatchCommand.class, 16);
+        facade.addListener(WHAT, (msg, _facade) -> {
+        });
+        return facade;
+    }
+
+    /**
+     * 连续同步派发
+     *
+     * @param facade 已调用{@link #init(Facade)}的{@link Facade}
+     * @return 吞吐量，单位次/毫秒
+     */
+    static double run(Facade facade) {
+        Message message = new Message(WHAT);
+        long t1 = System.nanoTime();
+        for (int i = 0; i < TOTAL; i++) {
+            facade.sendMessage(message);
+        }
+        return TOTAL / ((System.nanoTime() - t1) / 1e6);
+    }
+
+    public static void main(String[] args) {
+        Facade facade = init(FacadeFactory.getFacade());
+        for (int round = 0; round < 5; round++) {
+            System.out.printf("dispatch=%.1f ops/ms%n", run(facade));
+        }
+        facade.dispose();
+    }
+
+}
@@ -0,0 +1,213 @@
+package kaka.test;
+
+import com.kaka.notice.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 控制命令子命令执行范例
+ * <br>
+ * 对比{@link MacroCommand}按顺序执行与{@link ParallelMacroCommand}按依赖关系并行执行的耗时，
+ * 并演示子命令异常时的快速失败及执行超时；以类添加的子命令从对象池中取出，多线程同时执行时互不干扰
+ *
+ * @author zkpursuit
+ */
+public class Macro_Test {
+
+    public static class SleepCommand extends Command {
+        private final String name;
+        private final long millis;
+
+        SleepCommand(String name, long millis) {
+            this.name = name;
+            this.millis = millis;
+        }
+
+        @Override
+        public void execute(Message msg) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                System.out.println(name + " 被中断");
+                return;
+            }
+            System.out.println(name + " 执行完成");
+        }
+    }
+
+    public static class FailCommand extends Command {
+        @Override
+        public void execute(Message msg) {
+            throw new IllegalStateException("加载背包失败");
+        }
+    }
+
+    public static class SequentialLoginCommand extends MacroCommand {
+        @Override
+        protected void initializeMacroCommand() {
+            addSubCommand(new SleepCommand("加载角色", 50));
+            addSubCommand(new SleepCommand("加载背包", 50));
+            addSubCommand(new SleepCommand("加载好友", 50));
+            addSubCommand(new SleepCommand("进入场景", 20));
+        }
+    }
+
+    public static class ParallelLoginCommand extends ParallelMacroCommand {
+        @Override
+        protected void initializeMacroCommand() {
+            Command role = new SleepCommand("加载角色", 50);
+            Command bag = new SleepCommand("加载背包", 50);
+            Command friend = new SleepCommand("加载好友", 50);
+            addSubCommand(role);
+            addSubCommand(bag);
+            addSubCommand(friend);
+            addSubCommand(new SleepCommand("进入场景", 20), role, bag);
+        }
+    }
+
+    public static class FailFastLoginCommand extends ParallelMacroCommand {
+        @Override
+        protected void initializeMacroCommand() {
+            Command role = new SleepCommand("加载角色", 1000);
+            Command bag = new FailCommand();
+            addSubCommand(role);
+            addSubCommand(bag);
+            addSubCommand(new SleepCommand("进入场景", 20), role, bag);
+        }
+    }
+
+    public static class TimeoutLoginCommand extends ParallelMacroCommand {
+        @Override
+        protected void initializeMacroCommand() {
+            addSubCommand(new SleepCommand("加载角色", 1000));
+            setTimeout(100, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static final LongAdder pooledExecuted = new LongAdder();
+    private static final LongAdder pooledConflicts = new LongAdder();
+
+    public static class PooledSubCommand extends Command {
+        private final AtomicBoolean busy = new AtomicBoolean();
+
+        @Override
+        public void execute(Message msg) {
+            if (!busy.compareAndSet(false, true)) {
+                pooledConflicts.increment();
+            }
+            if (cmd() == null) {
+                pooledConflicts.increment();
+            }
+            pooledExecuted.increment();
+            busy.set(false);
+        }
+    }
+
+    public static class PooledSubCommand2 extends PooledSubCommand {
+    }
+
+    public static class PooledMacroCommand extends MacroCommand {
+        @Override
+        protected void initializeMacroCommand() {
+            addSubCommand(PooledSubCommand.class);
+            addSubCommand(PooledSubCommand2.class);
+        }
+    }
+
+    private static void pooled(Facade facade) throws InterruptedException {
+        facade.registerCommand("pooled", PooledMacroCommand.class, 64);
+        final int threads = 8, perThread = 200_000;
+        Thread[] workers = new Thread[threads];
+        long t1 = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(() -> {
+                for (int j = 0; j < perThread; j++) {
+                    facade.sendMessage(new Message("pooled", j));
+                }
+            });
+            workers[i].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        System.out.printf("pooled 子命令执行次数=%d 冲突次数=%d 耗时：%dms%n", pooledExecuted.sum(), pooledConflicts.sum(),
+                (System.nanoTime() - t1) / 1_000_000);
+    }
+
+    private static final LongAdder countedInstances = new LongAdder();
+
+    public static class CountedSubCommand extends Command {
+        public CountedSubCommand() {
+            countedInstances.increment();
+        }
+
+        @Override
+        public void execute(Message msg) {
+        }
+    }
+
+    public static class PooledCountedMacroCommand extends MacroCommand {
+        @Override
+        protected void initializeMacroCommand() {
+            addSubCommand(CountedSubCommand.class, 8);
+        }
+    }
+
+    public static class UnpooledCountedMacroCommand extends MacroCommand {
+        @Override
+        protected void initializeMacroCommand() {
+            addSubCommand(CountedSubCommand.class, -1);
+        }
+    }
+
+    /**
+     * 同一子命令类以不同池化大小添加时使用各自的对象池，先注册的池化大小不影响后注册的控制命令
+     */
+    private static void pooledSize(Facade facade) {
+        facade.registerCommand("pooled_counted", PooledCountedMacroCommand.class);
+        facade.registerCommand("unpooled_counted", UnpooledCountedMacroCommand.class);
+        final int times = 100;
+        for (int i = 0; i < times; i++) {
+            facade.sendMessage(new Message("pooled_counted"));
+        }
+        long pooledInstances = countedInstances.sumThenReset();
+        for (int i = 0; i < times; i++) {
+            facade.sendMessage(new Message("unpooled_counted"));
+        }
+        long unpooledInstances = countedInstances.sum();
+        if (pooledInstances != 1 || unpooledInstances != times) {
+            throw new IllegalStateException("子命令池化大小冲突：pooled=" + pooledInstances + " unpooled=" + unpooledInstances);
+        }
+        System.out.printf("子命令实例数 pooled=%d unpooled=%d%n", pooledInstances, unpooledInstances);
+    }
+
+    private static void login(Facade facade, String what) {
+        long t1 = System.nanoTime();
+        try {
+            facade.sendMessage(new Message(what));
+        } catch (RuntimeException ex) {
+            System.out.println(what + " 异常：" + ex.getMessage());
+        }
+        System.out.println(what + " 耗时：" + (System.nanoTime() - t1) / 1_000_000 + "ms");
+    }
+
+    public static void main(String[] args) throws Exception {
+        Facade facade = FacadeFactory.getFacade();
+        facade.registerCommand("sequential", SequentialLoginCommand.class);
+        facade.registerCommand("parallel", ParallelLoginCommand.class);
+        facade.registerCommand("fail_fast", FailFastLoginCommand.class);
+        facade.registerCommand("timeout", TimeoutLoginCommand.class);
+        login(facade, "sequential");
+        login(facade, "parallel");
+        login(facade, "parallel");
+        login(facade, "fail_fast");
+        login(facade, "timeout");
+        pooled(facade);
+        pooledSize(facade);
+        TimeUnit.MILLISECONDS.sleep(50);
+        facade.dispose();
+    }
+
+}
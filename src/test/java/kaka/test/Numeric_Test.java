@@ -0,0 +1,163 @@
+package kaka.test;
+
+import com.kaka.numerical.Numeric;
+import com.kaka.numerical.NumericConfig;
+import com.kaka.numerical.NumericDetector;
+import com.kaka.numerical.TextNumericConfig;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 数值配置分层并发加载范例
+ * <br>
+ * 两个优先级共6张数值表，校验高优先级的表全部加载完成后才加载低优先级的表，并对比串行与并发加载的耗时
+ *
+ * @author zkpursuit
+ */
+public class Numeric_Test {
+
+    private static final int ROWS = 100_000;
+    private static final Map<String, long[]> timeline = new ConcurrentHashMap<>();
+
+    public static class Info {
+        private int id;
+        private String name;
+        private long exp;
+        private double weight;
+    }
+
+    public static abstract class InfoConfig extends TextNumericConfig<Info> {
+        final List<Info> infos = new ArrayList<>();
+
+        @Override
+        protected String initDelimiter() {
+            return "\t";
+        }
+
+        @Override
+        protected void cacheObject(Info info) {
+            infos.add(info);
+        }
+
+        @Override
+        protected void parseBefore() {
+            infos.clear();
+        }
+
+        @Override
+        protected void parseAfter() {
+        }
+    }
+
+    @Numeric(src = "item", priority = 2, context = "numeric_test")
+    public static class ItemConfig extends InfoConfig {
+    }
+
+    @Numeric(src = "skill", priority = 2, context = "numeric_test")
+    public static class SkillConfig extends InfoConfig {
+    }
+
+    @Numeric(src = "monster", priority = 2, context = "numeric_test")
+    public static class MonsterConfig extends InfoConfig {
+    }
+
+    @Numeric(src = "drop", priority = 1, context = "numeric_test")
+    public static class DropConfig extends InfoConfig {
+    }
+
+    @Numeric(src = "shop", priority = 1, context = "numeric_test")
+    public static class ShopConfig extends InfoConfig {
+    }
+
+    @Numeric(src = "quest", priority = 1, context = "numeric_test")
+    public static class QuestConfig extends InfoConfig {
+    }
+
+    private static final Class<?>[] CLASSES = {DropConfig.class, ItemConfig.class, ShopConfig.class,
+            SkillConfig.class, QuestConfig.class, MonsterConfig.class};
+
+    private static File writeTable() throws Exception {
+        File file = File.createTempFile("numeric", ".txt");
+        file.deleteOnExit();
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write("说明行\n");
+            writer.write("id\tname\texp\tweight\n");
+            for (int i = 0; i < ROWS; i++) {
+                writer.write(i + "\t名称" + i + "\t" + (i * 1000L) + "\t" + (i % 9) + ".25\n");
+            }
+        }
+        return file;
+    }
+
+    private static long load(NumericDetector detector) {
+        timeline.clear();
+        for (Class<?> cls : CLASSES) {
+            detector.discern(cls);
+        }
+        long t1 = System.nanoTime();
+        detector.centralizeProcess();
+        return System.nanoTime() - t1;
+    }
+
+    private static void checkTiers() {
+        long highEnd = 0, lowStart = Long.MAX_VALUE;
+        for (Map.Entry<String, long[]> entry : timeline.entrySet()) {
+            String name = entry.getKey();
+            long[] times = entry.getValue();
+            if (name.equals("item") || name.equals("skill") || name.equals("monster")) {
+                highEnd = Math.max(highEnd, times[1]);
+            } else {
+                lowStart = Math.min(lowStart, times[0]);
+            }
+        }
+        if (timeline.size() != CLASSES.length || highEnd > lowStart) {
+            throw new IllegalStateException("优先级分层加载顺序错误");
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        File file = writeTable();
+        NumericDetector.Loader loader = (NumericConfig<?> config, Numeric numeric) -> {
+            long start = System.nanoTime();
+            ((InfoConfig) config).parse(file, "UTF-8", 1);
+            if (((InfoConfig) config).infos.size() != ROWS) {
+                throw new IllegalStateException("行数错误：" + numeric.src());
+            }
+            timeline.put(numeric.src(), new long[]{start, System.nanoTime()});
+        };
+        NumericDetector serial = new NumericDetector(loader, Runnable::run);
+        NumericDetector parallel = new NumericDetector(loader);
+        long bestSerial = Long.MAX_VALUE, bestParallel = Long.MAX_VALUE;
+        for (int round = 0; round < 3; round++) {
+            bestSerial = Math.min(bestSerial, load(serial));
+            checkTiers();
+            bestParallel = Math.min(bestParallel, load(parallel));
+            checkTiers();
+        }
+        NumericDetector failing = new NumericDetector((config, numeric) -> {
+            if (numeric.priority() == 2) throw new IllegalStateException("模拟加载失败：" + numeric.src());
+            timeline.put(numeric.src(), new long[2]);
+        });
+        try {
+            load(failing);
+            throw new IllegalStateException("加载失败未抛出异常");
+        } catch (RuntimeException ex) {
+            if (!timeline.isEmpty() || ex.getSuppressed().length != 2) {
+                throw new IllegalStateException("加载失败后仍加载了低优先级的数值表", ex);
+            }
+            System.out.println("加载失败：" + ex.getMessage() + "，合并异常" + ex.getSuppressed().length + "个");
+        }
+        System.out.println("CPU核数：" + Runtime.getRuntime().availableProcessors());
+        System.out.printf("串行加载%d张表：%d 毫秒%n", CLASSES.length, bestSerial / 1_000_000);
+        System.out.printf("分层并发加载%d张表：%d 毫秒%n", CLASSES.length, bestParallel / 1_000_000);
+    }
+
+}
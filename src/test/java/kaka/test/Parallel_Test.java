@@ -0,0 +1,139 @@
+package kaka.test;
+
+import com.kaka.notice.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 事件消息并行派发范例
+ * <br>
+ * 同一事件名注册两层{@link Command}及20个各耗时10毫秒的事件监听器，对比顺序派发与并行派发的单条事件消息耗时，
+ * 并校验下一层级的事件处理器执行时上一层级已全部完成；
+ * 设置异步执行限流器后派生的虚拟线程受其执行名额限制，异步派发的事件消息本身占用执行名额时亦不会死锁
+ *
+ * @author zkpursuit
+ */
+public class Parallel_Test {
+
+    private static final String WHAT = "player_login";
+    private static final AtomicInteger firstLevelDone = new AtomicInteger();
+    private static final LongAdder listenerDone = new LongAdder();
+    private static final AtomicInteger listenerRunning = new AtomicInteger();
+    private static final AtomicInteger listenerPeak = new AtomicInteger();
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ignored) {
+        }
+    }
+
+    public static class LoadCommand extends Command {
+        @Override
+        public void execute(Message msg) {
+            sleep(20);
+            firstLevelDone.incrementAndGet();
+        }
+    }
+
+    public static class LoadBagCommand extends LoadCommand {
+    }
+
+    public static class LoginCommand extends Command {
+        @Override
+        public void execute(Message msg) {
+            IResult<Integer> result = msg.getResult("loaded");
+            if (result != null) {
+                result.set(firstLevelDone.get());
+            }
+            returnCallbackResult(firstLevelDone.get());
+        }
+    }
+
+    private static long login(Facade facade) {
+        firstLevelDone.set(0);
+        AtomicInteger observed = new AtomicInteger(-1);
+        long t1 = System.nanoTime();
+        facade.sendMessage(new Message(WHAT, "zkpursuit", result -> {
+            if (result.get() instanceof Integer loaded) {
+                observed.set(loaded);
+            }
+        }));
+        long millis = (System.nanoTime() - t1) / 1_000_000;
+        check(observed.get() == 2, "上一层级未执行完成：" + observed.get());
+        return millis;
+    }
+
+    /**
+     * 限流器的执行名额被异步派发的事件消息本身占用时，剩余的事件处理器由派发线程执行
+     *
+     * @param facade 已设置并行派发的{@link Facade}
+     */
+    private static void limited(Facade facade) throws Exception {
+        final int maxInFlight = 4;
+        facade.initAsynLimiter(WHAT, new AsynLimiter(maxInFlight, 16, AsynLimiter.OverflowPolicy.FAIL));
+        listenerPeak.set(0);
+        long before = listenerDone.sum();
+        List<AsynResult<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < maxInFlight; i++) {
+            firstLevelDone.set(0);
+            Message msg = new Message(WHAT, "zkpursuit");
+            results.add(msg.setResult("loaded", new AsynResult<>()));
+            facade.sendMessage(msg, Message.ExecuteType.ASYN_VIRTUAL_THREAD);
+        }
+        for (AsynResult<Integer> result : results) {
+            check(result.get(10, TimeUnit.SECONDS) != null, "限流时并行派发未完成");
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (listenerDone.sum() - before < maxInFlight * 20L && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        check(listenerDone.sum() - before == maxInFlight * 20L, "限流时监听器执行次数错误：" + (listenerDone.sum() - before));
+        //每条事件消息的派发线程本身占用一个执行名额，派生的虚拟线程与派发线程合计不超过执行名额
+        check(listenerPeak.get() <= maxInFlight, "限流时同时执行的监听器数量超出执行名额：" + listenerPeak.get());
+        System.out.println("限流时同时执行的监听器数量峰值：" + listenerPeak.get());
+        facade.initAsynLimiter(WHAT, null);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Facade facade = FacadeFactory.getFacade();
+        facade.registerCommand(WHAT, LoadCommand.class, 4, 1);
+        facade.registerCommand(WHAT, LoadBagCommand.class, 4, 1);
+        facade.registerCommand(WHAT, LoginCommand.class, 4, 2);
+        for (int i = 0; i < 20; i++) {
+            final int index = i;
+            facade.addListener(WHAT, (msg, _facade) -> {
+                listenerPeak.accumulateAndGet(listenerRunning.incrementAndGet(), Math::max);
+                sleep(10 + index % 2);
+                listenerRunning.decrementAndGet();
+                listenerDone.increment();
+            });
+        }
+
+        System.out.println("顺序派发耗时：" + login(facade) + "ms");
+        facade.initParallelDispatch(WHAT, true);
+        login(facade);
+        System.out.println("并行派发耗时：" + login(facade) + "ms");
+
+        firstLevelDone.set(0);
+        Message msg = new Message(WHAT, "zkpursuit");
+        AsynResult<Integer> loaded = msg.setResult("loaded", new AsynResult<>());
+        facade.sendMessage(msg, Message.ExecuteType.ASYN_VIRTUAL_THREAD);
+        check(loaded.get(10, TimeUnit.SECONDS) == 2, "异步并行派发时上一层级未执行完成：" + loaded.get());
+        System.out.println("监听器执行次数：" + listenerDone.sum());
+
+        limited(facade);
+        facade.dispose();
+    }
+
+}
@@ -0,0 +1,106 @@
+package kaka.test;
+
+import com.kaka.numerical.IAnalyzer;
+import com.kaka.numerical.NumericField;
+import com.kaka.numerical.TextParser;
+
+import java.lang.reflect.Field;
+import java.util.List;
+
+/**
+ * 数值配置解析性能范例
+ * <br>
+ * 对比逐字段反射赋值与按类编译的字段绑定器解析相同数据行的速度
+ *
+ * @author zkpursuit
+ */
+public class Parser_Test {
+
+    private static final int ROWS = 200_000;
+    private static final String[] TITLES = {"id", "name", "level", "reward1", "reward2", "weight", "enabled"};
+
+    public static class ListConverter implements NumericField.Converter<Integer[]> {
+        @Override
+        public Integer[] convert(String value) {
+            if (value == null || value.isEmpty()) return null;
+            String[] parts = value.split(",");
+            Integer[] result = new Integer[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                result[i] = Integer.parseInt(parts[i]);
+            }
+            return result;
+        }
+    }
+
+    public static class Info {
+        private int id;
+        private String name;
+        @NumericField(elements = {" le vel "})
+        private int level;
+        @NumericField(elements = {"reward1", "reward2"}, converter = ListConverter.class)
+        private List<Integer> rewards;
+        private double weight;
+        private boolean enabled;
+
+        @Override
+        public String toString() {
+            return id + "|" + name + "|" + level + "|" + rewards + "|" + weight + "|" + enabled;
+        }
+    }
+
+    /**
+     * 重写逐字段赋值方法的解析器，走逐字段反射赋值流程
+     */
+    public static class FieldByFieldParser extends TextParser {
+        @Override
+        protected <T> void doParse(T object, Field field, IAnalyzer analyzer) throws Exception {
+            super.doParse(object, field, analyzer);
+        }
+    }
+
+    private static String[][] rows() {
+        String[][] rows = new String[ROWS][];
+        for (int i = 0; i < ROWS; i++) {
+            rows[i] = new String[]{String.valueOf(i), "name" + i, String.valueOf(i % 100),
+                    i + "," + (i + 1), String.valueOf(i + 2), (i % 7) + ".5", i % 2 == 0 ? "TRUE" : "0"};
+        }
+        return rows;
+    }
+
+    private static long run(TextParser parser, String[][] rows, Info[] out) throws Exception {
+        long t1 = System.nanoTime();
+        for (int i = 0; i < rows.length; i++) {
+            out[i] = parser.doParse(rows[i], TITLES, Info.class);
+        }
+        return System.nanoTime() - t1;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String[][] rows = rows();
+        Info[] legacy = new Info[ROWS];
+        Info[] bound = new Info[ROWS];
+        TextParser legacyParser = new FieldByFieldParser();
+        TextParser parser = new TextParser();
+        long bestLegacy = Long.MAX_VALUE, bestBound = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            bestLegacy = Math.min(bestLegacy, run(legacyParser, rows, legacy));
+            bestBound = Math.min(bestBound, run(parser, rows, bound));
+        }
+        for (int i = 0; i < ROWS; i++) {
+            if (!legacy[i].toString().equals(bound[i].toString())) {
+                throw new IllegalStateException("解析结果不一致：" + legacy[i] + " != " + bound[i]);
+            }
+        }
+        System.out.println("样例：" + bound[ROWS - 1]);
+        String[] shortRow = {" 7 ", " x ", "NULL"};
+        String legacyShort = legacyParser.doParse(shortRow, TITLES, Info.class).toString();
+        String boundShort = parser.doParse(shortRow, TITLES, Info.class).toString();
+        if (!legacyShort.equals(boundShort)) {
+            throw new IllegalStateException("缺列数据行解析结果不一致：" + legacyShort + " != " + boundShort);
+        }
+        System.out.println("缺列样例：" + boundShort);
+        System.out.printf("逐字段反射赋值：%.0f 行/秒%n", ROWS * 1e9 / bestLegacy);
+        System.out.printf("字段绑定器：%.0f 行/秒%n", ROWS * 1e9 / bestBound);
+    }
+
+}
@@ -0,0 +1,91 @@
+package kaka.test;
+
+import com.kaka.notice.Message;
+import com.kaka.notice.Pooled;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * 事件消息对象池竞争测试
+ * <br>
+ * 运行参数为对象池策略，queue或striped，分别以平台线程和虚拟线程测试获取及回收的吞吐量；
+ * 并测试一个平台线程获取、另一个平台线程回收时的吞吐量，striped策略下对象以整组在线程私有缓存与共享仓库间交换
+ *
+ * @author zkpursuit
+ */
+public class Pooled_Test {
+
+    private static final int TOTAL = 8_000_000;
+
+    private static long run(int threads, boolean virtual) throws InterruptedException {
+        final int perThread = TOTAL / threads;
+        CountDownLatch latch = new CountDownLatch(threads);
+        Runnable task = () -> {
+            for (int i = 0; i < perThread; i++) {
+                Message msg = Pooled.message(Message.class, () -> new Message(null));
+                msg.set(i, null);
+                msg.reset();
+            }
+            latch.countDown();
+        };
+        long t1 = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            if (virtual) {
+                Thread.ofVirtual().start(task);
+            } else {
+                new Thread(task).start();
+            }
+        }
+        latch.await();
+        return System.nanoTime() - t1;
+    }
+
+    /**
+     * 生产线程获取消息，消费线程回收消息
+     *
+     * @return 耗时，单位纳秒
+     */
+    private static long handoff() throws InterruptedException {
+        final BlockingQueue<Message[]> queue = new ArrayBlockingQueue<>(64);
+        final int batch = 256;
+        final int batches = TOTAL / batch;
+        Thread consumer = new Thread(() -> {
+            try {
+                for (int i = 0; i < batches; i++) {
+                    for (Message msg : queue.take()) {
+                        msg.reset();
+                    }
+                }
+            } catch (InterruptedException ignored) {
+            }
+        });
+        long t1 = System.nanoTime();
+        consumer.start();
+        for (int i = 0; i < batches; i++) {
+            Message[] messages = new Message[batch];
+            for (int j = 0; j < batch; j++) {
+                messages[j] = Pooled.message(Message.class, () -> new Message(null)).set(j, null);
+            }
+            queue.put(messages);
+        }
+        consumer.join();
+        return System.nanoTime() - t1;
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("msg_pool_strategy", args.length > 0 ? args[0] : "striped");
+        System.out.println("msg_pool_strategy=" + System.getProperty("msg_pool_strategy"));
+        for (int round = 0; round < 2; round++) {
+            for (int threads : new int[]{1, 8, 32, 64}) {
+                long platform = run(threads, false);
+                long virtual = run(threads, true);
+                System.out.printf("threads=%d\tplatform=%.1f ops/ms\tvirtual=%.1f ops/ms%n", threads,
+                        TOTAL / (platform / 1e6), TOTAL / (virtual / 1e6));
+            }
+            System.out.printf("handoff\tplatform=%.1f ops/ms%n", TOTAL / (handoff() / 1e6));
+        }
+    }
+
+}
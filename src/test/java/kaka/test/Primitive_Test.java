@@ -0,0 +1,109 @@
+package kaka.test;
+
+import com.kaka.notice.Command;
+import com.kaka.notice.Facade;
+import com.kaka.notice.FacadeFactory;
+import com.kaka.notice.IListener;
+import com.kaka.notice.Message;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 数值型事件名派发范例
+ * <br>
+ * 校验int、short、long事件名的免装箱派发与以{@link Object}为事件名派发到达相同的事件处理器，
+ * 移除监听器及命令后两种派发方式同样不再到达；并统计启动时连续注册大量数值型事件名的耗时
+ *
+ * @author zkpursuit
+ */
+public class Primitive_Test {
+
+    private static final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    private static void count(String handler, Message msg) {
+        counters.computeIfAbsent(handler + ":" + msg.getWhat() + ":" + msg.getBody(), k -> new LongAdder()).increment();
+    }
+
+    private static long count(String handler, Object what, Object body) {
+        LongAdder adder = counters.get(handler + ":" + what + ":" + body);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    public static class CountCommand extends Command {
+        @Override
+        public void execute(Message msg) {
+            count("command", msg);
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    /**
+     * 以数值型及Object型事件名各派发一次，校验两次均到达相同的事件处理器
+     */
+    private static void checkBoth(Facade facade, Object what, Runnable primitiveSend, long expectedCommand, long expectedListener) {
+        primitiveSend.run();
+        facade.sendMessage(new Message(what, "object"));
+        check(count("command", what, "primitive") == expectedCommand && count("command", what, "object") == expectedCommand,
+                what + " 命令执行次数错误：" + counters);
+        check(count("listener", what, "primitive") == expectedListener && count("listener", what, "object") == expectedListener,
+                what + " 监听器执行次数错误：" + counters);
+        counters.clear();
+    }
+
+    public static void main(String[] args) {
+        Facade facade = FacadeFactory.getFacade();
+        IListener listener = (msg, _facade) -> count("listener", msg);
+
+        //启动时连续注册大量数值型事件名，路由表仅在首次派发时重建一次
+        final int opcodes = 20_000;
+        long t1 = System.nanoTime();
+        for (int i = 0; i < opcodes; i++) {
+            facade.registerCommand(100_000 + i, CountCommand.class);
+        }
+        long registerMillis = (System.nanoTime() - t1) / 1_000_000;
+        for (int i = 0; i < opcodes; i += 997) {
+            final int what = 100_000 + i;
+            checkBoth(facade, what, () -> facade.sendMessage(what, "primitive"), 1, 0);
+        }
+
+        facade.registerCommand(1001, CountCommand.class);
+        facade.addListener(1001, listener);
+        facade.registerCommand((short) 7, CountCommand.class);
+        facade.addListener((short) 7, listener);
+        facade.registerCommand(1L << 40, CountCommand.class);
+        facade.addListener(1L << 40, listener);
+        checkBoth(facade, 1001, () -> facade.sendMessage(1001, "primitive"), 1, 1);
+        checkBoth(facade, (short) 7, () -> facade.sendMessage((short) 7, "primitive", Message.ExecuteType.SYNC), 1, 1);
+        checkBoth(facade, 1L << 40, () -> facade.sendMessage(1L << 40, "primitive"), 1, 1);
+
+        //不同数值类型的同值事件名互不干扰
+        facade.sendMessage((long) 1001, "primitive");
+        facade.sendMessage((short) 1001, "primitive");
+        check(counters.isEmpty(), "不同数值类型的事件名被错误派发：" + counters);
+
+        facade.removeListener(1001);
+        facade.removeListener((short) 7, listener);
+        facade.removeCommand(1L << 40);
+        checkBoth(facade, 1001, () -> facade.sendMessage(1001, "primitive"), 1, 0);
+        checkBoth(facade, (short) 7, () -> facade.sendMessage((short) 7, "primitive"), 1, 0);
+        checkBoth(facade, 1L << 40, () -> facade.sendMessage(1L << 40, "primitive"), 0, 1);
+
+        facade.removeCommand(1001);
+        facade.removeCommand((short) 7);
+        facade.removeListener(1L << 40);
+        checkBoth(facade, 1001, () -> facade.sendMessage(1001, "primitive"), 0, 0);
+        checkBoth(facade, (short) 7, () -> facade.sendMessage((short) 7, "primitive"), 0, 0);
+        checkBoth(facade, 1L << 40, () -> facade.sendMessage(1L << 40, "primitive"), 0, 0);
+
+        System.out.printf("连续注册%d个int事件名耗时：%dms，数值型与Object型事件名派发一致%n", opcodes, registerMillis);
+        facade.dispose();
+    }
+
+}
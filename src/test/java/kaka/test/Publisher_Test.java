@@ -0,0 +1,127 @@
+package kaka.test;
+
+import com.kaka.notice.Facade;
+import com.kaka.notice.FacadeFactory;
+import com.kaka.notice.Message;
+import com.kaka.notice.MessagePublisher;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 事件消息流订阅范例
+ * <br>
+ * 一个快速订阅者与一个慢速订阅者同时订阅同一事件名，派发线程不受慢速订阅者影响，慢速订阅者缓冲区满后的事件消息被丢弃；
+ * 派发线程每派发一批即等待快速订阅者消费完成，以校验快速订阅者收到全部事件消息而丢弃数量均来自慢速订阅者。
+ * 并校验移除事件名的监听器时发布者一并关闭
+ *
+ * @author zkpursuit
+ */
+public class Publisher_Test {
+
+    private static final int TOTAL = 100_000;
+    private static final int BATCH = 128;
+
+    private static class CountingSubscriber implements Flow.Subscriber<Message> {
+        final String name;
+        final long delayMillis;
+        final LongAdder received = new LongAdder();
+        final CountDownLatch completed = new CountDownLatch(1);
+        Flow.Subscription subscription;
+
+        CountingSubscriber(String name, long delayMillis) {
+            this.name = name;
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(16);
+        }
+
+        @Override
+        public void onNext(Message item) {
+            received.increment();
+            if (delayMillis > 0) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(delayMillis);
+                } catch (InterruptedException ignored) {
+                }
+            }
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            throwable.printStackTrace();
+            completed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            System.out.println(name + " completed, received=" + received.sum());
+            completed.countDown();
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    private static void removeListener(Facade facade) throws InterruptedException {
+        MessagePublisher publisher = facade.publisher("removed");
+        CountingSubscriber subscriber = new CountingSubscriber("removed", 0);
+        publisher.subscribe(subscriber);
+        facade.removeListener("removed");
+        check(publisher.isClosed(), "移除事件名的监听器后发布者未关闭");
+        check(subscriber.completed.await(5, TimeUnit.SECONDS), "移除事件名的监听器后订阅者未收到onComplete");
+        MessagePublisher renewed = facade.publisher("removed");
+        check(renewed != publisher && !renewed.isClosed(), "移除事件名的监听器后未创建新的发布者");
+
+        facade.removeListener("removed", renewed);
+        check(renewed.isClosed() && facade.publisher("removed") != renewed, "移除发布者监听器后发布者未关闭");
+    }
+
+    public static void main(String[] args) throws Exception {
+        Facade facade = FacadeFactory.getFacade();
+        MessagePublisher publisher = facade.publisher("stream", 256);
+        CountingSubscriber fast = new CountingSubscriber("fast", 0);
+        CountingSubscriber slow = new CountingSubscriber("slow", 1);
+        publisher.subscribe(fast);
+        publisher.subscribe(slow);
+
+        long t1 = System.nanoTime();
+        long waitNanos = 0;
+        for (int i = 0; i < TOTAL; i++) {
+            facade.sendMessage(new Message("stream", i));
+            if ((i + 1) % BATCH == 0) {
+                //缓冲区大于一批，快速订阅者在下一批派发前消费完成即不会丢弃
+                long w = System.nanoTime();
+                while (fast.received.sum() < i + 1) {
+                    Thread.onSpinWait();
+                    Thread.yield();
+                }
+                waitNanos += System.nanoTime() - w;
+            }
+        }
+        long millis = (System.nanoTime() - t1 - waitNanos) / 1_000_000;
+        System.out.printf("dispatched %d in %dms (excluding %dms waiting for fast), dropped=%d, lag=%d%n", TOTAL, millis,
+                waitNanos / 1_000_000, publisher.getDroppedCount(), publisher.estimateMaximumLag());
+        publisher.close();
+        check(fast.completed.await(10, TimeUnit.SECONDS), "快速订阅者未完成");
+        check(slow.completed.await(60, TimeUnit.SECONDS), "慢速订阅者未完成");
+        check(fast.received.sum() == TOTAL, "快速订阅者未收到全部事件消息：" + fast.received.sum());
+        check(slow.received.sum() < TOTAL, "慢速订阅者应丢弃部分事件消息");
+        check(publisher.getDroppedCount() == TOTAL - slow.received.sum(),
+                "丢弃数量应全部来自慢速订阅者：dropped=" + publisher.getDroppedCount() + "，slow=" + slow.received.sum());
+
+        removeListener(facade);
+        facade.dispose();
+    }
+
+}
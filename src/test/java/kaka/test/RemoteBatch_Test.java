@@ -0,0 +1,162 @@
+package kaka.test;
+
+import com.kaka.notice.*;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 远端事件批量发送范例
+ * <br>
+ * 以内存队列模拟消息队列，远端事件以默认的{@link RemoteMessageCodec}编码，每次发送模拟50微秒的网络耗时；发送方与处理方为两个独立的{@link Facade}，
+ * 对比逐个发送与批量发送时的消息队列发送次数及全部远端事件获得处理结果的耗时；
+ * 并校验{@link Facade#dispose()}时发送完批量发送队列中的远端事件
+ *
+ * @author zkpursuit
+ */
+public class RemoteBatch_Test {
+
+    private static final int TOTAL = 20_000;
+
+    /**
+     * 内存消息队列
+     */
+    private static class LoopbackBroker {
+        private final Map<String, BlockingQueue<byte[]>> queues = new ConcurrentHashMap<>();
+        private final LongAdder publishes = new LongAdder();
+
+        BlockingQueue<byte[]> queue(String topic) {
+            return queues.computeIfAbsent(topic, k -> new LinkedBlockingQueue<>());
+        }
+
+        void publish(String topic, byte[] bytes) {
+            LockSupport.parkNanos(50_000);
+            publishes.increment();
+            queue(topic).offer(bytes);
+        }
+    }
+
+    private static class LoopbackPostman extends RemoteMessagePostman {
+        private final LoopbackBroker broker;
+
+        LoopbackPostman(LoopbackBroker broker, String consumeTopic) {
+            super("event_exec_before", "event_exec_after");
+            this.broker = broker;
+            Thread.ofVirtual().start(() -> {
+                BlockingQueue<byte[]> queue = broker.queue(consumeTopic);
+                while (true) {
+                    try {
+                        byte[] bytes = queue.take();
+                        facade.sendMessage(remoteMessageSerializer.deserialize(bytes));
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+        }
+
+        @Override
+        protected RemoteMessageCache initRemoteMessageCache() {
+            Map<String, Message> map = new ConcurrentHashMap<>();
+            return new RemoteMessageCache() {
+                @Override
+                public void add(String id, Message message) {
+                    map.put(id, message);
+                }
+
+                @Override
+                public Message get(String id) {
+                    return map.get(id);
+                }
+
+                @Override
+                public Message remove(String id) {
+                    return map.remove(id);
+                }
+            };
+        }
+
+        @Override
+        protected void sendRemoteMessage(RemoteMessage remoteMessage) {
+            broker.publish(remoteMessage.getWhat().toString(), remoteMessageSerializer.serialize(remoteMessage));
+        }
+    }
+
+    public static class DoubleCommand extends Command {
+        @Override
+        public void execute(Message msg) {
+            IResult<Integer> result = msg.getResult("double");
+            result.set((Integer) msg.getBody() * 2);
+        }
+    }
+
+    private static void run(String name, boolean batching) throws Exception {
+        LoopbackBroker broker = new LoopbackBroker();
+        Facade sender = FacadeFactory.getFacade(name + "_sender");
+        Facade worker = FacadeFactory.getFacade(name + "_worker");
+        worker.registerCommand("double", DoubleCommand.class, 16);
+        LoopbackPostman senderPostman = new LoopbackPostman(broker, "event_exec_after");
+        LoopbackPostman workerPostman = new LoopbackPostman(broker, "event_exec_before");
+        if (batching) {
+            senderPostman.initBatching(256, 2, TimeUnit.MILLISECONDS);
+            workerPostman.initBatching(256, 2, TimeUnit.MILLISECONDS);
+        }
+        sender.initRemoteMessagePostman(senderPostman);
+        worker.initRemoteMessagePostman(workerPostman);
+
+        CountDownLatch latch = new CountDownLatch(TOTAL);
+        LongAdder wrong = new LongAdder();
+        long t1 = System.nanoTime();
+        for (int i = 0; i < TOTAL; i++) {
+            final int value = i;
+            Message msg = new Message("double", i);
+            AsynResult<Integer> result = msg.setResult("double", new AsynResult<>());
+            result.thenAccept(v -> {
+                if (v != value * 2) wrong.increment();
+                latch.countDown();
+            });
+            sender.sendRemoteMessage(msg);
+        }
+        boolean done = latch.await(120, TimeUnit.SECONDS);
+        long millis = (System.nanoTime() - t1) / 1_000_000;
+        System.out.printf("%s\tdone=%s\twrong=%d\tpublishes=%d\t%dms%n", name, done, wrong.sum(), broker.publishes.sum(), millis);
+        if (batching) {
+            System.out.println("\tsender: " + senderPostman.batchStatistics());
+            System.out.println("\tworker: " + workerPostman.batchStatistics());
+            senderPostman.closeBatching();
+            workerPostman.closeBatching();
+        }
+    }
+
+    /**
+     * 等待合并时间远大于校验时间，释放内核时仍未发送的远端事件须立即发送
+     */
+    private static void disposeDrains() {
+        LoopbackBroker broker = new LoopbackBroker();
+        Facade sender = FacadeFactory.getFacade("dispose_sender");
+        LoopbackPostman postman = new LoopbackPostman(broker, "event_exec_after");
+        postman.initBatching(1024, 1, TimeUnit.MINUTES);
+        sender.initRemoteMessagePostman(postman);
+        for (int i = 0; i < 100; i++) {
+            sender.sendRemoteMessage(new Message("double", i));
+        }
+        if (broker.publishes.sum() != 0) {
+            throw new IllegalStateException("等待合并时间未到即已发送");
+        }
+        sender.dispose();
+        if (broker.publishes.sum() != 1 || broker.queue("event_exec_before").size() != 1) {
+            throw new IllegalStateException("释放内核时未发送批量发送队列中的远端事件：" + broker.publishes.sum());
+        }
+        System.out.println("dispose drained batched remote messages");
+    }
+
+    public static void main(String[] args) throws Exception {
+        run("per_message", false);
+        run("batched", true);
+        disposeDrains();
+        System.exit(0);
+    }
+
+}
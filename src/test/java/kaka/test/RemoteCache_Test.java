@@ -0,0 +1,87 @@
+package kaka.test;
+
+import com.kaka.notice.AsynResult;
+import com.kaka.notice.Message;
+import com.kaka.notice.TimedRemoteMessageCache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 带过期时间的事件消息本地缓存范例
+ * <br>
+ * 一半事件消息在存活时间内收到远端处理结果并移除，另一半过期后其{@link AsynResult}以超时完成；
+ * 超出容量上限的事件消息不被缓存并立即超时；并校验超时与远端结果同时到达时二者仅有一方生效
+ *
+ * @author zkpursuit
+ */
+public class RemoteCache_Test {
+
+    private static final int TOTAL = 100_000;
+    private static final LongAdder timeouts = new LongAdder();
+
+    private static void add(TimedRemoteMessageCache cache, String id, CountDownLatch latch) {
+        Message msg = new Message("remote", id);
+        AsynResult<Integer> result = msg.setResult("ResultMsg", new AsynResult<>());
+        if (latch != null) {
+            result.toCompletableFuture().whenComplete((v, ex) -> {
+                Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+                if (cause instanceof TimeoutException) timeouts.increment();
+                latch.countDown();
+            });
+        }
+        cache.add(id, msg);
+    }
+
+    public static void main(String[] args) throws Exception {
+        TimedRemoteMessageCache cache = new TimedRemoteMessageCache(2, TimeUnit.SECONDS, TOTAL);
+        CountDownLatch latch = new CountDownLatch(TOTAL / 2);
+        long t1 = System.nanoTime();
+        for (int i = 0; i < TOTAL; i++) {
+            add(cache, String.valueOf(i), i % 2 == 1 ? latch : null);
+        }
+        for (int i = 0; i < TOTAL; i += 2) {
+            cache.remove(String.valueOf(i));
+        }
+        System.out.printf("add/remove耗时：%dms\t%s%n", (System.nanoTime() - t1) / 1_000_000, cache.statistics());
+        boolean done = latch.await(10, TimeUnit.SECONDS);
+        System.out.printf("过期 done=%s\ttimeouts=%d\t%s%n", done, timeouts.sum(), cache.statistics());
+
+        //容量已满时不再缓存，新事件消息立即超时
+        timeouts.reset();
+        TimedRemoteMessageCache small = new TimedRemoteMessageCache(1, TimeUnit.MINUTES, 100);
+        CountDownLatch overflowLatch = new CountDownLatch(10);
+        for (int i = 0; i < 110; i++) {
+            add(small, "overflow_" + i, i >= 100 ? overflowLatch : null);
+        }
+        done = overflowLatch.await(1, TimeUnit.SECONDS);
+        System.out.printf("超出容量 done=%s\ttimeouts=%d\t%s%n", done, timeouts.sum(), small.statistics());
+
+        //超时与赋值结果竞争，回调结果须与赋值结果一致
+        int expired = 0;
+        for (int i = 0; i < 10_000; i++) {
+            Message msg = new Message("remote", "race_" + i);
+            AsynResult<Integer> result = msg.setResult("ResultMsg", new AsynResult<>());
+            CompletableFuture<Integer> future = result.toCompletableFuture();
+            final int value = i + 1;
+            Thread setter = Thread.ofVirtual().start(() -> result.set(value));
+            small.add("race_" + i, msg);
+            setter.join();
+            Integer actual = result.get(0, TimeUnit.MILLISECONDS);
+            if (future.isCompletedExceptionally()) {
+                expired++;
+                if (actual != null) {
+                    throw new IllegalStateException("已超时的结果被赋值：" + actual);
+                }
+            } else if (future.join() != value || actual == null || actual != value) {
+                throw new IllegalStateException("结果不一致：" + future.join() + " != " + actual);
+            }
+        }
+        System.out.printf("超时与赋值竞争 expired=%d\tset=%d%n", expired, 10_000 - expired);
+    }
+
+}
@@ -0,0 +1,120 @@
+package kaka.test;
+
+import com.kaka.notice.*;
+import com.kaka.util.ObjectPool;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 事件路由表派发性能对比范例
+ * <br>
+ * 对比三次ConcurrentHashMap查找加同步集合遍历的旧派发路径与不可变路由表派发路径，分别以1、8、64个派发线程测试
+ *
+ * @author zkpursuit
+ */
+public class Route_Test {
+
+    private static final int TOTAL = 2_000_000;
+    private static final LongAdder counter = new LongAdder();
+
+    public static class CounterCommand extends Command {
+        @Override
+        public void execute(Message msg) {
+            counter.increment();
+        }
+    }
+
+    public static class CounterMediator extends Mediator {
+        @Override
+        public void handleMessage(Message msg) {
+            counter.increment();
+        }
+
+        @Override
+        public Object[] listMessageInterests() {
+            return new Object[]{"route"};
+        }
+    }
+
+    /**
+     * 模拟旧版派发路径：三次Map查找及三次同步集合遍历
+     */
+    private static class LegacyDispatcher {
+        final Map<Object, SortedSet<ObjectPool<Command>>> cmdPoolMap = new ConcurrentHashMap<>();
+        final Map<Object, List<Mediator>> cmdMediatorMap = new ConcurrentHashMap<>();
+        final Map<Object, Set<IListener>> listenerMap = new ConcurrentHashMap<>();
+
+        void dispatch(Message msg, Facade facade) {
+            SortedSet<ObjectPool<Command>> poolSet = cmdPoolMap.get(msg.getWhat());
+            if (poolSet != null) {
+                for (ObjectPool<Command> pool : poolSet) {
+                    Command cmd = pool.obtain();
+                    if (cmd == null) continue;
+                    cmd.execute(msg);
+                    pool.idle(cmd);
+                }
+            }
+            List<Mediator> mediators = cmdMediatorMap.get(msg.getWhat());
+            if (mediators != null) {
+                for (Mediator mediator : mediators) mediator.handleMessage(msg);
+            }
+            Set<IListener> listeners = listenerMap.get(msg.getWhat());
+            if (listeners != null) {
+                for (IListener listener : listeners) listener.onMessage(msg, facade);
+            }
+        }
+    }
+
+    private static long run(int threads, Runnable task) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(threads);
+        long t1 = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            new Thread(() -> {
+                task.run();
+                latch.countDown();
+            }).start();
+        }
+        latch.await();
+        return System.nanoTime() - t1;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Facade facade = FacadeFactory.getFacade();
+        facade.registerCommand("route", CounterCommand.class, 64);
+        facade.registerMediator(CounterMediator.class);
+        IListener listener = (msg, _facade) -> counter.increment();
+        facade.addListener("route", listener);
+
+        LegacyDispatcher legacy = new LegacyDispatcher();
+        SortedSet<ObjectPool<Command>> poolSet = new TreeSet<>((p1, p2) -> 0);
+        poolSet.add(new ObjectPool<>(64) {
+            @Override
+            protected Command newObject() {
+                return new CounterCommand();
+            }
+        });
+        legacy.cmdPoolMap.put("route", Collections.synchronizedSortedSet(poolSet));
+        legacy.cmdMediatorMap.put("route", Collections.synchronizedList(new ArrayList<>(List.of(new CounterMediator()))));
+        legacy.listenerMap.put("route", Collections.synchronizedSet(new LinkedHashSet<>(List.of(listener))));
+
+        Message message = new Message("route");
+        for (int round = 0; round < 2; round++) {
+            for (int threads : new int[]{1, 8, 64}) {
+                final int perThread = TOTAL / threads;
+                long legacyNanos = run(threads, () -> {
+                    for (int i = 0; i < perThread; i++) legacy.dispatch(message, facade);
+                });
+                long routeNanos = run(threads, () -> {
+                    for (int i = 0; i < perThread; i++) facade.sendMessage(message);
+                });
+                System.out.printf("threads=%d\tlegacy=%.1f ops/ms\troute=%.1f ops/ms%n", threads,
+                        TOTAL / (legacyNanos / 1e6), TOTAL / (routeNanos / 1e6));
+            }
+        }
+        System.out.println("handled: " + counter.sum());
+    }
+
+}
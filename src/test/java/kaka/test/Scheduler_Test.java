@@ -0,0 +1,62 @@
+package kaka.test;
+
+import com.kaka.notice.Facade;
+import com.kaka.notice.FacadeFactory;
+import com.kaka.notice.Message;
+import com.kaka.notice.Scheduler;
+import com.kaka.util.TimingWheel;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 定时调度添加与取消的频繁变动测试
+ * <br>
+ * 以时间轮为后端，反复为大量玩家添加并取消buff计时，统计每毫秒的添加加取消次数，最后按组批量取消
+ *
+ * @author zkpursuit
+ */
+public class Scheduler_Test {
+
+    private static final int PLAYERS = 10_000;
+    private static final int ROUNDS = 50;
+
+    public static void main(String[] args) throws Exception {
+        Facade facade = FacadeFactory.getFacade();
+        facade.initTimingWheel(new TimingWheel(10, TimeUnit.MILLISECONDS, null));
+        String[] groups = new String[PLAYERS];
+        for (int i = 0; i < PLAYERS; i++) {
+            groups[i] = "player-" + i;
+        }
+        for (int round = 0; round < 3; round++) {
+            long t1 = System.nanoTime();
+            for (int r = 0; r < ROUNDS; r++) {
+                for (int i = 0; i < PLAYERS; i++) {
+                    Scheduler scheduler = Scheduler.create(groups[i]).interval(60, TimeUnit.SECONDS);
+                    scheduler.startTime(System.currentTimeMillis() + 60_000);
+                    facade.sendMessage(new Message(r & 7), scheduler);
+                }
+                for (int i = 0; i < PLAYERS; i++) {
+                    facade.cancelSchedule(r & 7, groups[i]);
+                }
+            }
+            long nanos = System.nanoTime() - t1;
+            System.out.printf("schedule+cancel: %.1f ops/ms%n", PLAYERS * ROUNDS / (nanos / 1e6));
+        }
+        TimeUnit.MILLISECONDS.sleep(50);
+        for (int i = 0; i < PLAYERS; i++) {
+            for (int cmd = 0; cmd < 8; cmd++) {
+                Scheduler scheduler = Scheduler.create(groups[i]).interval(60, TimeUnit.SECONDS);
+                scheduler.startTime(System.currentTimeMillis() + 60_000);
+                facade.sendMessage(new Message(cmd), scheduler);
+            }
+        }
+        long t1 = System.nanoTime();
+        for (int i = 0; i < PLAYERS; i++) {
+            facade.cancelGroup(groups[i]);
+        }
+        System.out.printf("cancelGroup %d groups: %dus, pending timeouts=%d%n", PLAYERS,
+                (System.nanoTime() - t1) / 1000, facade.getTimingWheel().size());
+        System.exit(0);
+    }
+
+}
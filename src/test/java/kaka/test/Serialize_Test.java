@@ -0,0 +1,79 @@
+package kaka.test;
+
+import com.kaka.notice.IResult;
+import com.kaka.notice.Message;
+import com.kaka.notice.SyncResult;
+import com.kaka.util.JdkSerializer;
+import kaka.test.util.KryoSerializer;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.function.Function;
+
+/**
+ * 事件消息序列化范例
+ * <br>
+ * 校验设置了处理结果的事件消息经{@link JdkSerializer}及{@link KryoSerializer}序列化后可还原，
+ * 序列化数据中不含处理结果容器的类名，反序列化得到的处理结果容器为{@link HashMap}；
+ * 并校验Kryo序列化数据与处理结果容器为{@link HashMap}时逐字节相同，可与旧版本互通
+ *
+ * @author zkpursuit
+ */
+public class Serialize_Test {
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    private static Object resultMap(Message message) throws ReflectiveOperationException {
+        Field field = Message.class.getDeclaredField("resultMap");
+        field.setAccessible(true);
+        return field.get(message);
+    }
+
+    private static Message create(int results) {
+        Message message = new Message("serialize", "body");
+        for (int i = 0; i < results; i++) {
+            message.setResult("result" + i, new SyncResult<String>()).set("value" + i);
+        }
+        return message;
+    }
+
+    private static void roundTrip(String name, Function<Message, byte[]> serialize, Function<byte[], Message> deserialize, int results) throws ReflectiveOperationException {
+        Message message = create(results);
+        byte[] bytes = serialize.apply(message);
+        check(!new String(bytes, StandardCharsets.ISO_8859_1).contains("MessageResults"), name + "：序列化数据中含有处理结果容器的类名");
+        Message copy = deserialize.apply(bytes);
+        check(resultMap(copy) instanceof HashMap, name + "：反序列化的处理结果容器不是HashMap：" + resultMap(copy).getClass());
+        for (int i = 0; i < results; i++) {
+            IResult<String> result = copy.getResult("result" + i);
+            check(result != null && ("value" + i).equals(result.get()), name + "：反序列化的处理结果错误：result" + i);
+        }
+        int[] count = new int[1];
+        copy.forEachResult((key, result) -> count[0]++);
+        check(count[0] == results, name + "：反序列化的处理结果数量错误：" + count[0]);
+        System.out.printf("%s round trip with %d results: %dB%n", name, results, bytes.length);
+    }
+
+    public static void main(String[] args) throws Exception {
+        JdkSerializer jdk = new JdkSerializer();
+        KryoSerializer<Message> kryo = new KryoSerializer<>();
+        //内联存储及转存至溢出表两种情况
+        for (int results : new int[]{2, 6}) {
+            roundTrip("jdk", jdk::serialize, bytes -> (Message) jdk.deserialize(bytes), results);
+            roundTrip("kryo", kryo::serialize, kryo::deserialize, results);
+        }
+
+        //Java反序列化得到处理结果容器为HashMap的事件消息，其Kryo序列化数据即为旧版本的序列化数据
+        Message message = create(1);
+        Message legacy = (Message) jdk.deserialize(jdk.serialize(message));
+        check(resultMap(legacy) instanceof HashMap, "Java反序列化的处理结果容器不是HashMap");
+        check(Arrays.equals(kryo.serialize(message), kryo.serialize(legacy)), "Kryo序列化数据与处理结果容器为HashMap时不同");
+        System.out.println("事件消息序列化校验通过");
+    }
+
+}
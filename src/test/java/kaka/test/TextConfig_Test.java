@@ -0,0 +1,189 @@
+package kaka.test;
+
+import com.kaka.numerical.NumericField;
+import com.kaka.numerical.TextNumericConfig;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 文本数值配置解析范例
+ * <br>
+ * 校验双引号引用的单元格、\r\n换行及首行即为列名时忽略文件开头的字节顺序标记，并对比按正则表达式逐行拆分、按字面分隔符流式读取及内存映射读取解析同一文件的速度
+ *
+ * @author zkpursuit
+ */
+public class TextConfig_Test {
+
+    private static final int ROWS = 300_000;
+
+    public static class Info {
+        private int id;
+        private String name;
+        @NumericField(elements = {"level"})
+        private int level;
+        private long exp;
+        private double weight;
+        private String desc;
+
+        @Override
+        public String toString() {
+            return id + "|" + name + "|" + level + "|" + exp + "|" + weight + "|" + desc;
+        }
+    }
+
+    public static class InfoConfig extends TextNumericConfig<Info> {
+        private final String delimiter;
+        private final boolean mapped;
+        final List<Info> infos = new ArrayList<>();
+
+        InfoConfig(String delimiter, boolean mapped) {
+            this.delimiter = delimiter;
+            this.mapped = mapped;
+            this.onRegister();
+        }
+
+        @Override
+        protected boolean isMappedFile(File file) {
+            return mapped;
+        }
+
+        @Override
+        protected String initDelimiter() {
+            return delimiter;
+        }
+
+        @Override
+        protected void cacheObject(Info info) {
+            infos.add(info);
+        }
+
+        @Override
+        protected void parseBefore() {
+            infos.clear();
+        }
+
+        @Override
+        protected void parseAfter() {
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    private static final String QUOTED_CONTENT = "说明行\r\n"
+            + "id\tname\tlevel\texp\tweight\tdesc\r\n"
+            + "1\t\"a\tb\"\t3\t4\t0.5\t\"第一行\r\n第二行，含\"\"引号\"\"\"\r\n"
+            + "\r\n"
+            + "2\t c \t\t\t\t\r\n"
+            + "3\tx\t1";
+
+    private static void checkQuoted(InfoConfig config) {
+        check(config.infos.size() == 3, "行数错误：" + config.infos);
+        Info info = config.infos.get(0);
+        check("a\tb".equals(info.name), "引用单元格中的分隔符解析错误：" + info.name);
+        check("第一行\r\n第二行，含\"引号\"".equals(info.desc), "引用单元格中的换行及引号解析错误：" + info.desc);
+        check(info.level == 3 && info.exp == 4 && info.weight == 0.5, "数值解析错误：" + info);
+        Info info2 = config.infos.get(1);
+        check("c".equals(info2.name) && info2.desc == null && info2.level == 0, "末尾空单元格解析错误：" + info2);
+        check(config.infos.get(2).level == 1, "无换行结尾的末行解析错误：" + config.infos.get(2));
+    }
+
+    private static void checkQuoted() throws Exception {
+        InfoConfig config = new InfoConfig("\t", false);
+        config.parse(QUOTED_CONTENT, 1);
+        checkQuoted(config);
+        System.out.println("引用单元格样例：" + config.infos.get(0));
+        File file = File.createTempFile("numeric", ".txt");
+        file.deleteOnExit();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF});
+            //文件流中的空行表示数据结束，故去除空行
+            out.write(QUOTED_CONTENT.replace("\r\n\r\n", "\r\n").getBytes(StandardCharsets.UTF_8));
+        }
+        config = new InfoConfig("\t", true);
+        config.parse(file, "UTF-8", 1);
+        checkQuoted(config);
+    }
+
+    /**
+     * 文件以字节顺序标记开头且首行即为列名时，首个列名不应包含字节顺序标记
+     */
+    private static void checkBom() throws Exception {
+        File file = File.createTempFile("numeric", ".txt");
+        file.deleteOnExit();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF});
+            out.write("id\tname\tlevel\r\n7\tx\t1\r\n".getBytes(StandardCharsets.UTF_8));
+        }
+        String[][] modes = {{"regex", "[\t]"}, {"streaming", "\t"}, {"mapped", "\t"}};
+        for (String[] mode : modes) {
+            InfoConfig config = new InfoConfig(mode[1], "mapped".equals(mode[0]));
+            config.parse(file, "UTF-8", 0);
+            check(config.infos.size() == 1, mode[0] + "：行数错误：" + config.infos);
+            check(config.infos.get(0).id == 7, mode[0] + "：首个列名含有字节顺序标记：" + config.infos.get(0));
+        }
+    }
+
+    private static File writeTable() throws Exception {
+        File file = File.createTempFile("numeric", ".txt");
+        file.deleteOnExit();
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write("说明行\n");
+            writer.write("id\tname\tlevel\texp\tweight\tdesc\n");
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < ROWS; i++) {
+                sb.setLength(0);
+                sb.append(i).append("\t名称").append(i).append('\t').append(i % 100).append('\t')
+                        .append(i * 1000L).append('\t').append(i % 9).append(".25\t描述文本").append(i).append('\n');
+                writer.write(sb.toString());
+            }
+        }
+        return file;
+    }
+
+    private static long run(InfoConfig config, File file) throws Exception {
+        config.infos.clear();
+        //避免前一模式遗留的对象影响本模式的计时
+        System.gc();
+        long t1 = System.nanoTime();
+        config.parse(file, "UTF-8", 1);
+        long time = System.nanoTime() - t1;
+        check(config.infos.size() == ROWS, "行数错误：" + config.infos.size());
+        return time;
+    }
+
+    public static void main(String[] args) throws Exception {
+        checkQuoted();
+        checkBom();
+        File file = writeTable();
+        InfoConfig regex = new InfoConfig("[\t]", false);
+        InfoConfig streaming = new InfoConfig("\t", false);
+        InfoConfig mapped = new InfoConfig("\t", true);
+        long bestRegex = Long.MAX_VALUE, bestStreaming = Long.MAX_VALUE, bestMapped = Long.MAX_VALUE;
+        for (int round = 0; round < 4; round++) {
+            bestRegex = Math.min(bestRegex, run(regex, file));
+            bestMapped = Math.min(bestMapped, run(mapped, file));
+            bestStreaming = Math.min(bestStreaming, run(streaming, file));
+        }
+        for (int i = 0; i < ROWS; i++) {
+            String s1 = regex.infos.get(i).toString();
+            String s2 = streaming.infos.get(i).toString();
+            String s3 = mapped.infos.get(i).toString();
+            check(s1.equals(s2) && s1.equals(s3), "解析结果不一致：" + s1 + " != " + s2 + " != " + s3);
+        }
+        System.out.printf("文件大小：%.1f MB%n", file.length() / 1024.0 / 1024.0);
+        System.out.printf("正则表达式逐行拆分：%.0f 行/秒%n", ROWS * 1e9 / bestRegex);
+        System.out.printf("字面分隔符流式读取：%.0f 行/秒%n", ROWS * 1e9 / bestStreaming);
+        System.out.printf("内存映射读取：%.0f 行/秒%n", ROWS * 1e9 / bestMapped);
+    }
+
+}
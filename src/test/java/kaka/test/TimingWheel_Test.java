@@ -0,0 +1,112 @@
+package kaka.test;
+
+import com.kaka.notice.Facade;
+import com.kaka.notice.FacadeFactory;
+import com.kaka.notice.Message;
+import com.kaka.notice.Scheduler;
+import com.kaka.util.TimingWheel;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 时间轮定时器范例
+ * <br>
+ * 对比定时调度线程池与时间轮添加、取消大量定时任务的耗时，并以时间轮作为事件调度器的后端执行buff计时；
+ * 并校验到期任务执行器关闭后到期任务改在时间轮线程中执行，时间轮线程不会退出
+ *
+ * @author zkpursuit
+ */
+public class TimingWheel_Test {
+
+    private static final int TOTAL = 200_000;
+
+    private static void rejected() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        TimingWheel wheel = new TimingWheel(10, TimeUnit.MILLISECONDS, executor, "rejected-wheel");
+        CountDownLatch before = new CountDownLatch(1);
+        wheel.schedule(before::countDown, 10, TimeUnit.MILLISECONDS);
+        if (!before.await(5, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("执行器关闭前到期任务未执行");
+        }
+        executor.shutdown();
+        final Thread[] threads = new Thread[2];
+        CountDownLatch after = new CountDownLatch(2);
+        for (int i = 0; i < 2; i++) {
+            final int index = i;
+            wheel.schedule(() -> {
+                threads[index] = Thread.currentThread();
+                after.countDown();
+            }, 20 + i * 50L, TimeUnit.MILLISECONDS);
+        }
+        if (!after.await(5, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("执行器关闭后到期任务未执行，剩余" + after.getCount());
+        }
+        if (!"rejected-wheel".equals(threads[0].getName()) || threads[1] != threads[0]) {
+            throw new IllegalStateException("执行器关闭后到期任务未在时间轮线程中执行：" + threads[0] + "，" + threads[1]);
+        }
+        wheel.stop();
+        System.out.println("执行器关闭后到期任务在时间轮线程中执行：" + threads[0].getName());
+    }
+
+    public static void main(String[] args) throws Exception {
+        rejected();
+        ScheduledExecutorService pool = Executors.newScheduledThreadPool(1);
+        TimingWheel wheel = new TimingWheel(10, TimeUnit.MILLISECONDS, Executors.newFixedThreadPool(2));
+        LongAdder fired = new LongAdder();
+        Runnable task = fired::increment;
+        for (int round = 0; round < 3; round++) {
+            ScheduledFuture<?>[] futures = new ScheduledFuture[TOTAL];
+            long t1 = System.nanoTime();
+            for (int i = 0; i < TOTAL; i++) {
+                futures[i] = pool.schedule(task, 60_000 + i, TimeUnit.MILLISECONDS);
+            }
+            for (int i = 0; i < TOTAL; i++) {
+                futures[i].cancel(false);
+            }
+            long poolNanos = System.nanoTime() - t1;
+
+            TimingWheel.Timeout[] timeouts = new TimingWheel.Timeout[TOTAL];
+            t1 = System.nanoTime();
+            for (int i = 0; i < TOTAL; i++) {
+                timeouts[i] = wheel.schedule(task, 60_000 + i, TimeUnit.MILLISECONDS);
+            }
+            for (int i = 0; i < TOTAL; i++) {
+                timeouts[i].cancel();
+            }
+            long wheelNanos = System.nanoTime() - t1;
+            System.out.printf("schedule+cancel %d: pool=%dms\twheel=%dms%n", TOTAL, poolNanos / 1_000_000, wheelNanos / 1_000_000);
+        }
+        pool.shutdownNow();
+
+        fired.reset();
+        long t1 = System.nanoTime();
+        for (int i = 0; i < TOTAL; i++) {
+            wheel.schedule(task, 100 + i % 1000, TimeUnit.MILLISECONDS);
+        }
+        while (fired.sum() < TOTAL) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        System.out.printf("expired %d in %dms, pending=%d%n", fired.sum(), (System.nanoTime() - t1) / 1_000_000, wheel.size());
+
+        Facade facade = FacadeFactory.getFacade();
+        facade.initTimingWheel(wheel);
+        CountDownLatch latch = new CountDownLatch(3);
+        facade.addListener("buff", (msg, _facade) -> {
+            System.out.println("buff tick: " + System.currentTimeMillis() % 100_000);
+            latch.countDown();
+        });
+        facade.sendMessage(new Message("buff"), Scheduler.create("player-1")
+                .interval(200, TimeUnit.MILLISECONDS)
+                .repeat(3));
+        latch.await();
+        wheel.stop();
+        System.exit(0);
+    }
+
+}
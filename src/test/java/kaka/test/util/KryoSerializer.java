@@ -1,14 +1,17 @@
 package kaka.test.util;
 
 import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Registration;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 import com.esotericsoftware.kryo.serializers.CompatibleFieldSerializer;
+import com.esotericsoftware.kryo.util.DefaultClassResolver;
 import com.esotericsoftware.kryo.util.DefaultInstantiatorStrategy;
 import com.esotericsoftware.kryo.util.Pool;
 import org.objenesis.strategy.StdInstantiatorStrategy;
 
 import java.io.*;
+import java.util.HashMap;
 
 /**
  * 序列化器
@@ -17,9 +20,35 @@ import java.io.*;
  */
 public class KryoSerializer<T> implements Serializer<T> {
 
+    /**
+     * 事件消息的处理结果容器，此类在类包外不可访问
+     */
+    private static final Class<?> MESSAGE_RESULTS;
+
+    static {
+        try {
+            MESSAGE_RESULTS = Class.forName("com.kaka.notice.MessageResults");
+        } catch (ClassNotFoundException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * 将事件消息的处理结果容器按{@link HashMap}写入
+     * <br>
+     * Kryo不识别writeReplace，否则将写入处理结果容器的类名，类名及字节内容均与处理结果容器为{@link HashMap}的旧版本不兼容；
+     * 以{@link HashMap}的类名及序列化器写入后，读取端得到{@link HashMap}
+     */
+    private static class MessageResultsClassResolver extends DefaultClassResolver {
+        @Override
+        public Registration writeClass(Output output, Class type) {
+            return super.writeClass(output, type == MESSAGE_RESULTS ? HashMap.class : type);
+        }
+    }
+
     private static final Pool<Kryo> pool = new Pool<Kryo>(true, false, 100) {
         protected Kryo create() {
-            Kryo kryo = new Kryo();
+            Kryo kryo = new Kryo(new MessageResultsClassResolver(), null);
             kryo.setReferences(true); //默认值就是 true，添加此行的目的是为了提醒维护者，不要改变这个配置
             //不强制要求注册类（注册行为无法保证多个 JVM 内同一个类的注册编号相同；而且业务系统中大量的 Class 也难以一一注册）
             kryo.setRegistrationRequired(false); //默认值就是 false，添加此行的目的是为了提醒维护者，不要改变这个配置